@@ -0,0 +1,92 @@
+package com.hostfully.benchmark;
+
+import com.hostfully.fixtures.SyntheticDataset;
+import com.hostfully.fixtures.SyntheticDataset.Spec;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Latency of the reservation overlap query as the portfolio grows, against a synthetic dataset of
+ * {@code properties} properties with a hundred reservations each on average.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverlapQueryScaleBenchmark {
+
+  private static final int DAYS = 3 * 365;
+
+  @Param({"1000", "20000"})
+  private int properties;
+
+  private Spec spec;
+  private String[] propertyIds;
+  private SingleConnectionDataSource dataSource;
+  private Connection connection;
+  private PreparedStatement overlapQuery;
+  private SplittableRandom random;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    dataSource =
+        new SingleConnectionDataSource(
+            "jdbc:h2:mem:overlap-scale-" + properties + ";DB_CLOSE_DELAY=-1", "sa", "", true);
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration/h2")
+        .load()
+        .migrate();
+    spec = Spec.of(properties, 100).withTimeline(LocalDate.of(2030, 1, 1), DAYS).withThreads(1);
+    SyntheticDataset.generate(dataSource, spec);
+    propertyIds = new String[properties];
+    for (int i = 0; i < properties; i++) {
+      propertyIds[i] = SyntheticDataset.propertyId(spec, i);
+    }
+
+    connection = dataSource.getConnection();
+    connection.setAutoCommit(true);
+    overlapQuery =
+        connection.prepareStatement(
+            "SELECT r.id, r.start, r.finish FROM reservation r "
+                + "WHERE r.property_id = ? AND r.status = 0 AND r.start <= ? AND r.finish >= ?");
+    random = new SplittableRandom(7);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Benchmark
+  public int overlapQuery() throws SQLException {
+    LocalDate start = spec.from().plusDays(random.nextInt(DAYS - 7));
+    overlapQuery.setString(1, propertyIds[random.nextInt(properties)]);
+    overlapQuery.setDate(2, Date.valueOf(start.plusDays(7)));
+    overlapQuery.setDate(3, Date.valueOf(start));
+    int rows = 0;
+    try (ResultSet result = overlapQuery.executeQuery()) {
+      while (result.next()) {
+        rows++;
+      }
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,81 @@
+package com.hostfully.benchmark;
+
+import com.hostfully.exception.OverlappingReservationsException;
+import com.hostfully.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of rejecting a booking, from the throw in the service to the catch in the exception
+ * handler. The eager variant reproduces the previous exceptions: a full stack trace and the
+ * message formatted up front, whether or not it is ever read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OverlapRejectionBenchmark {
+
+  @Param({"1", "10"})
+  private int conflicts;
+
+  private List<Reservation> overlapping;
+
+  @Setup
+  public void setUp() {
+    overlapping = new ArrayList<>();
+    LocalDate day = LocalDate.of(2024, 1, 1);
+    for (int i = 0; i < conflicts; i++) {
+      Reservation reservation = new Reservation();
+      reservation.setId("reservation-" + i);
+      reservation.setStart(day);
+      reservation.setFinish(day.plusDays(2));
+      overlapping.add(reservation);
+      day = day.plusDays(3);
+    }
+  }
+
+  @Benchmark
+  public Object eagerException() {
+    try {
+      throw new IllegalArgumentException(
+          "Selected range is overlapping with previously defined reservation(s): "
+              + overlapping.stream()
+                  .map(
+                      r ->
+                          String.format(
+                              "(%s: %s until %s)", r.getId(), r.getStart(), r.getFinish()))
+                  .collect(Collectors.joining(", ")));
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object stacklessException() {
+    try {
+      throw new OverlappingReservationsException(overlapping);
+    } catch (OverlappingReservationsException e) {
+      return e.getConflicts();
+    }
+  }
+
+  @Benchmark
+  public Object stacklessExceptionWithMessage() {
+    try {
+      throw new OverlappingReservationsException(overlapping);
+    } catch (OverlappingReservationsException e) {
+      return e.getMessage();
+    }
+  }
+}
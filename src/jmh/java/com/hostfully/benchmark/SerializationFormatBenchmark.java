@@ -0,0 +1,74 @@
+package com.hostfully.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.config.BinaryFormatConfig;
+import com.hostfully.config.ObjectMapperConfig;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares JSON and CBOR for a large property calendar. Bytes on the wire are printed once per
+ * trial, CPU cost is the benchmark score and allocation comes from the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationFormatBenchmark {
+
+  @Param({"json", "cbor"})
+  private String format;
+
+  @Param({"1000"})
+  private int bookings;
+
+  private ObjectMapper mapper;
+  private PropertyDto property;
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws Exception {
+    mapper =
+        format.equals("cbor")
+            ? BinaryFormatConfig.cborMapper()
+            : new ObjectMapperConfig().objectMapper();
+
+    LocalDate day = LocalDate.of(2024, 1, 1);
+    List<ReservationDto> reservations = new ArrayList<>();
+    List<BlockDto> blocks = new ArrayList<>();
+    for (int i = 0; i < bookings; i++) {
+      reservations.add(
+          new ReservationDto(
+              UUID.randomUUID().toString(), day, day.plusDays(2), "Guest " + i, "ACTIVE"));
+      blocks.add(new BlockDto(UUID.randomUUID().toString(), day.plusDays(3), day.plusDays(4)));
+      day = day.plusDays(5);
+    }
+    property = new PropertyDto(UUID.randomUUID().toString(), "Property", 1, blocks, reservations);
+    serialized = mapper.writeValueAsBytes(property);
+
+    System.out.printf("%n%s payload: %d bytes%n", format, serialized.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return mapper.writeValueAsBytes(property);
+  }
+
+  @Benchmark
+  public PropertyDto deserialize() throws Exception {
+    return mapper.readValue(serialized, PropertyDto.class);
+  }
+}
@@ -0,0 +1,58 @@
+package com.hostfully.benchmark;
+
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.mapper.ReservationMapper;
+import com.hostfully.model.Property;
+import com.hostfully.model.Reservation;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * Copies an update request onto an existing reservation the way the services used to
+ * (reflection through {@link BeanUtils}) and the way they do now (generated MapStruct code).
+ * Run with the gc profiler to compare allocation per update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UpdateMappingBenchmark {
+
+  private final ReservationMapper reservationMapper = Mappers.getMapper(ReservationMapper.class);
+
+  private PersistReservationDto request;
+  private Reservation reservation;
+
+  @Setup
+  public void setUp() {
+    request =
+        new PersistReservationDto(
+            "property-id", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5), "New guest");
+    reservation = new Reservation();
+    reservation.setId("reservation-id");
+    reservation.setProperty(new Property("property-id"));
+    reservation.setStart(LocalDate.of(2024, 1, 1));
+    reservation.setFinish(LocalDate.of(2024, 1, 5));
+    reservation.setGuestName("Guest");
+  }
+
+  @Benchmark
+  public Reservation beanUtilsCopy() {
+    BeanUtils.copyProperties(request, reservation);
+    return reservation;
+  }
+
+  @Benchmark
+  public Reservation mapStructUpdate() {
+    reservationMapper.update(request, reservation);
+    return reservation;
+  }
+}
@@ -0,0 +1,168 @@
+package com.hostfully.availability;
+
+import com.hostfully.event.PropertyChangedEvent;
+import com.hostfully.journal.BookingJournal;
+import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.Reservation;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.ReservationRepository;
+import com.hostfully.warmup.WarmupListener;
+import com.hostfully.warmup.WarmupSet;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The nights each property is booked, kept as {@link NightCounts} so the earliest free window is
+ * found by walking the bookings from the first night searched instead of reading them all.
+ *
+ * <p>A property's calendar is loaded from the database at startup when the property is warmed
+ * up, or else the first time it is searched, with the bookings ending today or later, and kept
+ * current by the services afterwards. Bookings are tracked by id, so one written while the
+ * calendar loads is counted once whether the load reads it or not, and the change reported by the
+ * service wins over what the load read. Blocks close every unit, so they are counted with a
+ * weight no number of reservations reaches.
+ */
+@Component
+public class AvailabilityIndex implements WarmupListener {
+
+  private static final int BLOCK_WEIGHT = 1 << 20;
+
+  private record Booking(long start, long finish, int weight) {}
+
+  private static final class Calendar {
+    private final Object loading = new Object();
+    private final Map<String, Booking> bookings = new HashMap<>();
+    private final Set<String> changedWhileLoading = new HashSet<>();
+    private final NightCounts nights = new NightCounts();
+    private volatile boolean loaded;
+  }
+
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final BookingJournal bookingJournal;
+  private final Map<String, Calendar> calendars = new ConcurrentHashMap<>();
+
+  public AvailabilityIndex(
+      ReservationRepository reservationRepository,
+      BlockRepository blockRepository,
+      BookingJournal bookingJournal) {
+    this.reservationRepository = reservationRepository;
+    this.blockRepository = blockRepository;
+    this.bookingJournal = bookingJournal;
+  }
+
+  /**
+   * First night on or after {@code from} starting {@code nights} nights in a row on which none of
+   * the property's blocks and fewer active reservations than {@code units} fall. Bookings ending
+   * before today are not loaded, so {@code from} must not be before today.
+   */
+  public LocalDate nextAvailable(String propertyId, LocalDate from, int nights, int units) {
+    Calendar calendar = calendar(propertyId);
+    synchronized (calendar) {
+      return LocalDate.ofEpochDay(calendar.nights.firstRun(from.toEpochDay(), nights, units));
+    }
+  }
+
+  /** Records that an active reservation which took {@code previous} now takes {@code current}. */
+  public void replace(BookingInterval previous, BookingInterval current) {
+    replace(previous, current, 1);
+  }
+
+  /** Records that a block which took {@code previous} now takes {@code current}. */
+  public void replaceBlock(BookingInterval previous, BookingInterval current) {
+    replace(previous, current, BLOCK_WEIGHT);
+  }
+
+  @Override
+  public void onWarmup(WarmupSet warmupSet) {
+    warmupSet.propertyIds().forEach(this::calendar);
+  }
+
+  @EventListener
+  public void onPropertyChanged(PropertyChangedEvent event) {
+    // Loaded again on the next search, which also drops the calendar of a deleted property
+    calendars.remove(event.propertyId());
+  }
+
+  private void replace(BookingInterval previous, BookingInterval current, int weight) {
+    if (previous != null) {
+      update(previous.propertyId(), previous.id(), null);
+    }
+    if (current != null) {
+      update(
+          current.propertyId(),
+          current.id(),
+          new Booking(current.start().toEpochDay(), current.finish().toEpochDay(), weight));
+    }
+  }
+
+  private void update(String propertyId, String id, Booking booking) {
+    Calendar calendar = calendars.get(propertyId);
+    if (calendar == null) {
+      return;
+    }
+    synchronized (calendar) {
+      put(calendar, id, booking);
+      if (!calendar.loaded) {
+        calendar.changedWhileLoading.add(id);
+      }
+    }
+  }
+
+  private Calendar calendar(String propertyId) {
+    Calendar calendar = calendars.computeIfAbsent(propertyId, id -> new Calendar());
+    if (calendar.loaded) {
+      return calendar;
+    }
+    synchronized (calendar.loading) {
+      if (calendar.loaded) {
+        return calendar;
+      }
+      // Bookings written from here on reach the calendar through replace, the ones before are
+      // read below once the journal has stored them
+      bookingJournal.awaitPersisted(propertyId);
+      LocalDate from = LocalDate.now();
+      LocalDate to = from.plusYears(100);
+      List<Reservation> reservations =
+          reservationRepository.findByPropertyIdAndDateRange(propertyId, from, to);
+      List<Block> blocks = blockRepository.findByPropertyIdAndDateRange(propertyId, from, to);
+      synchronized (calendar) {
+        for (Reservation reservation : reservations) {
+          load(calendar, reservation.getId(), reservation.getStart(), reservation.getFinish(), 1);
+        }
+        for (Block block : blocks) {
+          load(calendar, block.getId(), block.getStart(), block.getFinish(), BLOCK_WEIGHT);
+        }
+        calendar.changedWhileLoading.clear();
+        calendar.loaded = true;
+      }
+    }
+    return calendar;
+  }
+
+  private void load(Calendar calendar, String id, LocalDate start, LocalDate finish, int weight) {
+    // What the services reported since the load began is newer than what the load read
+    if (!calendar.changedWhileLoading.contains(id)) {
+      put(calendar, id, new Booking(start.toEpochDay(), finish.toEpochDay(), weight));
+    }
+  }
+
+  private static void put(Calendar calendar, String id, Booking booking) {
+    Booking removed =
+        booking == null ? calendar.bookings.remove(id) : calendar.bookings.put(id, booking);
+    if (removed != null) {
+      calendar.nights.add(removed.start(), removed.finish(), -removed.weight());
+    }
+    if (booking != null) {
+      calendar.nights.add(booking.start(), booking.finish(), booking.weight());
+    }
+  }
+}
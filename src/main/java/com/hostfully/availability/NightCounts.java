@@ -0,0 +1,75 @@
+package com.hostfully.availability;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bookings per night as a step function: each key is the epoch day a count starts, holding until
+ * the next key, and nights before the first key or from the last key on count zero. Only the
+ * nights where bookings begin or end are stored, so the free runs are the gaps between steps and
+ * finding one walks the steps from the first night searched until a gap is long enough.
+ *
+ * <p>Not thread safe, callers serialize access.
+ */
+final class NightCounts {
+
+  private final TreeMap<Long, Integer> steps = new TreeMap<>();
+
+  /** Adds {@code delta} to every night of [from, to], both epoch days inclusive. */
+  void add(long from, long to, int delta) {
+    split(from);
+    split(to + 1);
+    for (Map.Entry<Long, Integer> step : steps.subMap(from, to + 1).entrySet()) {
+      step.setValue(step.getValue() + delta);
+    }
+    merge(from);
+    merge(to + 1);
+  }
+
+  /** Count of the night. */
+  int count(long night) {
+    Map.Entry<Long, Integer> step = steps.floorEntry(night);
+    return step == null ? 0 : step.getValue();
+  }
+
+  /**
+   * First night on or after {@code from} starting {@code nights} nights in a row that each count
+   * less than {@code limit}, which must be positive. There always is one, every count drops back
+   * to zero after the last booking.
+   */
+  long firstRun(long from, int nights, int limit) {
+    boolean open = count(from) < limit;
+    long runStart = from;
+    for (Map.Entry<Long, Integer> step : steps.tailMap(from, false).entrySet()) {
+      if (open && step.getKey() - runStart >= nights) {
+        return runStart;
+      }
+      if (step.getValue() >= limit) {
+        open = false;
+      } else if (!open) {
+        open = true;
+        runStart = step.getKey();
+      }
+    }
+    return runStart;
+  }
+
+  /** Number of steps stored. */
+  int size() {
+    return steps.size();
+  }
+
+  private void split(long night) {
+    if (!steps.containsKey(night)) {
+      steps.put(night, count(night));
+    }
+  }
+
+  private void merge(long night) {
+    Integer count = steps.get(night);
+    Map.Entry<Long, Integer> before = steps.lowerEntry(night);
+    if (count != null && count == (before == null ? 0 : before.getValue())) {
+      steps.remove(night);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.hostfully.cache;
+
+import com.hostfully.cache.SingleFlight.Outcome;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.event.PropertyChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets concurrent {@code GET /property/{id}} calls for the same property share one load. Any write
+ * to the property or its bookings detaches the load in progress, so reads that start after the
+ * write see it.
+ */
+@Component
+public class PropertyReadCoalescer {
+
+  private final boolean enabled;
+  private final SingleFlight<String, PropertyDto> flights;
+  private final Map<Outcome, Counter> reads = new EnumMap<>(Outcome.class);
+
+  public PropertyReadCoalescer(ReadCoalescingProperties properties, MeterRegistry registry) {
+    for (Outcome outcome : Outcome.values()) {
+      reads.put(
+          outcome,
+          registry.counter("hostfully.property.reads", "outcome", outcome.name().toLowerCase()));
+    }
+    this.enabled = properties.enabled();
+    this.flights =
+        new SingleFlight<>(properties.maxWait(), outcome -> reads.get(outcome).increment());
+  }
+
+  public PropertyDto load(String propertyId, Supplier<PropertyDto> loader) {
+    return enabled ? flights.load(propertyId, loader) : loader.get();
+  }
+
+  // Runs before the response cache moves its version, so that a read which already sees the new
+  // version cannot join a load that started before the write
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onBookingChanged(BookingChangedEvent event) {
+    flights.invalidate(event.propertyId());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onPropertyChanged(PropertyChangedEvent event) {
+    flights.invalidate(event.propertyId());
+  }
+}
@@ -0,0 +1,165 @@
+package com.hostfully.cache;
+
+import com.hostfully.config.ResponseFormats.ResponseFormat;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.event.PropertyChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code GET /property/{id}} responses as the bytes written to the client, one per
+ * representation and encoding, so a repeated read skips the mapping and the serialization of every
+ * reservation and block. Large responses are stored gzipped for clients that accept it.
+ *
+ * <p>Properties are evicted least recently read first once the stored bytes pass {@code
+ * max-size}. A write to a property or its bookings drops its responses and bumps a version, and a
+ * response is only stored if the version did not move while it was being built, so a read that
+ * raced with a write cannot put the old state back.
+ */
+@Component
+public class PropertyResponseCache {
+
+  private static final int VERSION_STRIPES = 1024;
+  // Rough cost of the map nodes, keys and records around each stored body
+  private static final int ENTRY_OVERHEAD = 128;
+
+  public record CachedResponse(byte[] body, boolean gzipped) {}
+
+  private record Variant(String mediaType, boolean gzip) {}
+
+  private final boolean enabled;
+  private final long maxBytes;
+  private final long gzipMinBytes;
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+  private final LinkedHashMap<String, Map<Variant, CachedResponse>> properties =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter servedFromCache;
+  private final Counter evictions;
+
+  public PropertyResponseCache(ResponseCacheProperties properties, MeterRegistry registry) {
+    this.enabled = properties.enabled();
+    this.maxBytes = properties.maxSize().toBytes();
+    this.gzipMinBytes = properties.gzipMinSize().toBytes();
+    this.hits = registry.counter("hostfully.response.cache.requests", "result", "hit");
+    this.misses = registry.counter("hostfully.response.cache.requests", "result", "miss");
+    this.servedFromCache =
+        Counter.builder("hostfully.response.cache.served")
+            .baseUnit("bytes")
+            .description("Response bytes written straight from the cache")
+            .register(registry);
+    this.evictions = registry.counter("hostfully.response.cache.evictions");
+    registry.gauge("hostfully.response.cache.size", this, PropertyResponseCache::size);
+  }
+
+  public CachedResponse get(
+      String propertyId, ResponseFormat format, boolean acceptsGzip, Supplier<PropertyDto> loader) {
+    if (!enabled) {
+      return new CachedResponse(serialize(format, loader.get()), false);
+    }
+    Variant variant = new Variant(format.mediaType().toString(), acceptsGzip);
+    synchronized (properties) {
+      Map<Variant, CachedResponse> variants = properties.get(propertyId);
+      CachedResponse cached = variants == null ? null : variants.get(variant);
+      if (cached != null) {
+        hits.increment();
+        servedFromCache.increment(cached.body().length);
+        return cached;
+      }
+    }
+    misses.increment();
+
+    int stripe = stripe(propertyId);
+    long version = versions.get(stripe);
+    byte[] body = serialize(format, loader.get());
+    CachedResponse response =
+        acceptsGzip && body.length >= gzipMinBytes
+            ? new CachedResponse(gzip(body), true)
+            : new CachedResponse(body, false);
+    synchronized (properties) {
+      if (versions.get(stripe) == version) {
+        CachedResponse previous =
+            properties.computeIfAbsent(propertyId, id -> new HashMap<>()).put(variant, response);
+        bytes += cost(response) - (previous == null ? 0 : cost(previous));
+        evict();
+      }
+    }
+    return response;
+  }
+
+  @EventListener
+  public void onBookingChanged(BookingChangedEvent event) {
+    invalidate(event.propertyId());
+  }
+
+  @EventListener
+  public void onPropertyChanged(PropertyChangedEvent event) {
+    invalidate(event.propertyId());
+  }
+
+  long size() {
+    synchronized (properties) {
+      return bytes;
+    }
+  }
+
+  private void invalidate(String propertyId) {
+    versions.incrementAndGet(stripe(propertyId));
+    synchronized (properties) {
+      Map<Variant, CachedResponse> variants = properties.remove(propertyId);
+      if (variants != null) {
+        variants.values().forEach(response -> bytes -= cost(response));
+      }
+    }
+  }
+
+  private void evict() {
+    Iterator<Map<Variant, CachedResponse>> eldest = properties.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      eldest.next().values().forEach(response -> bytes -= cost(response));
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  private static int stripe(String propertyId) {
+    return Math.floorMod(propertyId.hashCode(), VERSION_STRIPES);
+  }
+
+  private static long cost(CachedResponse response) {
+    return response.body().length + ENTRY_OVERHEAD;
+  }
+
+  private static byte[] serialize(ResponseFormat format, PropertyDto property) {
+    try {
+      return format.mapper().writeValueAsBytes(property);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+}
@@ -0,0 +1,11 @@
+package com.hostfully.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param enabled whether concurrent reads of the same property share one load
+ * @param maxWait how long a read waits for the shared load before running its own
+ */
+@ConfigurationProperties(prefix = "hostfully.read-coalescing")
+public record ReadCoalescingProperties(boolean enabled, Duration maxWait) {}
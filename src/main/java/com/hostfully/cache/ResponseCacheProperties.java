@@ -0,0 +1,12 @@
+package com.hostfully.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param enabled whether serialized property responses are kept between requests
+ * @param maxSize bytes of responses kept before the least recently read properties are evicted
+ * @param gzipMinSize smallest response stored gzipped for clients that accept it
+ */
+@ConfigurationProperties(prefix = "hostfully.response-cache")
+public record ResponseCacheProperties(boolean enabled, DataSize maxSize, DataSize gzipMinSize) {}
@@ -0,0 +1,46 @@
+package com.hostfully.cache;
+
+import com.hostfully.config.ResponseFormats;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.service.PropertyService;
+import com.hostfully.warmup.WarmupListener;
+import com.hostfully.warmup.WarmupSet;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the response cache with the warmed up properties, as JSON for clients that accept gzip,
+ * the representation almost every read asks for. The cache's size bound still applies, so a
+ * warmup set larger than the cache keeps the busiest properties that fit. The reactive stack does
+ * not read the cache.
+ */
+@Profile("!reactive")
+@Component
+@AllArgsConstructor
+public class ResponseCacheWarmup implements WarmupListener {
+
+  private final ResponseCacheProperties properties;
+  private final PropertyResponseCache responseCache;
+  private final ResponseFormats responseFormats;
+  private final PropertyService propertyService;
+
+  @Override
+  public void onWarmup(WarmupSet warmupSet) {
+    if (!properties.enabled()) {
+      return;
+    }
+    // Read in reverse, so the busiest properties are the most recently read and evicted last
+    List<String> propertyIds = warmupSet.propertyIds();
+    for (int i = propertyIds.size() - 1; i >= 0; i--) {
+      String propertyId = propertyIds.get(i);
+      try {
+        responseCache.get(
+            propertyId, responseFormats.json(), true, () -> propertyService.findById(propertyId));
+      } catch (PropertyNotFoundException e) {
+        // Deleted since it was ranked
+      }
+    }
+  }
+}
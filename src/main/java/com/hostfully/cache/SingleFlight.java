@@ -0,0 +1,94 @@
+package com.hostfully.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time. The first caller for a key runs the loader on its own
+ * thread; callers that arrive while it runs wait for the same result, or its exception, instead of
+ * loading again. A caller that waits longer than {@code maxWait} gives up on the shared load and
+ * runs its own.
+ *
+ * <p>Nothing is kept once a load completes, so a result is only ever shared by calls that
+ * overlapped in time.
+ */
+public final class SingleFlight<K, V> {
+
+  /** How a call got its result. */
+  public enum Outcome {
+    LOADED,
+    SHARED,
+    TIMED_OUT
+  }
+
+  /** Told how every call got its result. */
+  public interface Listener {
+    void completed(Outcome outcome);
+  }
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+  private final long maxWaitNanos;
+  private final Listener listener;
+
+  public SingleFlight(Duration maxWait, Listener listener) {
+    this.maxWaitNanos = maxWait.toNanos();
+    this.listener = listener;
+  }
+
+  public V load(K key, Supplier<V> loader) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+    if (existing == null) {
+      return lead(key, flight, loader);
+    }
+    try {
+      V value = existing.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+      listener.completed(Outcome.SHARED);
+      return value;
+    } catch (ExecutionException e) {
+      listener.completed(Outcome.SHARED);
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      listener.completed(Outcome.TIMED_OUT);
+      return loader.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for " + key, e);
+    }
+  }
+
+  /**
+   * Makes calls for the key stop joining the load in progress, if any. Calls already waiting on it
+   * still get its result.
+   */
+  public void invalidate(K key) {
+    flights.remove(key);
+  }
+
+  private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+    try {
+      V value = loader.get();
+      flight.complete(value);
+      listener.completed(Outcome.LOADED);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      listener.completed(Outcome.LOADED);
+      throw e;
+    } finally {
+      // Leaves alone a newer flight started after an invalidation
+      flights.remove(key, flight);
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.hostfully.calendar;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/** @param cacheMaxSize bytes of feeds kept before the least recently read properties are evicted */
+@ConfigurationProperties(prefix = "hostfully.calendar")
+public record CalendarProperties(DataSize cacheMaxSize) {}
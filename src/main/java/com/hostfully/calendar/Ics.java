@@ -0,0 +1,153 @@
+package com.hostfully.calendar;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Just enough of RFC 5545 to publish and read availability feeds made of all-day events. */
+public final class Ics {
+
+  private static final String CRLF = "\r\n";
+  private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+  private static final DateTimeFormatter TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+  private static final DateTimeFormatter LOCAL_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private Ics() {}
+
+  public static String write(List<IcsEvent> events, Instant stamp) {
+    StringBuilder ics = new StringBuilder(128 + events.size() * 160);
+    line(ics, "BEGIN:VCALENDAR");
+    line(ics, "VERSION:2.0");
+    line(ics, "PRODID:-//Hostfully//Hostfully API//EN");
+    line(ics, "CALSCALE:GREGORIAN");
+    String dtstamp = TIMESTAMP.format(stamp);
+    for (IcsEvent event : events) {
+      line(ics, "BEGIN:VEVENT");
+      line(ics, "UID:" + escape(event.uid()));
+      line(ics, "DTSTAMP:" + dtstamp);
+      line(ics, "DTSTART;VALUE=DATE:" + DATE.format(event.start()));
+      // DTEND is exclusive for all-day events
+      line(ics, "DTEND;VALUE=DATE:" + DATE.format(event.finish().plusDays(1)));
+      line(ics, "SUMMARY:" + escape(event.summary()));
+      line(ics, "END:VEVENT");
+    }
+    line(ics, "END:VCALENDAR");
+    return ics.toString();
+  }
+
+  /**
+   * Reads the events of a feed. Date-time values are reduced to their date in {@code zone}: UTC
+   * ones and those with a known {@code TZID} are converted, floating ones are taken as they are.
+   * An event without {@code DTEND} occupies its start day only.
+   */
+  public static List<IcsEvent> read(String ics, ZoneId zone) {
+    List<IcsEvent> events = new ArrayList<>();
+    String uid = null;
+    String summary = null;
+    LocalDate start = null;
+    LocalDate end = null;
+    boolean inEvent = false;
+    for (String line : unfold(ics)) {
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        continue;
+      }
+      String name = line.substring(0, colon);
+      String parameters = "";
+      int semicolon = name.indexOf(';');
+      if (semicolon >= 0) {
+        parameters = name.substring(semicolon + 1);
+        name = name.substring(0, semicolon);
+      }
+      String value = line.substring(colon + 1).trim();
+      switch (name.toUpperCase()) {
+        case "BEGIN" -> {
+          if ("VEVENT".equalsIgnoreCase(value)) {
+            inEvent = true;
+            uid = null;
+            summary = null;
+            start = null;
+            end = null;
+          }
+        }
+        case "UID" -> uid = value;
+        case "SUMMARY" -> summary = value;
+        case "DTSTART" -> start = date(value, parameters, zone);
+        case "DTEND" -> end = date(value, parameters, zone);
+        case "END" -> {
+          if (inEvent && "VEVENT".equalsIgnoreCase(value)) {
+            inEvent = false;
+            if (start == null) {
+              throw new IllegalArgumentException("Event without DTSTART: " + uid);
+            }
+            LocalDate finish = end == null || !end.isAfter(start) ? start : end.minusDays(1);
+            events.add(new IcsEvent(uid, summary, start, finish));
+          }
+        }
+        default -> {}
+      }
+    }
+    return events;
+  }
+
+  private static List<String> unfold(String ics) {
+    List<String> lines = new ArrayList<>();
+    for (String line : ics.split("\r?\n")) {
+      if (!lines.isEmpty() && (line.startsWith(" ") || line.startsWith("\t"))) {
+        lines.set(lines.size() - 1, lines.get(lines.size() - 1) + line.substring(1));
+      } else {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  private static LocalDate date(String value, String parameters, ZoneId zone) {
+    try {
+      if (value.length() == 8) {
+        return LocalDate.parse(value, DATE);
+      }
+      LocalDateTime local = LocalDateTime.parse(value.substring(0, 15), LOCAL_TIMESTAMP);
+      if (value.endsWith("Z")) {
+        return local.atZone(ZoneOffset.UTC).withZoneSameInstant(zone).toLocalDate();
+      }
+      ZoneId tzid = tzid(parameters);
+      if (tzid == null) {
+        // Floating, or a TZID only the feed's own VTIMEZONE defines: kept as the local time given
+        return local.toLocalDate();
+      }
+      return local.atZone(tzid).withZoneSameInstant(zone).toLocalDate();
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid ICS date: " + value);
+    }
+  }
+
+  private static ZoneId tzid(String parameters) {
+    for (String parameter : parameters.split(";")) {
+      if (parameter.regionMatches(true, 0, "TZID=", 0, 5)) {
+        try {
+          return ZoneId.of(parameter.substring(5).replace("\"", ""));
+        } catch (DateTimeException e) {
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static String escape(String text) {
+    return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+  }
+
+  private static void line(StringBuilder ics, String line) {
+    ics.append(line).append(CRLF);
+  }
+}
@@ -0,0 +1,9 @@
+package com.hostfully.calendar;
+
+import java.time.LocalDate;
+
+/**
+ * An all-day event of a feed. Unlike the ICS {@code DTEND}, {@code finish} is the last day
+ * occupied, the same way reservations and blocks store it.
+ */
+public record IcsEvent(String uid, String summary, LocalDate start, LocalDate finish) {}
@@ -0,0 +1,253 @@
+package com.hostfully.capacity;
+
+import com.hostfully.event.PropertyChangedEvent;
+import com.hostfully.event.PropertyDeletedEvent;
+import com.hostfully.journal.BookingJournal;
+import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.Reservation;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.PropertyRepository;
+import com.hostfully.repository.ReservationRepository;
+import com.hostfully.warmup.WarmupListener;
+import com.hostfully.warmup.WarmupSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * How many reservations share each night of the properties with several units, so that a booking
+ * of such a property is checked against its capacity in O(log days) instead of by fetching every
+ * overlapping reservation.
+ *
+ * <p>Each multi-unit property gets a {@link SegmentTree} over the nights from the first day of the
+ * previous month, loaded from the database at startup when the property is warmed up, or else the
+ * first time it is written, and kept current by the services afterwards. Once a new month starts,
+ * the next write of the property loads a tree over the moved window in place of the old one.
+ * Blocks close every unit, so they are counted with a weight no number of reservations reaches.
+ * Single-unit properties are not indexed, the occupancy store and the overlap queries already
+ * answer for them.
+ *
+ * <p>The index only rules bookings in: when it reports the property full, or does not cover the
+ * dates, callers confirm against the database, which also names the conflicting bookings.
+ */
+@Component
+public class CapacityIndex implements WarmupListener {
+
+  /** Returned when a block closes the property on one of the nights. */
+  public static final int BLOCKED = Integer.MAX_VALUE;
+
+  /** Returned when the dates fall outside the indexed nights. */
+  public static final int UNKNOWN = -1;
+
+  private static final int BLOCK_WEIGHT = 1 << 20;
+
+  private static final class Tree {
+    private final long epochDay;
+    private final SegmentTree nights;
+    private boolean loaded;
+
+    private Tree(long epochDay, int days) {
+      this.epochDay = epochDay;
+      this.nights = new SegmentTree(days);
+    }
+  }
+
+  private final PropertyRepository propertyRepository;
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final BookingJournal bookingJournal;
+  private final int days;
+  private final Map<String, Integer> units = new ConcurrentHashMap<>();
+  private final Map<String, Tree> trees = new ConcurrentHashMap<>();
+
+  public CapacityIndex(
+      CapacityProperties properties,
+      PropertyRepository propertyRepository,
+      ReservationRepository reservationRepository,
+      BlockRepository blockRepository,
+      BookingJournal bookingJournal) {
+    this.propertyRepository = propertyRepository;
+    this.reservationRepository = reservationRepository;
+    this.blockRepository = blockRepository;
+    this.bookingJournal = bookingJournal;
+    this.days = properties.days();
+  }
+
+  /**
+   * Units of the property, 1 for a property that does not exist. When there are several, the
+   * property's bookings are loaded into the index first, so a booking written after this call is
+   * either in the load or added by {@link #replace}; call it before writing a booking.
+   */
+  public int track(String propertyId) {
+    int known = units(propertyId);
+    if (known > 1) {
+      tree(propertyId);
+    }
+    return Math.max(known, 1);
+  }
+
+  /** Units of the property, 0 for a property that does not exist. Never loads the index. */
+  public int units(String propertyId) {
+    Integer known = units.get(propertyId);
+    if (known == null) {
+      known = propertyRepository.findUnitsById(propertyId).orElse(null);
+      if (known == null) {
+        return 0;
+      }
+      units.put(propertyId, known);
+    }
+    return known;
+  }
+
+  /**
+   * Most active reservations on one night of [start, finish], leaving out the reservation which
+   * took {@code ignore} before the change being checked. {@link #BLOCKED} when a block covers one
+   * of the nights, {@link #UNKNOWN} outside the indexed nights or for a single-unit property.
+   */
+  public int maxTaken(
+      String propertyId, LocalDate start, LocalDate finish, BookingInterval ignore) {
+    Tree tree = trees.get(propertyId);
+    if (tree == null
+        || start == null
+        || finish == null
+        || start.toEpochDay() < tree.epochDay
+        || finish.toEpochDay() >= tree.epochDay + days) {
+      return UNKNOWN;
+    }
+    boolean ignoring = ignore != null && propertyId.equals(ignore.propertyId());
+    synchronized (tree) {
+      if (!tree.loaded) {
+        return UNKNOWN;
+      }
+      if (ignoring) {
+        add(tree, ignore.start(), ignore.finish(), -1);
+      }
+      int taken = tree.nights.max(index(tree, start), index(tree, finish));
+      if (ignoring) {
+        add(tree, ignore.start(), ignore.finish(), 1);
+      }
+      return taken >= BLOCK_WEIGHT ? BLOCKED : taken;
+    }
+  }
+
+  /** Records that an active reservation which took {@code previous} now takes {@code current}. */
+  public void replace(BookingInterval previous, BookingInterval current) {
+    replace(previous, current, 1);
+  }
+
+  /** Records that a block which took {@code previous} now takes {@code current}. */
+  public void replaceBlock(BookingInterval previous, BookingInterval current) {
+    replace(previous, current, BLOCK_WEIGHT);
+  }
+
+  /**
+   * Most bookings sharing one night of [start, finish], for checking a property's capacity
+   * against bookings read from the database.
+   */
+  public static int maxConcurrent(
+      List<BookingInterval> bookings, LocalDate start, LocalDate finish) {
+    // Concurrency only rises where a booking starts, so the nights to look at are those starts
+    List<LocalDate> starts = new ArrayList<>(bookings.size() + 1);
+    starts.add(start);
+    for (BookingInterval booking : bookings) {
+      if (booking.start().isAfter(start) && !booking.start().isAfter(finish)) {
+        starts.add(booking.start());
+      }
+    }
+    int max = 0;
+    for (LocalDate night : starts) {
+      int count = 0;
+      for (BookingInterval booking : bookings) {
+        if (!booking.start().isAfter(night) && !booking.finish().isBefore(night)) {
+          count++;
+        }
+      }
+      max = Math.max(max, count);
+    }
+    return max;
+  }
+
+  @Override
+  public void onWarmup(WarmupSet warmupSet) {
+    warmupSet.propertyIds().forEach(this::track);
+  }
+
+  @EventListener
+  public void onPropertyChanged(PropertyChangedEvent event) {
+    // Read again on next use, the nights already counted stay valid whatever the units are
+    units.remove(event.propertyId());
+  }
+
+  @EventListener
+  public void onPropertyDeleted(PropertyDeletedEvent event) {
+    // No booking of the property can be written anymore, so the tree cannot be needed again
+    trees.remove(event.propertyId());
+    units.remove(event.propertyId());
+  }
+
+  private void replace(BookingInterval previous, BookingInterval current, int weight) {
+    if (previous != null) {
+      update(previous, -weight);
+    }
+    if (current != null) {
+      update(current, weight);
+    }
+  }
+
+  private void update(BookingInterval booking, int delta) {
+    Tree tree = trees.get(booking.propertyId());
+    if (tree == null) {
+      return;
+    }
+    synchronized (tree) {
+      // Not loaded yet, the load reads this booking from the database
+      if (tree.loaded) {
+        add(tree, booking.start(), booking.finish(), delta);
+      }
+    }
+  }
+
+  private void tree(String propertyId) {
+    long epochDay = LocalDate.now().withDayOfMonth(1).minusMonths(1).toEpochDay();
+    // A tree over an earlier window is replaced, writes of the property are serialized so none
+    // can be applied to the old one meanwhile
+    Tree tree =
+        trees.compute(
+            propertyId,
+            (id, known) ->
+                known == null || known.epochDay != epochDay ? new Tree(epochDay, days) : known);
+    synchronized (tree) {
+      if (tree.loaded) {
+        return;
+      }
+      bookingJournal.awaitPersisted(propertyId);
+      LocalDate from = LocalDate.ofEpochDay(epochDay);
+      LocalDate to = LocalDate.ofEpochDay(epochDay + days - 1);
+      for (Reservation reservation :
+          reservationRepository.findByPropertyIdAndDateRange(propertyId, from, to)) {
+        add(tree, reservation.getStart(), reservation.getFinish(), 1);
+      }
+      for (Block block : blockRepository.findByPropertyIdAndDateRange(propertyId, from, to)) {
+        add(tree, block.getStart(), block.getFinish(), BLOCK_WEIGHT);
+      }
+      tree.loaded = true;
+    }
+  }
+
+  private void add(Tree tree, LocalDate start, LocalDate finish, int delta) {
+    long from = Math.max(start.toEpochDay(), tree.epochDay);
+    long to = Math.min(finish.toEpochDay(), tree.epochDay + days - 1);
+    if (from <= to) {
+      tree.nights.add((int) (from - tree.epochDay), (int) (to - tree.epochDay), delta);
+    }
+  }
+
+  private static int index(Tree tree, LocalDate night) {
+    return (int) (night.toEpochDay() - tree.epochDay);
+  }
+}
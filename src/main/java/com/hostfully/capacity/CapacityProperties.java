@@ -0,0 +1,9 @@
+package com.hostfully.capacity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param days nights indexed for each multi-unit property from the first day of the previous month
+ */
+@ConfigurationProperties(prefix = "hostfully.capacity")
+public record CapacityProperties(int days) {}
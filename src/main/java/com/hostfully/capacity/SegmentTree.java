@@ -0,0 +1,74 @@
+package com.hostfully.capacity;
+
+/**
+ * Counts per night over a fixed number of nights, with adding to a range and reading the largest
+ * count of a range both in O(log nights). Additions to a whole subtree are kept at its root and
+ * only pushed down when a later operation covers part of it.
+ *
+ * <p>Not thread safe, callers serialize access.
+ */
+final class SegmentTree {
+
+  private final int size;
+  private final int[] max;
+  private final int[] pending;
+
+  SegmentTree(int nights) {
+    int size = 1;
+    while (size < nights) {
+      size <<= 1;
+    }
+    this.size = size;
+    this.max = new int[2 * size];
+    this.pending = new int[2 * size];
+  }
+
+  /** Adds {@code delta} to every night of [from, to], both indexes inclusive. */
+  void add(int from, int to, int delta) {
+    add(1, 0, size - 1, from, to, delta);
+  }
+
+  /** Largest count over [from, to], both indexes inclusive. */
+  int max(int from, int to) {
+    return max(1, 0, size - 1, from, to);
+  }
+
+  private void add(int node, int low, int high, int from, int to, int delta) {
+    if (to < low || high < from) {
+      return;
+    }
+    if (from <= low && high <= to) {
+      max[node] += delta;
+      pending[node] += delta;
+      return;
+    }
+    push(node);
+    int middle = (low + high) >>> 1;
+    add(2 * node, low, middle, from, to, delta);
+    add(2 * node + 1, middle + 1, high, from, to, delta);
+    max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+  }
+
+  private int max(int node, int low, int high, int from, int to) {
+    if (to < low || high < from) {
+      return Integer.MIN_VALUE;
+    }
+    if (from <= low && high <= to) {
+      return max[node];
+    }
+    push(node);
+    int middle = (low + high) >>> 1;
+    return Math.max(
+        max(2 * node, low, middle, from, to), max(2 * node + 1, middle + 1, high, from, to));
+  }
+
+  private void push(int node) {
+    if (pending[node] != 0) {
+      for (int child = 2 * node; child <= 2 * node + 1; child++) {
+        max[child] += pending[node];
+        pending[child] += pending[node];
+      }
+      pending[node] = 0;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.hostfully.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.io.IOException;
+import java.time.LocalDate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Serves every DTO as CBOR when the client sends {@code Accept: application/cbor}. Dates are
+ * written as epoch days, so each {@link LocalDate} takes a few bytes instead of a 10 char string.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+    return new MappingJackson2CborHttpMessageConverter(cborMapper());
+  }
+
+  public static CBORMapper cborMapper() {
+    return CBORMapper.builder()
+        .findAndAddModules()
+        .addModule(new EpochDayModule())
+        .serializationInclusion(ObjectMapperConfig.INCLUSION)
+        .build();
+  }
+
+  static class EpochDayModule extends SimpleModule {
+
+    EpochDayModule() {
+      super("EpochDayModule");
+      addSerializer(LocalDate.class, new EpochDaySerializer());
+      addDeserializer(LocalDate.class, new EpochDayDeserializer());
+    }
+  }
+
+  static class EpochDaySerializer extends JsonSerializer<LocalDate> {
+
+    @Override
+    public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+      gen.writeNumber(value.toEpochDay());
+    }
+  }
+
+  static class EpochDayDeserializer extends JsonDeserializer<LocalDate> {
+
+    @Override
+    public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.currentToken() == JsonToken.VALUE_STRING) {
+        return LocalDate.parse(p.getText());
+      }
+      return LocalDate.ofEpochDay(p.getLongValue());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.hostfully.config;
+
+import com.hostfully.controller.dtos.AvailableWindowDto;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.CalendarImportDto;
+import com.hostfully.controller.dtos.ConflictDto;
+import com.hostfully.controller.dtos.ConvertHoldDto;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.controller.dtos.HoldDto;
+import com.hostfully.controller.dtos.OccupancyReportDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistHoldDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.Property;
+import com.hostfully.model.PropertySummary;
+import com.hostfully.model.Reservation;
+import org.hibernate.id.UUIDGenerator;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection and resource hints for the native image. Spring AOT infers most of them from the
+ * bean definitions; these cover what it cannot see: DTOs only reached through exception handlers
+ * or streamed bodies, JPQL constructor expressions, generators referenced by name and the
+ * migration scripts.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+@RegisterReflectionForBinding({
+  AvailableWindowDto.class,
+  BlockDto.class,
+  CalendarImportDto.class,
+  ConflictDto.class,
+  ConvertHoldDto.class,
+  ErrorResponseDto.class,
+  HoldDto.class,
+  OccupancyReportDto.class,
+  PersistBlockDto.class,
+  PersistHoldDto.class,
+  PersistPropertyDto.class,
+  PersistReservationDto.class,
+  PropertyDeletionDto.class,
+  PropertyDto.class,
+  ReservationDto.class
+})
+public class NativeImageConfig {
+
+  public static class Hints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      hints.resources().registerPattern("db/migration/*/*.sql");
+      for (Class<?> entity : new Class<?>[] {Property.class, Reservation.class, Block.class}) {
+        hints.reflection().registerType(entity, MemberCategory.values());
+      }
+      hints
+          .reflection()
+          .registerType(BookingInterval.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+          .registerType(PropertySummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+          .registerType(UUIDGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+  }
+}
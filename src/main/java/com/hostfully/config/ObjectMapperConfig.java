@@ -9,11 +9,14 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ObjectMapperConfig {
 
+  /** Applied to every representation, so a resource has the same fields whatever is accepted. */
+  public static final JsonInclude.Include INCLUSION = JsonInclude.Include.NON_NULL;
+
   @Bean
   public ObjectMapper objectMapper() {
     return new ObjectMapper()
         .findAndRegisterModules()
-        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .setSerializationInclusion(INCLUSION)
         .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
   }
 }
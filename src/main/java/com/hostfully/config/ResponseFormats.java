@@ -0,0 +1,113 @@
+package com.hostfully.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Picks the representation for endpoints that write their body themselves instead of going
+ * through the message converters, such as streamed responses.
+ */
+@Component
+@AllArgsConstructor
+public class ResponseFormats {
+
+  private static final List<MediaType> SUPPORTED =
+      List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+  private final ObjectMapper objectMapper;
+  private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+  /**
+   * The format the client accepts with the highest quality, ties going to the more specific media
+   * range and then to JSON. No Accept header means JSON; a header that accepts neither format is
+   * answered with 406.
+   */
+  public ResponseFormat negotiate(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return json();
+    }
+    List<MediaType> ranges;
+    try {
+      ranges = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      throw notAcceptable(accept);
+    }
+    MediaType best = null;
+    MediaType bestRange = null;
+    for (MediaType supported : SUPPORTED) {
+      MediaType range = mostSpecificRange(ranges, supported);
+      if (range != null && range.getQualityValue() > 0 && isBetter(range, bestRange)) {
+        best = supported;
+        bestRange = range;
+      }
+    }
+    if (best == null) {
+      throw notAcceptable(accept);
+    }
+    return best.equals(MediaType.APPLICATION_CBOR) ? cbor() : json();
+  }
+
+  public ResponseFormat json() {
+    return new ResponseFormat(MediaType.APPLICATION_JSON, objectMapper);
+  }
+
+  public ResponseFormat cbor() {
+    return new ResponseFormat(
+        MediaType.APPLICATION_CBOR, cborHttpMessageConverter.getObjectMapper());
+  }
+
+  /** The range that decides how much the client wants the media type, as in RFC 9110. */
+  private static MediaType mostSpecificRange(List<MediaType> ranges, MediaType mediaType) {
+    MediaType match = null;
+    for (MediaType range : ranges) {
+      if (range.includes(mediaType) && (match == null || specificity(range) > specificity(match))) {
+        match = range;
+      }
+    }
+    return match;
+  }
+
+  private static boolean isBetter(MediaType range, MediaType best) {
+    if (best == null) {
+      return true;
+    }
+    int byQuality = Double.compare(range.getQualityValue(), best.getQualityValue());
+    return byQuality > 0 || (byQuality == 0 && specificity(range) > specificity(best));
+  }
+
+  private static int specificity(MediaType range) {
+    if (range.isWildcardType()) {
+      return 0;
+    }
+    return range.isWildcardSubtype() ? 1 : 2;
+  }
+
+  private static ResponseStatusException notAcceptable(String accept) {
+    return new ResponseStatusException(
+        HttpStatus.NOT_ACCEPTABLE, "Only application/json and application/cbor, not " + accept);
+  }
+
+  public record ResponseFormat(MediaType mediaType, ObjectMapper mapper) {
+
+    /**
+     * Writer for streamed bodies: it leaves the target stream open, the servlet container owns
+     * it, and lets output buffers fill up instead of flushing the socket after every value.
+     */
+    public ObjectWriter writer() {
+      return mapper
+          .writer()
+          .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+  }
+}
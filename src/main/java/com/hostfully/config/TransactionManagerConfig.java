@@ -0,0 +1,23 @@
+package com.hostfully.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * With R2DBC on the classpath a reactive transaction manager is registered next to the JPA one,
+ * which leaves unqualified {@code @Transactional} methods with two candidates. The JPA manager is
+ * declared here as the primary one so the blocking stack keeps working unchanged.
+ */
+@Configuration
+public class TransactionManagerConfig {
+
+  @Bean
+  @Primary
+  public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+    return new JpaTransactionManager(entityManagerFactory);
+  }
+}
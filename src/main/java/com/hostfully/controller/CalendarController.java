@@ -0,0 +1,93 @@
+package com.hostfully.controller;
+
+import com.hostfully.controller.dtos.CalendarImportDto;
+import com.hostfully.service.CalendarService;
+import com.hostfully.service.CalendarService.CalendarFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Calendar")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/property/{propertyId}/calendar.ics")
+@AllArgsConstructor
+public class CalendarController {
+
+  static final String TEXT_CALENDAR = "text/calendar";
+
+  private final CalendarService calendarService;
+
+  @Operation(summary = "Active reservations and blocks of the property as an ICS feed")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Feed returned",
+            content = @Content(mediaType = TEXT_CALENDAR)),
+        @ApiResponse(responseCode = "304", description = "Feed unchanged", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Property not found", content = @Content)
+      })
+  @GetMapping
+  public ResponseEntity<byte[]> export(
+      @Parameter(description = "Id of property to export") @PathVariable String propertyId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to) {
+    CalendarFeed feed = calendarService.feed(propertyId, from, to);
+    // With these headers set, a matching If-None-Match or If-Modified-Since is answered with 304
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(TEXT_CALENDAR))
+        .cacheControl(CacheControl.noCache())
+        .eTag(feed.etag())
+        .lastModified(feed.lastModified())
+        .body(feed.body());
+  }
+
+  @Operation(summary = "Import the events of an ICS feed as blocks")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Blocks created, events overlapping a booking are skipped",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = CalendarImportDto.class))
+            }),
+        @ApiResponse(responseCode = "400", description = "Invalid feed", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Property not found", content = @Content)
+      })
+  @PostMapping(consumes = TEXT_CALENDAR)
+  @ResponseStatus(HttpStatus.CREATED)
+  public CalendarImportDto importFeed(
+      @Parameter(description = "Id of property to block dates of") @PathVariable String propertyId,
+      @Parameter(description = "Time zone of the property, UTC date-times are read in it")
+          @RequestParam(defaultValue = "UTC")
+          ZoneId zone,
+      @RequestBody String ics) {
+    return calendarService.importFeed(propertyId, ics, zone);
+  }
+}
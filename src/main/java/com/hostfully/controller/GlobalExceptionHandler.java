@@ -1,10 +1,15 @@
 package com.hostfully.controller;
 
+import com.hostfully.controller.dtos.ConflictDto;
 import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.exception.BookingRejectedException;
 import com.hostfully.exception.NotFoundException;
+import com.hostfully.exception.OverlappingException;
+import com.hostfully.exception.RateLimitExceededException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.List;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -33,4 +38,28 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(
         new ErrorResponseDto(ex.getMessage(), null), HttpStatus.BAD_REQUEST);
   }
+
+  @ExceptionHandler(OverlappingException.class)
+  public ResponseEntity<ErrorResponseDto> handleOverlappingException(OverlappingException ex) {
+    List<ConflictDto> conflicts =
+        ex.getConflicts().stream()
+            .map(c -> new ConflictDto(ex.getType(), c.id(), c.start(), c.finish()))
+            .toList();
+    return new ResponseEntity<>(
+        new ErrorResponseDto(ex.getMessage(), null, conflicts), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(BookingRejectedException.class)
+  public ResponseEntity<ErrorResponseDto> handleBookingRejectedException(
+      BookingRejectedException ex) {
+    return new ResponseEntity<>(new ErrorResponseDto(ex.getMessage(), null), HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(RateLimitExceededException.class)
+  public ResponseEntity<ErrorResponseDto> handleRateLimitExceededException(
+      RateLimitExceededException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new ErrorResponseDto(ex.getMessage(), null));
+  }
 }
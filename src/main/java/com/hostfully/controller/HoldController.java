@@ -0,0 +1,114 @@
+package com.hostfully.controller;
+
+import com.hostfully.controller.dtos.ConvertHoldDto;
+import com.hostfully.controller.dtos.HoldDto;
+import com.hostfully.controller.dtos.PersistHoldDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Hold")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/property/{propertyId}/holds")
+@AllArgsConstructor
+public class HoldController {
+
+  private final HoldService holdService;
+
+  @Operation(summary = "Hold dates while the guest checks out")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Hold placed",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = HoldDto.class))
+            }),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid or overlapping range",
+            content = @Content),
+        @ApiResponse(responseCode = "404", description = "Property not found", content = @Content)
+      })
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public HoldDto create(
+      @Parameter(description = "Id of property to hold dates of") @PathVariable String propertyId,
+      @RequestBody PersistHoldDto request) {
+    return holdService.create(propertyId, request);
+  }
+
+  @Operation(summary = "Find hold by id")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Hold found",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = HoldDto.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Hold not found or expired",
+            content = @Content)
+      })
+  @GetMapping("/{holdId}")
+  public HoldDto findById(@PathVariable String propertyId, @PathVariable String holdId) {
+    return holdService.findById(propertyId, holdId);
+  }
+
+  @Operation(summary = "Release hold")
+  @ApiResponses(value = {@ApiResponse(responseCode = "204", description = "Hold released")})
+  @DeleteMapping("/{holdId}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void release(@PathVariable String propertyId, @PathVariable String holdId) {
+    holdService.release(propertyId, holdId);
+  }
+
+  @Operation(summary = "Turn hold into a reservation")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Reservation created",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ReservationDto.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Hold not found or expired",
+            content = @Content)
+      })
+  @PostMapping("/{holdId}/reservation")
+  @ResponseStatus(HttpStatus.CREATED)
+  public ReservationDto convert(
+      @PathVariable String propertyId,
+      @PathVariable String holdId,
+      @RequestBody ConvertHoldDto request) {
+    return holdService.convert(propertyId, holdId, request);
+  }
+}
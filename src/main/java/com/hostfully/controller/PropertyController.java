@@ -1,7 +1,15 @@
 package com.hostfully.controller;
 
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.hostfully.cache.PropertyResponseCache;
+import com.hostfully.cache.PropertyResponseCache.CachedResponse;
+import com.hostfully.config.ResponseFormats;
+import com.hostfully.config.ResponseFormats.ResponseFormat;
+import com.hostfully.controller.dtos.AvailableWindowDto;
 import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
 import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.service.AvailabilityService;
 import com.hostfully.service.PropertyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,26 +18,41 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Property")
 @RestController
+@Profile("!reactive")
 @RequestMapping("/property")
 @AllArgsConstructor
 public class PropertyController {
 
   private final PropertyService propertyService;
+  private final ResponseFormats responseFormats;
+  private final PropertyResponseCache responseCache;
+  private final AvailabilityService availabilityService;
 
   @Operation(summary = "Get all properties available")
   @ApiResponses(
@@ -44,8 +67,16 @@ public class PropertyController {
             })
       })
   @GetMapping
-  public List<PropertyDto> findAll() {
-    return propertyService.findAll();
+  public ResponseEntity<StreamingResponseBody> findAll(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    ResponseFormat format = responseFormats.negotiate(accept);
+    StreamingResponseBody body =
+        outputStream -> {
+          try (SequenceWriter writer = format.writer().writeValuesAsArray(outputStream)) {
+            propertyService.streamAll(property -> write(writer, property));
+          }
+        };
+    return ResponseEntity.ok().contentType(format.mediaType()).body(body);
   }
 
   @Operation(summary = "Find property by id")
@@ -62,9 +93,79 @@ public class PropertyController {
         @ApiResponse(responseCode = "404", description = "Property not found", content = @Content)
       })
   @GetMapping("/{propertyId}")
-  public PropertyDto findById(
-      @Parameter(description = "Id of property to be searched") @PathVariable String propertyId) {
-    return propertyService.findById(propertyId);
+  public ResponseEntity<byte[]> findById(
+      @Parameter(description = "Id of property to be searched") @PathVariable String propertyId,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    ResponseFormat format = responseFormats.negotiate(accept);
+    CachedResponse response =
+        responseCache.get(
+            propertyId,
+            format,
+            acceptsGzip(acceptEncoding),
+            () -> propertyService.findById(propertyId));
+    ResponseEntity.BodyBuilder builder =
+        ResponseEntity.ok()
+            .contentType(format.mediaType())
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    if (response.gzipped()) {
+      builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return builder.body(response.body());
+  }
+
+  @Operation(summary = "Earliest free window of a property")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Window found",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = AvailableWindowDto.class))
+            }),
+        @ApiResponse(responseCode = "400", description = "Invalid search", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Property not found", content = @Content)
+      })
+  @GetMapping("/{propertyId}/next-available")
+  public AvailableWindowDto nextAvailable(
+      @Parameter(description = "Id of property to be searched") @PathVariable String propertyId,
+      @Parameter(description = "Nights of the window, start and finish included") @RequestParam
+          int nights,
+      @Parameter(description = "First possible start, today by default")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from) {
+    return availabilityService.nextAvailable(
+        propertyId, nights, from == null ? LocalDate.now() : from);
+  }
+
+  @Operation(summary = "Earliest free window of each of several properties")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Windows of the properties found, earliest first",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = AvailableWindowDto.class))
+            }),
+        @ApiResponse(responseCode = "400", description = "Invalid search", content = @Content)
+      })
+  @GetMapping("/next-available")
+  public List<AvailableWindowDto> nextAvailable(
+      @Parameter(description = "Ids of the properties to be searched") @RequestParam
+          List<String> ids,
+      @Parameter(description = "Nights of the window, start and finish included") @RequestParam
+          int nights,
+      @Parameter(description = "First possible start, today by default")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from) {
+    return availabilityService.nextAvailable(ids, nights, from == null ? LocalDate.now() : from);
   }
 
   @Operation(summary = "Create property")
@@ -112,22 +213,75 @@ public class PropertyController {
     return propertyService.update(propertyId, request);
   }
 
-  @Operation(summary = "Delete property")
+  @Operation(summary = "Delete property with its reservations and blocks")
   @ApiResponses(
       value = {
         @ApiResponse(
-            responseCode = "201",
-            description = "Property deleted",
+            responseCode = "202",
+            description = "Property deletion started",
             content = {
               @Content(
                   mediaType = "application/json",
-                  schema = @Schema(implementation = PropertyDto.class))
-            })
+                  schema = @Schema(implementation = PropertyDeletionDto.class))
+            }),
+        @ApiResponse(
+            responseCode = "204",
+            description = "Property does not exist",
+            content = @Content)
       })
   @DeleteMapping("/{propertyId}")
-  @ResponseStatus(HttpStatus.NO_CONTENT)
-  public void delete(@PathVariable String propertyId) {
-    propertyService.delete(propertyId);
-    ;
+  public ResponseEntity<PropertyDeletionDto> delete(
+      @Parameter(description = "Id of property to be deleted") @PathVariable String propertyId) {
+    return propertyService
+        .delete(propertyId)
+        .map(
+            deletion ->
+                ResponseEntity.accepted()
+                    .location(URI.create("/property/deletions/" + deletion.id()))
+                    .body(deletion))
+        .orElseGet(() -> ResponseEntity.noContent().build());
+  }
+
+  @Operation(summary = "Find property deletion by id")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Property deletion found",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = PropertyDeletionDto.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Property deletion not found",
+            content = @Content)
+      })
+  @GetMapping("/deletions/{deletionId}")
+  public PropertyDeletionDto findDeletion(
+      @Parameter(description = "Id of deletion to be searched") @PathVariable String deletionId) {
+    return propertyService.findDeletion(deletionId);
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private static void write(SequenceWriter writer, PropertyDto property) {
+    try {
+      writer.write(property);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
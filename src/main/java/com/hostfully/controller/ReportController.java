@@ -0,0 +1,130 @@
+package com.hostfully.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.hostfully.controller.dtos.OccupancyReportDto;
+import com.hostfully.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(name = "Report")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/report")
+@AllArgsConstructor
+public class ReportController {
+
+  static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+  private static final String CSV_HEADER =
+      "property_id,property_name,month,nights,nights_booked,nights_blocked,occupancy_rate\n";
+
+  private final ReportService reportService;
+  private final ObjectMapper objectMapper;
+
+  @Operation(summary = "Occupancy per property and month")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Report streamed",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = OccupancyReportDto.class)),
+              @Content(mediaType = "text/csv")
+            }),
+        @ApiResponse(responseCode = "400", description = "Invalid range", content = @Content)
+      })
+  @GetMapping("/occupancy")
+  public ResponseEntity<StreamingResponseBody> occupancy(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "csv or json") @RequestParam(defaultValue = "json") String format) {
+    // Rejected here, once the body starts streaming the status can no longer change
+    reportService.checkRange(from, to);
+    if ("csv".equalsIgnoreCase(format)) {
+      StreamingResponseBody body =
+          outputStream -> {
+            Writer writer =
+                new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            reportService.occupancy(from, to, row -> writeCsv(writer, row));
+            writer.flush();
+          };
+      return ResponseEntity.ok().contentType(TEXT_CSV).body(body);
+    }
+    if (!"json".equalsIgnoreCase(format)) {
+      throw new IllegalArgumentException("Unknown report format: " + format);
+    }
+    StreamingResponseBody body =
+        outputStream -> {
+          try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(outputStream)) {
+            reportService.occupancy(from, to, row -> writeJson(writer, row));
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  private static void writeJson(SequenceWriter writer, OccupancyReportDto row) {
+    try {
+      writer.write(row);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeCsv(Writer writer, OccupancyReportDto row) {
+    try {
+      writer
+          .append(row.propertyId())
+          .append(',')
+          .append(csvField(row.propertyName()))
+          .append(',')
+          .append(row.month().toString())
+          .append(',')
+          .append(String.valueOf(row.nights()))
+          .append(',')
+          .append(String.valueOf(row.nightsBooked()))
+          .append(',')
+          .append(String.valueOf(row.nightsBlocked()))
+          .append(',')
+          .append(String.valueOf(row.occupancyRate()))
+          .append('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
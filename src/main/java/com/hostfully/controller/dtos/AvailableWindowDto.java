@@ -0,0 +1,5 @@
+package com.hostfully.controller.dtos;
+
+import java.time.LocalDate;
+
+public record AvailableWindowDto(String propertyId, LocalDate start, LocalDate finish) {}
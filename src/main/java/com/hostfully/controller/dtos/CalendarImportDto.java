@@ -0,0 +1,5 @@
+package com.hostfully.controller.dtos;
+
+import java.util.List;
+
+public record CalendarImportDto(List<BlockDto> created, int skipped) {}
@@ -0,0 +1,6 @@
+package com.hostfully.controller.dtos;
+
+import java.time.LocalDate;
+
+/** @param id the conflicting booking, left out for holds, which belong to other clients */
+public record ConflictDto(String type, String id, LocalDate start, LocalDate finish) {}
@@ -0,0 +1,9 @@
+package com.hostfully.controller.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record ConvertHoldDto(
+    @NotBlank(message = "guestName is mandatory")
+        @Size(max = 255, message = "guestName is at most 255 characters")
+        String guestName) {}
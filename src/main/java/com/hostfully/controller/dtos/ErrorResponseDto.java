@@ -2,4 +2,9 @@ package com.hostfully.controller.dtos;
 
 import java.util.List;
 
-public record ErrorResponseDto(String message, List<String> errors) {}
+public record ErrorResponseDto(String message, List<String> errors, List<ConflictDto> conflicts) {
+
+  public ErrorResponseDto(String message, List<String> errors) {
+    this(message, errors, null);
+  }
+}
@@ -0,0 +1,7 @@
+package com.hostfully.controller.dtos;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record HoldDto(
+    String id, String propertyId, LocalDate start, LocalDate finish, Instant expiresAt) {}
@@ -0,0 +1,12 @@
+package com.hostfully.controller.dtos;
+
+import java.time.YearMonth;
+
+public record OccupancyReportDto(
+    String propertyId,
+    String propertyName,
+    YearMonth month,
+    long nights,
+    long nightsBooked,
+    long nightsBlocked,
+    double occupancyRate) {}
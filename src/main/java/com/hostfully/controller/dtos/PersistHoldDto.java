@@ -0,0 +1,10 @@
+package com.hostfully.controller.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDate;
+
+public record PersistHoldDto(
+    @NotNull(message = "start is mandatory") LocalDate start,
+    @NotNull(message = "finish is mandatory") LocalDate finish,
+    @Positive(message = "ttlSeconds must be positive") Long ttlSeconds) {}
@@ -1,5 +1,17 @@
 package com.hostfully.controller.dtos;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 
-public record PersistPropertyDto(@NotBlank(message = "name is mandatory") String name) {}
+/**
+ * @param units identical units the property lets out, 1 when not given on creation and unchanged
+ *     when not given on update
+ */
+public record PersistPropertyDto(
+    @NotBlank(message = "name is mandatory") String name,
+    @Positive(message = "units must be positive") Integer units) {
+
+  public PersistPropertyDto(String name) {
+    this(name, null);
+  }
+}
@@ -0,0 +1,13 @@
+package com.hostfully.controller.dtos;
+
+import java.time.Instant;
+
+public record PropertyDeletionDto(
+    String id,
+    String propertyId,
+    String status,
+    long reservationsDeleted,
+    long blocksDeleted,
+    Instant requestedAt,
+    Instant finishedAt,
+    String error) {}
@@ -3,4 +3,8 @@ package com.hostfully.controller.dtos;
 import java.util.List;
 
 public record PropertyDto(
-    String id, String name, List<BlockDto> blocks, List<ReservationDto> reservations) {}
+    String id,
+    String name,
+    int units,
+    List<BlockDto> blocks,
+    List<ReservationDto> reservations) {}
@@ -0,0 +1,190 @@
+package com.hostfully.deletion;
+
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.event.PropertyChangedEvent;
+import com.hostfully.event.PropertyDeletedEvent;
+import com.hostfully.journal.BookingJournal;
+import com.hostfully.registry.PropertyRegistry;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.PropertyRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes properties together with their reservations and blocks on a single background thread.
+ * The bookings go in chunks of {@code chunk-size}, each in its own transaction, so deleting a busy
+ * property never holds its rows locked for long; only the property row itself and the bookings
+ * written while the chunks ran are deleted in a last transaction.
+ *
+ * <p>The property leaves the {@link PropertyRegistry} as soon as its deletion is requested, so new
+ * bookings of it are turned away from then on; one that got past the registry just before is
+ * either swept by the last transaction or fails on the foreign key once the property is gone. A
+ * deletion that fails puts the property back, and one interrupted by a shutdown leaves the
+ * property in place with part of its bookings deleted, to be deleted again.
+ */
+@Slf4j
+@Component
+public class PropertyDeleter implements DisposableBean {
+
+  private final PropertyDeletionProperties properties;
+  private final PropertyRepository propertyRepository;
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final BookingJournal bookingJournal;
+  private final PropertyRegistry propertyRegistry;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BlockingQueue<PropertyDeletion> queue = new LinkedBlockingQueue<>();
+  private final Map<String, PropertyDeletion> deletions = new ConcurrentHashMap<>();
+  private final Map<String, PropertyDeletion> runningByProperty = new ConcurrentHashMap<>();
+  private final Thread worker;
+
+  public PropertyDeleter(
+      PropertyDeletionProperties properties,
+      PropertyRepository propertyRepository,
+      ReservationRepository reservationRepository,
+      BlockRepository blockRepository,
+      TransactionTemplate transactionTemplate,
+      BookingJournal bookingJournal,
+      PropertyRegistry propertyRegistry,
+      ApplicationEventPublisher eventPublisher) {
+    this.properties = properties;
+    this.propertyRepository = propertyRepository;
+    this.reservationRepository = reservationRepository;
+    this.blockRepository = blockRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.bookingJournal = bookingJournal;
+    this.propertyRegistry = propertyRegistry;
+    this.eventPublisher = eventPublisher;
+    this.worker = new Thread(this::drain, "property-deletion");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Queues the deletion of the property, or returns the one already queued or running. Empty when
+   * the property does not exist.
+   */
+  public synchronized Optional<PropertyDeletion> delete(String propertyId) {
+    forgetFinished();
+    PropertyDeletion running = runningByProperty.get(propertyId);
+    if (running != null) {
+      return Optional.of(running);
+    }
+    if (!propertyRegistry.exists(propertyId)) {
+      return Optional.empty();
+    }
+    propertyRegistry.remove(propertyId);
+    // Cached responses would still show the property until the deletion finishes
+    eventPublisher.publishEvent(new PropertyChangedEvent(propertyId));
+
+    PropertyDeletion deletion =
+        new PropertyDeletion(UUID.randomUUID().toString(), propertyId, Instant.now());
+    deletions.put(deletion.getId(), deletion);
+    runningByProperty.put(propertyId, deletion);
+    queue.add(deletion);
+    return Optional.of(deletion);
+  }
+
+  public Optional<PropertyDeletion> find(String deletionId) {
+    return Optional.ofNullable(deletions.get(deletionId));
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void drain() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        run(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void run(PropertyDeletion deletion) {
+    String propertyId = deletion.getPropertyId();
+    long start = System.nanoTime();
+    deletion.start();
+    try {
+      // Bookings journaled before the property left the registry are stored, then deleted below
+      bookingJournal.awaitPersisted(propertyId);
+      int[] deleted;
+      do {
+        deleted = transactionTemplate.execute(status -> deleteChunk(propertyId));
+        deletion.deleted(deleted[0], deleted[1]);
+      } while (deleted[0] + deleted[1] == properties.chunkSize());
+
+      int[] swept =
+          transactionTemplate.execute(
+              status -> {
+                int[] total = new int[2];
+                int[] chunk;
+                do {
+                  chunk = deleteChunk(propertyId);
+                  total[0] += chunk[0];
+                  total[1] += chunk[1];
+                } while (chunk[0] + chunk[1] == properties.chunkSize());
+                propertyRepository.deleteRowById(propertyId);
+                return total;
+              });
+      deletion.deleted(swept[0], swept[1]);
+
+      eventPublisher.publishEvent(new PropertyChangedEvent(propertyId));
+      eventPublisher.publishEvent(new BookingChangedEvent(propertyId));
+      // Last, so what the listeners forget about the property is not put back by the events above
+      eventPublisher.publishEvent(new PropertyDeletedEvent(propertyId));
+      deletion.complete();
+      log.info(
+          "Deleted property {} with {} reservations and {} blocks in {} ms",
+          propertyId,
+          deletion.getReservationsDeleted(),
+          deletion.getBlocksDeleted(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.error("Deleting property {} failed", propertyId, e);
+      propertyRegistry.add(propertyId);
+      // Part of the bookings may be gone, the indexes only over-count them until reloaded
+      eventPublisher.publishEvent(new PropertyChangedEvent(propertyId));
+      eventPublisher.publishEvent(new BookingChangedEvent(propertyId));
+      deletion.fail(e.getMessage());
+    } finally {
+      runningByProperty.remove(propertyId);
+    }
+  }
+
+  /** Reservations and blocks deleted, together at most {@code chunk-size}. */
+  private int[] deleteChunk(String propertyId) {
+    int reservations =
+        reservationRepository.deleteChunkByPropertyId(propertyId, properties.chunkSize());
+    int blocks =
+        reservations < properties.chunkSize()
+            ? blockRepository.deleteChunkByPropertyId(
+                propertyId, properties.chunkSize() - reservations)
+            : 0;
+    return new int[] {reservations, blocks};
+  }
+
+  private void forgetFinished() {
+    Instant expired = Instant.now().minus(properties.retention());
+    deletions
+        .values()
+        .removeIf(deletion -> deletion.isFinished() && deletion.getFinishedAt().isBefore(expired));
+  }
+}
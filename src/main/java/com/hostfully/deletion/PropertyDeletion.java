@@ -0,0 +1,55 @@
+package com.hostfully.deletion;
+
+import java.time.Instant;
+import lombok.Getter;
+
+/** Progress of one property deletion, updated by the deletion thread only. */
+@Getter
+public class PropertyDeletion {
+
+  public enum Status {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+  }
+
+  private final String id;
+  private final String propertyId;
+  private final Instant requestedAt;
+  private volatile Status status = Status.PENDING;
+  private volatile long reservationsDeleted;
+  private volatile long blocksDeleted;
+  private volatile Instant finishedAt;
+  private volatile String error;
+
+  PropertyDeletion(String id, String propertyId, Instant requestedAt) {
+    this.id = id;
+    this.propertyId = propertyId;
+    this.requestedAt = requestedAt;
+  }
+
+  public boolean isFinished() {
+    return status == Status.COMPLETED || status == Status.FAILED;
+  }
+
+  void start() {
+    status = Status.RUNNING;
+  }
+
+  void deleted(int reservations, int blocks) {
+    reservationsDeleted += reservations;
+    blocksDeleted += blocks;
+  }
+
+  void complete() {
+    finishedAt = Instant.now();
+    status = Status.COMPLETED;
+  }
+
+  void fail(String error) {
+    this.error = error;
+    finishedAt = Instant.now();
+    status = Status.FAILED;
+  }
+}
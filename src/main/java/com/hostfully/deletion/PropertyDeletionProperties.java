@@ -0,0 +1,11 @@
+package com.hostfully.deletion;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param chunkSize most bookings deleted in one transaction
+ * @param retention how long a finished deletion can still be looked up
+ */
+@ConfigurationProperties(prefix = "hostfully.property-deletion")
+public record PropertyDeletionProperties(int chunkSize, Duration retention) {}
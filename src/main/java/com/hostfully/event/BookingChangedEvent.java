@@ -0,0 +1,4 @@
+package com.hostfully.event;
+
+/** Published once a reservation or block of the property was written or removed. */
+public record BookingChangedEvent(String propertyId) {}
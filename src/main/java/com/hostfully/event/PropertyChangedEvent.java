@@ -0,0 +1,4 @@
+package com.hostfully.event;
+
+/** Published once the property itself was updated or deleted. */
+public record PropertyChangedEvent(String propertyId) {}
@@ -0,0 +1,4 @@
+package com.hostfully.event;
+
+/** Published once the property and all its bookings are gone from the database. */
+public record PropertyDeletedEvent(String propertyId) {}
@@ -0,0 +1,10 @@
+package com.hostfully.exception;
+
+public class BookingRejectedException extends RuntimeException {
+
+  public BookingRejectedException(String command, String id, String reason) {
+    super(
+        String.format(
+            "The %s of %s was accepted but the database rejected it: %s", command, id, reason));
+  }
+}
@@ -0,0 +1,10 @@
+package com.hostfully.exception;
+
+import com.hostfully.hold.Hold;
+
+public class HoldNotFoundException extends NotFoundException {
+
+  public HoldNotFoundException(String id) {
+    super(Hold.class, id);
+  }
+}
@@ -2,15 +2,13 @@ package com.hostfully.exception;
 
 import com.hostfully.model.Block;
 import java.util.List;
-import java.util.stream.Collectors;
 
-public class OverlappingBlocksException extends IllegalArgumentException {
+public class OverlappingBlocksException extends OverlappingException {
   public OverlappingBlocksException(List<Block> overlappingBlocks) {
     super(
-        "Selected range is overlapping with previously defined block(s): "
-            + overlappingBlocks.stream()
-                .map(
-                    b -> String.format("(%s: %s until %s)", b.getId(), b.getStart(), b.getFinish()))
-                .collect(Collectors.joining(", ")));
+        "block",
+        overlappingBlocks.stream()
+            .map(b -> new Conflict(b.getId(), b.getStart(), b.getFinish()))
+            .toList());
   }
 }
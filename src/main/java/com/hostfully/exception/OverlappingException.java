@@ -0,0 +1,61 @@
+package com.hostfully.exception;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rejection of a range that collides with existing bookings. Most failed booking attempts end up
+ * here, so it skips the stack trace and only formats its message when somebody asks for it, at
+ * most once.
+ */
+public abstract class OverlappingException extends IllegalArgumentException {
+
+  private final String type;
+  private final List<Conflict> conflicts;
+  private String message;
+
+  protected OverlappingException(String type, List<Conflict> conflicts) {
+    this.type = type;
+    this.conflicts = conflicts;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public List<Conflict> getConflicts() {
+    return conflicts;
+  }
+
+  @Override
+  public String getMessage() {
+    if (message == null) {
+      message = formatMessage();
+    }
+    return message;
+  }
+
+  private String formatMessage() {
+    return String.format(
+        "Selected range is overlapping with previously defined %s(s): %s",
+        type,
+        conflicts.stream()
+            .map(
+                c ->
+                    c.id() == null
+                        ? String.format("(%s until %s)", c.start(), c.finish())
+                        : String.format("(%s: %s until %s)", c.id(), c.start(), c.finish()))
+            .collect(Collectors.joining(", ")));
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+
+  /**
+   * @param id the conflicting booking, null when it must not be disclosed
+   */
+  public record Conflict(String id, LocalDate start, LocalDate finish) {}
+}
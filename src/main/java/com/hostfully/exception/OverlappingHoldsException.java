@@ -0,0 +1,16 @@
+package com.hostfully.exception;
+
+import com.hostfully.hold.Hold;
+import java.util.List;
+
+/**
+ * Holds are reported by their dates only: a hold id is what its owner converts or releases the
+ * hold with, so it is never shown to anybody else.
+ */
+public class OverlappingHoldsException extends OverlappingException {
+  public OverlappingHoldsException(List<Hold> overlappingHolds) {
+    super(
+        "hold",
+        overlappingHolds.stream().map(h -> new Conflict(null, h.start(), h.finish())).toList());
+  }
+}
@@ -0,0 +1,10 @@
+package com.hostfully.exception;
+
+import com.hostfully.deletion.PropertyDeletion;
+
+public class PropertyDeletionNotFoundException extends NotFoundException {
+
+  public PropertyDeletionNotFoundException(String id) {
+    super(PropertyDeletion.class, id);
+  }
+}
@@ -0,0 +1,8 @@
+package com.hostfully.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+
+  public RateLimitExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package com.hostfully.hold;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/** Dates locked for a guest going through checkout, until they book or the hold expires. */
+public record Hold(
+    String id, String propertyId, LocalDate start, LocalDate finish, Instant expiresAt) {
+
+  boolean isLiveAt(Instant now) {
+    return expiresAt.isAfter(now);
+  }
+
+  boolean overlaps(LocalDate otherStart, LocalDate otherFinish) {
+    return !start.isAfter(otherFinish) && !finish.isBefore(otherStart);
+  }
+}
@@ -0,0 +1,11 @@
+package com.hostfully.hold;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param ttl how long a hold lasts when the client does not ask for a duration
+ * @param maxTtl longest duration a client may ask for
+ */
+@ConfigurationProperties(prefix = "hostfully.holds")
+public record HoldProperties(Duration ttl, Duration maxTtl) {}
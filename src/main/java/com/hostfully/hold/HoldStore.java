@@ -0,0 +1,148 @@
+package com.hostfully.hold;
+
+import com.hostfully.event.PropertyDeletedEvent;
+import com.hostfully.exception.OverlappingHoldsException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live holds, indexed by property. Nothing here touches the database: a hold is only a lease on a
+ * range that booking validation respects. Expired holds stop counting right away and are dropped
+ * by a reaper thread waiting on a {@link DelayQueue}.
+ */
+@Component
+public class HoldStore implements DisposableBean {
+
+  private final Map<String, Hold> holdsById = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Hold>> holdsByProperty = new ConcurrentHashMap<>();
+  private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+  private final Thread reaper;
+
+  public HoldStore() {
+    this.reaper = new Thread(this::reap, "hold-reaper");
+    this.reaper.setDaemon(true);
+    this.reaper.start();
+  }
+
+  /**
+   * Stores the hold unless {@code units} live holds of the same property already overlap it. The
+   * caller has checked the property's bookings, the count here only keeps concurrent holds apart.
+   */
+  public Hold place(Hold hold, int units) {
+    holdsByProperty.compute(
+        hold.propertyId(),
+        (propertyId, holds) -> {
+          Map<String, Hold> propertyHolds = holds == null ? new ConcurrentHashMap<>() : holds;
+          List<Hold> overlapping = overlapping(propertyHolds, hold.start(), hold.finish());
+          if (overlapping.size() >= units) {
+            throw new OverlappingHoldsException(overlapping);
+          }
+          propertyHolds.put(hold.id(), hold);
+          return propertyHolds;
+        });
+    holdsById.put(hold.id(), hold);
+    expiries.add(new Expiry(hold));
+    return hold;
+  }
+
+  public Optional<Hold> find(String holdId) {
+    return Optional.ofNullable(holdsById.get(holdId)).filter(h -> h.isLiveAt(Instant.now()));
+  }
+
+  /**
+   * Drops the hold. Only one of concurrent calls for the same hold sees it as live, so a hold can
+   * be taken over once.
+   *
+   * @return whether the hold was still live
+   */
+  public boolean release(String holdId) {
+    Hold hold = holdsById.remove(holdId);
+    if (hold == null) {
+      return false;
+    }
+    holdsByProperty.computeIfPresent(
+        hold.propertyId(),
+        (propertyId, holds) -> {
+          holds.remove(holdId);
+          return holds.isEmpty() ? null : holds;
+        });
+    return hold.isLiveAt(Instant.now());
+  }
+
+  /** Rejects the range when a live hold of the property overlaps it. */
+  public void checkNoOverlap(String propertyId, LocalDate start, LocalDate finish) {
+    List<Hold> overlapping = overlapping(propertyId, start, finish);
+    if (!overlapping.isEmpty()) {
+      throw new OverlappingHoldsException(overlapping);
+    }
+  }
+
+  /** Live holds of the property overlapping the range. */
+  public List<Hold> overlapping(String propertyId, LocalDate start, LocalDate finish) {
+    Map<String, Hold> holds = holdsByProperty.get(propertyId);
+    return holds == null ? List.of() : overlapping(holds, start, finish);
+  }
+
+  @EventListener
+  public void onPropertyDeleted(PropertyDeletedEvent event) {
+    Map<String, Hold> holds = holdsByProperty.remove(event.propertyId());
+    if (holds != null) {
+      holds.keySet().forEach(holdsById::remove);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    reaper.interrupt();
+  }
+
+  private List<Hold> overlapping(Map<String, Hold> holds, LocalDate start, LocalDate finish) {
+    Instant now = Instant.now();
+    return holds.values().stream()
+        .filter(h -> h.isLiveAt(now) && h.overlaps(start, finish))
+        .toList();
+  }
+
+  private void reap() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Hold expired = expiries.take().hold();
+        // Released holds still sit in the queue, only drop the one that is actually stored
+        if (holdsById.remove(expired.id(), expired)) {
+          holdsByProperty.computeIfPresent(
+              expired.propertyId(),
+              (propertyId, holds) -> {
+                holds.remove(expired.id());
+                return holds.isEmpty() ? null : holds;
+              });
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private record Expiry(Hold hold) implements Delayed {
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(
+          hold.expiresAt().toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return hold.expiresAt().compareTo(((Expiry) other).hold().expiresAt());
+    }
+  }
+}
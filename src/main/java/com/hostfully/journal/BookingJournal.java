@@ -0,0 +1,458 @@
+package com.hostfully.journal;
+
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.exception.BookingRejectedException;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.exception.RateLimitExceededException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-ahead journal of booking commands. A write is acknowledged once its command is appended
+ * to a memory-mapped segment and forced to disk, and a background thread stores the journaled
+ * commands in the database in batches. Appends that arrive while a force is running are forced
+ * together by the next one, so under load many writes share one fsync.
+ *
+ * <p>The checkpoint file holds the sequence of the last command stored in the database, which is
+ * the compacted state of everything before it, and segments holding only older commands are
+ * deleted. On startup the commands after the checkpoint are replayed into the database before the
+ * application reports ready; a command torn by a crash, which was never acknowledged, is cut off.
+ *
+ * <p>Until a command is stored, reads of its booking or property wait for it through {@link
+ * #awaitPersisted(String)}, so a client always reads its own writes. A command the database
+ * rejects once stored, although acknowledged, is appended to the {@code rejected.log} dead-letter
+ * file and reported by {@link #checkNotRejected} until a later command of the booking is stored.
+ */
+@Slf4j
+@Component
+public class BookingJournal implements DisposableBean {
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT = "checkpoint";
+  private static final String REJECTED = "rejected.log";
+  private static final int MAX_REJECTED = 10_000;
+
+  private record Segment(FileChannel channel, MappedByteBuffer buffer) {}
+
+  private final JournalProperties properties;
+  private final JournalApplier applier;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BlockingQueue<JournalEntry> unstored = new LinkedBlockingQueue<>();
+  // Latest sequence of each booking and property with commands not stored yet
+  private final Map<String, Long> pending = new ConcurrentHashMap<>();
+  // Latest rejected command of each booking, until a later one of it is stored
+  private final Map<String, RejectedCommand> rejected = new ConcurrentHashMap<>();
+  private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+  private final Object syncLock = new Object();
+  private final Object storedLock = new Object();
+  private final Thread writer;
+  private volatile boolean running = true;
+  private Segment segment;
+  private volatile long writtenSequence;
+  private volatile long syncedSequence;
+  private volatile long storedSequence;
+
+  public BookingJournal(
+      JournalProperties properties,
+      JournalApplier applier,
+      ApplicationEventPublisher eventPublisher) {
+    this.properties = properties;
+    this.applier = applier;
+    this.eventPublisher = eventPublisher;
+    this.writer = new Thread(this::drain, "booking-journal");
+    this.writer.setDaemon(true);
+    if (!properties.enabled()) {
+      return;
+    }
+    try {
+      recover();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not recover the journal in " + directory(), e);
+    }
+    writer.start();
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /** Journals the command and returns once it is on disk, the database is written later. */
+  public void append(JournalEntry command) {
+    appendAll(List.of(command));
+  }
+
+  /** Journals the commands in order with a single force. */
+  public void appendAll(List<JournalEntry> commands) {
+    commands.stream()
+        .filter(command -> command.command().assignsProperty())
+        .map(JournalEntry::propertyId)
+        .distinct()
+        .filter(propertyId -> !applier.propertyExists(propertyId))
+        .findFirst()
+        .ifPresent(
+            propertyId -> {
+              throw new PropertyNotFoundException(propertyId);
+            });
+    if (unstored.size() + commands.size() > properties.maxPending()) {
+      throw new RateLimitExceededException("Too many bookings waiting to be stored");
+    }
+    long last;
+    synchronized (this) {
+      if (!running) {
+        throw new IllegalStateException("Booking journal is closed");
+      }
+      for (JournalEntry command : commands) {
+        long sequence = writtenSequence + 1;
+        JournalEntry entry = command.withSequence(sequence);
+        byte[] bytes = entry.encode();
+        // Keep room for the zero length that marks where the segment ends
+        if (bytes.length + Integer.BYTES > segment.buffer().remaining()) {
+          roll(sequence, bytes.length);
+        }
+        segment.buffer().put(bytes);
+        writtenSequence = sequence;
+        pending.put(entry.id(), sequence);
+        pending.put(entry.propertyId(), sequence);
+        unstored.add(entry);
+      }
+      last = writtenSequence;
+    }
+    sync(last);
+  }
+
+  /** Waits until the commands journaled so far for the booking or property are stored. */
+  public void awaitPersisted(String key) {
+    if (!properties.enabled() || key == null) {
+      return;
+    }
+    Long sequence = pending.get(key);
+    if (sequence != null) {
+      awaitStored(sequence, properties.awaitTimeout());
+    }
+  }
+
+  /**
+   * Fails when the last stored command of the booking was rejected by the database, so reading it
+   * tells the client its acknowledged write did not last.
+   */
+  public void checkNotRejected(String bookingId) {
+    RejectedCommand rejection = bookingId == null ? null : rejected.get(bookingId);
+    if (rejection != null) {
+      throw new BookingRejectedException(
+          rejection.command().name().toLowerCase().replace('_', ' '),
+          rejection.id(),
+          rejection.reason());
+    }
+  }
+
+  /** Waits until every command journaled so far is stored. */
+  public void awaitPersisted() {
+    if (properties.enabled()) {
+      awaitStored(writtenSequence, properties.awaitTimeout());
+    }
+  }
+
+  /** Holds back the rest of startup, occupancy rebuild included, until the replay is stored. */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void awaitReplay() {
+    if (properties.enabled()) {
+      awaitStored(writtenSequence, Duration.ofNanos(Long.MAX_VALUE));
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException, IOException {
+    if (!properties.enabled()) {
+      return;
+    }
+    synchronized (this) {
+      running = false;
+    }
+    // The writer stores what is left before it stops, whatever it cannot is replayed next start
+    writer.join(TimeUnit.SECONDS.toMillis(30));
+    if (writer.isAlive()) {
+      writer.interrupt();
+    }
+    synchronized (this) {
+      segment.buffer().force();
+      segment.channel().close();
+    }
+  }
+
+  private void recover() throws IOException {
+    Files.createDirectories(directory());
+    long checkpoint = readCheckpoint();
+    try (Stream<Path> files = Files.list(directory())) {
+      files
+          .filter(
+              path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+              })
+          .forEach(path -> segments.put(firstSequence(path), path));
+    }
+    long last = checkpoint;
+    int replayed = 0;
+    for (Path path : segments.values()) {
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        for (JournalEntry entry = JournalEntry.decode(buffer);
+            entry != null;
+            entry = JournalEntry.decode(buffer)) {
+          last = Math.max(last, entry.sequence());
+          if (entry.sequence() > checkpoint) {
+            pending.put(entry.id(), entry.sequence());
+            pending.put(entry.propertyId(), entry.sequence());
+            unstored.add(entry);
+            replayed++;
+          }
+        }
+        if (buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0) {
+          log.warn("Cutting off a torn write at byte {} of {}", buffer.position(), path);
+          while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+          }
+          buffer.force();
+        }
+      }
+    }
+    writtenSequence = last;
+    syncedSequence = last;
+    storedSequence = checkpoint;
+    segment = openSegment(last + 1);
+    if (replayed > 0) {
+      log.info("Replaying {} journaled booking commands", replayed);
+    }
+  }
+
+  private void roll(long sequence, int entryBytes) {
+    if (entryBytes + Integer.BYTES > properties.segmentSize().toBytes()) {
+      throw new IllegalArgumentException("Booking command does not fit in a journal segment");
+    }
+    try {
+      segment.buffer().force();
+      segment.channel().close();
+      segment = openSegment(sequence);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not roll the journal over", e);
+    }
+  }
+
+  private Segment openSegment(long firstSequence) throws IOException {
+    Path path =
+        directory()
+            .resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.segmentSize().toBytes());
+    segments.put(firstSequence, path);
+    return new Segment(channel, buffer);
+  }
+
+  /** Forces the journal up to at least {@code sequence}, sharing the force with other writers. */
+  private void sync(long sequence) {
+    if (syncedSequence >= sequence) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (syncedSequence >= sequence) {
+        return;
+      }
+      long target;
+      MappedByteBuffer buffer;
+      synchronized (this) {
+        // Earlier segments were forced when the journal rolled over them
+        target = writtenSequence;
+        buffer = segment.buffer();
+      }
+      buffer.force();
+      syncedSequence = target;
+    }
+  }
+
+  private void awaitStored(long sequence, Duration timeout) {
+    long remaining = timeout.toNanos();
+    synchronized (storedLock) {
+      while (storedSequence < sequence) {
+        if (remaining <= 0) {
+          throw new RateLimitExceededException("Bookings are still being stored");
+        }
+        long waitStart = System.nanoTime();
+        try {
+          TimeUnit.NANOSECONDS.timedWait(storedLock, remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        }
+        remaining -= System.nanoTime() - waitStart;
+      }
+    }
+  }
+
+  private void drain() {
+    List<JournalEntry> batch = new ArrayList<>(properties.batchSize());
+    while (running || !unstored.isEmpty()) {
+      try {
+        JournalEntry first = unstored.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        unstored.drainTo(batch, properties.batchSize() - 1);
+        if (!store(batch)) {
+          break;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /** Stores the batch, retrying until it is stored or the journal is closing. */
+  private boolean store(List<JournalEntry> batch) throws InterruptedException {
+    long backoff = 10;
+    List<RejectedCommand> rejections;
+    while (true) {
+      try {
+        rejections = applier.apply(batch);
+        break;
+      } catch (RuntimeException e) {
+        if (!running) {
+          log.warn("Leaving journaled bookings to be stored on the next start", e);
+          return false;
+        }
+        log.warn("Could not store journaled bookings, retrying in {} ms", backoff, e);
+        Thread.sleep(backoff);
+        backoff = Math.min(backoff * 2, 5_000);
+      }
+    }
+    // Recorded before the readers waiting for the batch are woken
+    record(batch, rejections);
+    long sequence = batch.get(batch.size() - 1).sequence();
+    checkpoint(sequence);
+    synchronized (storedLock) {
+      storedSequence = sequence;
+      storedLock.notifyAll();
+    }
+    for (JournalEntry entry : batch) {
+      pending.remove(entry.id(), entry.sequence());
+      pending.remove(entry.propertyId(), entry.sequence());
+    }
+    // Caches filled from the database while the commands were pending are refreshed
+    batch.stream()
+        .map(JournalEntry::propertyId)
+        .distinct()
+        .forEach(propertyId -> eventPublisher.publishEvent(new BookingChangedEvent(propertyId)));
+    return true;
+  }
+
+  private void record(List<JournalEntry> batch, List<RejectedCommand> rejections) {
+    if (rejections.isEmpty()) {
+      if (!rejected.isEmpty()) {
+        batch.forEach(entry -> rejected.remove(entry.id()));
+      }
+      return;
+    }
+    Map<Long, RejectedCommand> bySequence = new HashMap<>();
+    rejections.forEach(rejection -> bySequence.put(rejection.sequence(), rejection));
+    for (JournalEntry entry : batch) {
+      RejectedCommand rejection = bySequence.get(entry.sequence());
+      if (rejection == null) {
+        rejected.remove(entry.id());
+      } else {
+        rejected.put(entry.id(), rejection);
+      }
+    }
+    while (rejected.size() > MAX_REJECTED) {
+      rejected.values().stream()
+          .min(Comparator.comparingLong(RejectedCommand::sequence))
+          .ifPresent(oldest -> rejected.remove(oldest.id(), oldest));
+    }
+    try {
+      Files.write(
+          directory().resolve(REJECTED),
+          rejections.stream().map(RejectedCommand::toLine).toList(),
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      log.error("Could not add {} rejected commands to {}", rejections.size(), REJECTED, e);
+    }
+  }
+
+  private void checkpoint(long sequence) {
+    try {
+      Path temporary = directory().resolve(CHECKPOINT + ".tmp");
+      Files.writeString(temporary, Long.toString(sequence));
+      Files.move(
+          temporary,
+          directory().resolve(CHECKPOINT),
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      // A segment is obsolete once the segment after it starts past the checkpoint
+      for (Long first : segments.keySet()) {
+        Long next = segments.higherKey(first);
+        if (next == null || next - 1 > sequence) {
+          break;
+        }
+        Files.deleteIfExists(segments.remove(first));
+      }
+    } catch (IOException e) {
+      // Only costs a longer replay, which stores the same rows again
+      log.warn("Could not checkpoint the journal at {}", sequence, e);
+    }
+  }
+
+  private long readCheckpoint() throws IOException {
+    Path path = directory().resolve(CHECKPOINT);
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    return Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+  }
+
+  private static long firstSequence(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private Path directory() {
+    return properties.directory();
+  }
+}
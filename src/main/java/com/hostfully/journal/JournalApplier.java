@@ -0,0 +1,136 @@
+package com.hostfully.journal;
+
+import com.hostfully.registry.PropertyRegistry;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes journaled commands to the database. Every command carries the whole row, so reservations
+ * and blocks are upserted by id and applying a command twice, as a replay after a crash may, leaves
+ * the same row behind.
+ */
+@Slf4j
+@Component
+class JournalApplier {
+
+  private static final String H2_RESERVATION_UPSERT =
+      "MERGE INTO reservation (id, property_id, start, finish, guest_name, status) KEY (id)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+  private static final String H2_BLOCK_UPSERT =
+      "MERGE INTO block (id, property_id, start, finish) KEY (id) VALUES (?, ?, ?, ?)";
+  private static final String POSTGRESQL_RESERVATION_UPSERT =
+      "INSERT INTO reservation (id, property_id, start, finish, guest_name, status)"
+          + " VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET"
+          + " property_id = EXCLUDED.property_id, start = EXCLUDED.start,"
+          + " finish = EXCLUDED.finish, guest_name = EXCLUDED.guest_name,"
+          + " status = EXCLUDED.status";
+  private static final String POSTGRESQL_BLOCK_UPSERT =
+      "INSERT INTO block (id, property_id, start, finish) VALUES (?, ?, ?, ?)"
+          + " ON CONFLICT (id) DO UPDATE SET property_id = EXCLUDED.property_id,"
+          + " start = EXCLUDED.start, finish = EXCLUDED.finish";
+  private static final String BLOCK_DELETE = "DELETE FROM block WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final PropertyRegistry propertyRegistry;
+  private volatile boolean postgresql;
+  private volatile boolean dialectKnown;
+
+  JournalApplier(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      PropertyRegistry propertyRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.propertyRegistry = propertyRegistry;
+  }
+
+  boolean propertyExists(String propertyId) {
+    return propertyRegistry.exists(propertyId);
+  }
+
+  /**
+   * Stores the commands, in order, in one transaction. A command the database rejects, such as a
+   * booking of a property deleted since, is left out so it cannot hold back the others and
+   * returned for the caller to record; any other failure is thrown for the caller to retry.
+   */
+  List<RejectedCommand> apply(List<JournalEntry> entries) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> write(entries));
+      return List.of();
+    } catch (DataIntegrityViolationException e) {
+      List<RejectedCommand> rejections = new ArrayList<>();
+      for (JournalEntry entry : entries) {
+        try {
+          transactionTemplate.executeWithoutResult(status -> write(List.of(entry)));
+        } catch (DataIntegrityViolationException rejected) {
+          log.error(
+              "Journaled {} of {} was rejected by the database",
+              entry.command(),
+              entry.id(),
+              rejected);
+          rejections.add(RejectedCommand.of(entry, rejected.getMostSpecificCause().getMessage()));
+        }
+      }
+      return rejections;
+    }
+  }
+
+  private void write(List<JournalEntry> entries) {
+    // Each table keeps the journal order, which is all upserts of the same id need
+    List<Object[]> reservations = new ArrayList<>();
+    List<Object[]> blocks = new ArrayList<>();
+    List<Object[]> deletedBlocks = new ArrayList<>();
+    for (JournalEntry entry : entries) {
+      if (entry.command().isReservation()) {
+        reservations.add(
+            new Object[] {
+              entry.id(),
+              entry.propertyId(),
+              entry.start(),
+              entry.finish(),
+              entry.guestName(),
+              entry.status()
+            });
+      } else if (entry.command() == JournalEntry.Command.DELETE_BLOCK) {
+        deletedBlocks.add(new Object[] {entry.id()});
+      } else {
+        blocks.add(new Object[] {entry.id(), entry.propertyId(), entry.start(), entry.finish()});
+      }
+    }
+    boolean postgresql = isPostgresql();
+    if (!reservations.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          postgresql ? POSTGRESQL_RESERVATION_UPSERT : H2_RESERVATION_UPSERT, reservations);
+    }
+    if (!blocks.isEmpty()) {
+      jdbcTemplate.batchUpdate(postgresql ? POSTGRESQL_BLOCK_UPSERT : H2_BLOCK_UPSERT, blocks);
+    }
+    if (!deletedBlocks.isEmpty()) {
+      jdbcTemplate.batchUpdate(BLOCK_DELETE, deletedBlocks);
+    }
+  }
+
+  private boolean isPostgresql() {
+    if (!dialectKnown) {
+      try {
+        String product =
+            JdbcUtils.extractDatabaseMetaData(
+                jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+        postgresql = "PostgreSQL".equalsIgnoreCase(product);
+        dialectKnown = true;
+      } catch (MetaDataAccessException e) {
+        throw new IllegalStateException("Could not tell which database the journal writes to", e);
+      }
+    }
+    return postgresql;
+  }
+}
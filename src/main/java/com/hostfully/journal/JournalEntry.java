@@ -0,0 +1,152 @@
+package com.hostfully.journal;
+
+import com.hostfully.model.Block;
+import com.hostfully.model.Reservation;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * One booking command as written to the journal, carrying the whole row as it is after the
+ * command, so that applying it to the database is an idempotent upsert or delete.
+ *
+ * <p>On disk an entry is its payload length, a CRC32C of the payload and the payload itself. A
+ * length of zero marks the end of the written part of a segment, and a payload whose checksum does
+ * not match is a write torn by a crash.
+ */
+public record JournalEntry(
+    long sequence,
+    Command command,
+    String id,
+    String propertyId,
+    LocalDate start,
+    LocalDate finish,
+    String guestName,
+    int status) {
+
+  public enum Command {
+    CREATE_RESERVATION,
+    UPDATE_RESERVATION,
+    CANCEL_RESERVATION,
+    REBOOK_RESERVATION,
+    CREATE_BLOCK,
+    UPDATE_BLOCK,
+    DELETE_BLOCK;
+
+    boolean isReservation() {
+      return ordinal() <= REBOOK_RESERVATION.ordinal();
+    }
+
+    /** Whether the command may point the booking at a property it did not belong to before. */
+    boolean assignsProperty() {
+      return this == CREATE_RESERVATION
+          || this == UPDATE_RESERVATION
+          || this == CREATE_BLOCK
+          || this == UPDATE_BLOCK;
+    }
+  }
+
+  static final int HEADER_BYTES = 8;
+
+  public static JournalEntry of(Command command, Reservation reservation) {
+    return new JournalEntry(
+        0,
+        command,
+        reservation.getId(),
+        reservation.getProperty().getId(),
+        reservation.getStart(),
+        reservation.getFinish(),
+        reservation.getGuestName(),
+        reservation.getStatus().ordinal());
+  }
+
+  public static JournalEntry of(Command command, Block block) {
+    return new JournalEntry(
+        0,
+        command,
+        block.getId(),
+        block.getProperty().getId(),
+        block.getStart(),
+        block.getFinish(),
+        null,
+        0);
+  }
+
+  JournalEntry withSequence(long sequence) {
+    return new JournalEntry(sequence, command, id, propertyId, start, finish, guestName, status);
+  }
+
+  /** Header and payload of this entry. */
+  byte[] encode() {
+    byte[] idBytes = bytes(id);
+    byte[] propertyIdBytes = bytes(propertyId);
+    byte[] guestNameBytes = bytes(guestName);
+    int payloadLength =
+        8 + 1 + 1 + 8 + 8 + 6 + idBytes.length + propertyIdBytes.length + guestNameBytes.length;
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+    buffer.putInt(payloadLength).putInt(0);
+    buffer.putLong(sequence).put((byte) command.ordinal()).put((byte) status);
+    buffer.putLong(start.toEpochDay()).putLong(finish.toEpochDay());
+    putString(buffer, idBytes, id);
+    putString(buffer, propertyIdBytes, propertyId);
+    putString(buffer, guestNameBytes, guestName);
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.array(), HEADER_BYTES, payloadLength);
+    buffer.putInt(4, (int) crc.getValue());
+    return buffer.array();
+  }
+
+  /**
+   * Reads the entry at the buffer's position and moves past it, or returns null, leaving the
+   * position alone, when there is no complete entry there.
+   */
+  static JournalEntry decode(ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_BYTES) {
+      return null;
+    }
+    int position = buffer.position();
+    int payloadLength = buffer.getInt(position);
+    if (payloadLength <= 0 || payloadLength > buffer.remaining() - HEADER_BYTES) {
+      return null;
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(position + HEADER_BYTES, payloadLength));
+    if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+      return null;
+    }
+    ByteBuffer payload = buffer.slice(position + HEADER_BYTES, payloadLength);
+    long sequence = payload.getLong();
+    Command command = Command.values()[payload.get()];
+    int status = payload.get();
+    LocalDate start = LocalDate.ofEpochDay(payload.getLong());
+    LocalDate finish = LocalDate.ofEpochDay(payload.getLong());
+    String id = getString(payload);
+    String propertyId = getString(payload);
+    String guestName = getString(payload);
+    buffer.position(position + HEADER_BYTES + payloadLength);
+    return new JournalEntry(sequence, command, id, propertyId, start, finish, guestName, status);
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] bytes, String value) {
+    // The length is stored as a short, a longer string would be read back cut or as null
+    if (bytes.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Journaled strings are at most 32767 bytes");
+    }
+    buffer.putShort(value == null ? -1 : (short) bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    short length = buffer.getShort();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
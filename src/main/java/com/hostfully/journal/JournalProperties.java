@@ -0,0 +1,23 @@
+package com.hostfully.journal;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param enabled whether booking writes are acknowledged once journaled and stored asynchronously
+ * @param directory where the journal segments and the checkpoint are kept
+ * @param segmentSize size each segment file is mapped with before the journal rolls to a new one
+ * @param batchSize most journaled commands stored in one database transaction
+ * @param maxPending commands waiting to be stored before new writes are rejected
+ * @param awaitTimeout how long a read waits for the commands it depends on to be stored
+ */
+@ConfigurationProperties(prefix = "hostfully.journal")
+public record JournalProperties(
+    boolean enabled,
+    Path directory,
+    DataSize segmentSize,
+    int batchSize,
+    int maxPending,
+    Duration awaitTimeout) {}
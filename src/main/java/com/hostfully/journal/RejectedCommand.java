@@ -0,0 +1,47 @@
+package com.hostfully.journal;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A journaled command the database refused to store after the write had been acknowledged, such
+ * as a booking of a property deleted in the meantime.
+ *
+ * @param reason what the database reported, on one line
+ */
+public record RejectedCommand(
+    long sequence,
+    JournalEntry.Command command,
+    String id,
+    String propertyId,
+    LocalDate start,
+    LocalDate finish,
+    String reason,
+    Instant rejectedAt) {
+
+  static RejectedCommand of(JournalEntry entry, String reason) {
+    return new RejectedCommand(
+        entry.sequence(),
+        entry.command(),
+        entry.id(),
+        entry.propertyId(),
+        entry.start(),
+        entry.finish(),
+        reason == null ? "" : reason.replaceAll("\\s+", " "),
+        Instant.now());
+  }
+
+  /** Tab-separated, the way the dead-letter file lists it. */
+  String toLine() {
+    return String.join(
+        "\t",
+        rejectedAt.toString(),
+        Long.toString(sequence),
+        command.name(),
+        id,
+        propertyId,
+        String.valueOf(start),
+        String.valueOf(finish),
+        reason);
+  }
+}
@@ -4,6 +4,8 @@ import com.hostfully.controller.dtos.BlockDto;
 import com.hostfully.controller.dtos.PersistBlockDto;
 import com.hostfully.model.Block;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public interface BlockMapper {
@@ -11,4 +13,8 @@ public interface BlockMapper {
   BlockDto map(Block block);
 
   Block map(PersistBlockDto block);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "property", ignore = true)
+  void update(PersistBlockDto blockDto, @MappingTarget Block block);
 }
@@ -5,6 +5,7 @@ import com.hostfully.controller.dtos.PropertyDto;
 import com.hostfully.model.Property;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public interface DomainPropertyMapper {
@@ -15,4 +16,9 @@ public interface DomainPropertyMapper {
   Property map(PersistPropertyDto propertyDto);
 
   PropertyDto map(Property created);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "blocks", ignore = true)
+  @Mapping(target = "reservations", ignore = true)
+  void update(PersistPropertyDto propertyDto, @MappingTarget Property property);
 }
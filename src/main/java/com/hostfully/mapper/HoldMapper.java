@@ -0,0 +1,11 @@
+package com.hostfully.mapper;
+
+import com.hostfully.controller.dtos.HoldDto;
+import com.hostfully.hold.Hold;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface HoldMapper {
+
+  HoldDto map(Hold hold);
+}
@@ -0,0 +1,11 @@
+package com.hostfully.mapper;
+
+import com.hostfully.controller.dtos.PropertyDeletionDto;
+import com.hostfully.deletion.PropertyDeletion;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface PropertyDeletionMapper {
+
+  PropertyDeletionDto map(PropertyDeletion deletion);
+}
@@ -4,6 +4,8 @@ import com.hostfully.controller.dtos.PersistReservationDto;
 import com.hostfully.controller.dtos.ReservationDto;
 import com.hostfully.model.Reservation;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public interface ReservationMapper {
@@ -11,4 +13,9 @@ public interface ReservationMapper {
   ReservationDto map(Reservation reservation);
 
   Reservation map(PersistReservationDto reservation);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "property", ignore = true)
+  @Mapping(target = "status", ignore = true)
+  void update(PersistReservationDto reservationDto, @MappingTarget Reservation reservation);
 }
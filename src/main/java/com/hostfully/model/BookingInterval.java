@@ -0,0 +1,6 @@
+package com.hostfully.model;
+
+import java.time.LocalDate;
+
+/** The dates a reservation or block occupies, without loading the entity or its property. */
+public record BookingInterval(String id, String propertyId, LocalDate start, LocalDate finish) {}
@@ -5,6 +5,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
@@ -26,6 +27,10 @@ public class Property {
   @NotBlank(message = "Name is mandatory")
   private String name;
 
+  /** Identical units let out under this property, each booked by one reservation at a time. */
+  @Positive(message = "Units must be positive")
+  private int units = 1;
+
   @OneToMany(mappedBy = "property")
   private List<Block> blocks = new ArrayList<>();
 
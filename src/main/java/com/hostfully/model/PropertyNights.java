@@ -0,0 +1,4 @@
+package com.hostfully.model;
+
+/** Nights a property has booked or blocked within a range, as counted by the database. */
+public record PropertyNights(String propertyId, long nights) {}
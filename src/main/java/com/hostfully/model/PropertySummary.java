@@ -0,0 +1,4 @@
+package com.hostfully.model;
+
+/** Id, name and units of a property, without its reservations and blocks. */
+public record PropertySummary(String id, String name, int units) {}
@@ -0,0 +1,231 @@
+package com.hostfully.occupancy;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-night booking counts of many properties in one memory-mapped file, outside the Java heap.
+ *
+ * <p>The file starts with a header, followed by one fixed-size slot per property: the property id
+ * and then a 16-bit count per night, indexed by days since the file's first night. A count is the
+ * number of active reservations and blocks covering that night. Only the id-to-slot index lives on
+ * the heap, so reading a range allocates nothing.
+ *
+ * <p>Reads need no lock and may race a concurrent write. Writes are serialized by the caller. The
+ * header records whether the file was closed cleanly; {@link #open} only reuses the counts of a
+ * file that was closed cleanly and covers the same nights.
+ */
+final class OccupancyFile {
+
+  private static final int MAGIC = 0x4f434331; // OCC1
+  private static final int HEADER_BYTES = 64;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int EPOCH_DAY_OFFSET = 4;
+  private static final int DAYS_OFFSET = 12;
+  private static final int CAPACITY_OFFSET = 16;
+  private static final int COUNT_OFFSET = 20;
+  private static final int CLEAN_OFFSET = 24;
+  // A length byte and up to 63 bytes of UTF-8, enough for the UUIDs the entities are given
+  static final int ID_BYTES = 64;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final long epochDay;
+  private final int days;
+  private final int capacity;
+  private final int slotBytes;
+  private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+  private final boolean reused;
+
+  private OccupancyFile(
+      FileChannel channel, MappedByteBuffer buffer, long epochDay, int days, int capacity) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.epochDay = epochDay;
+    this.days = days;
+    this.capacity = capacity;
+    this.slotBytes = ID_BYTES + 2 * days;
+
+    boolean matches =
+        buffer.getInt(MAGIC_OFFSET) == MAGIC
+            && buffer.getLong(EPOCH_DAY_OFFSET) == epochDay
+            && buffer.getInt(DAYS_OFFSET) == days
+            && buffer.getInt(CAPACITY_OFFSET) == capacity;
+    this.reused = matches && buffer.get(CLEAN_OFFSET) == 1;
+    if (reused) {
+      int count = buffer.getInt(COUNT_OFFSET);
+      for (int slot = 0; slot < count; slot++) {
+        slots.put(readId(slot), slot);
+      }
+    } else {
+      buffer.putInt(COUNT_OFFSET, 0);
+      buffer.putInt(MAGIC_OFFSET, MAGIC);
+      buffer.putLong(EPOCH_DAY_OFFSET, epochDay);
+      buffer.putInt(DAYS_OFFSET, days);
+      buffer.putInt(CAPACITY_OFFSET, capacity);
+    }
+    // Dirty until closed, a crash leaves counts that can no longer be trusted
+    buffer.put(CLEAN_OFFSET, (byte) 0);
+    buffer.force();
+  }
+
+  /** Maps the file, creating or resizing it, for {@code days} nights from {@code epoch}. */
+  static OccupancyFile open(Path path, LocalDate epoch, int days, int capacity)
+      throws IOException {
+    long size = HEADER_BYTES + (long) capacity * (ID_BYTES + 2L * days);
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "An occupancy file of "
+              + capacity
+              + " properties and "
+              + days
+              + " days would exceed 2 GB, lower max-properties or days");
+    }
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    return new OccupancyFile(channel, buffer, epoch.toEpochDay(), days, capacity);
+  }
+
+  /** Whether the counts were kept from the previous run instead of starting empty. */
+  boolean reused() {
+    return reused;
+  }
+
+  LocalDate epoch() {
+    return LocalDate.ofEpochDay(epochDay);
+  }
+
+  /** Whether [start, finish] lies inside the nights this file covers. */
+  boolean covers(LocalDate start, LocalDate finish) {
+    return start.toEpochDay() >= epochDay && finish.toEpochDay() < epochDay + days;
+  }
+
+  /** Whether the property has a slot, which it gets with its first booking. */
+  boolean hasSlot(String propertyId) {
+    return slots.containsKey(propertyId);
+  }
+
+  /** Whether the id can be given a slot, i.e. it fits and the file is not full. */
+  boolean tracks(String propertyId) {
+    return slots.containsKey(propertyId)
+        || (slots.size() < capacity
+            && propertyId.getBytes(StandardCharsets.UTF_8).length < ID_BYTES);
+  }
+
+  /**
+   * Largest count over [start, finish], not counting one booking of [ignoreStart, ignoreFinish]
+   * when given. Nights outside the file are skipped.
+   */
+  int maxCount(
+      String propertyId,
+      LocalDate start,
+      LocalDate finish,
+      LocalDate ignoreStart,
+      LocalDate ignoreFinish) {
+    Integer slot = slots.get(propertyId);
+    if (slot == null) {
+      return 0;
+    }
+    long ignoreFrom = ignoreStart == null ? Long.MAX_VALUE : ignoreStart.toEpochDay();
+    long ignoreTo = ignoreFinish == null ? Long.MIN_VALUE : ignoreFinish.toEpochDay();
+    int base = nightsOffset(slot);
+    int max = 0;
+    long to = Math.min(finish.toEpochDay(), epochDay + days - 1);
+    for (long day = Math.max(start.toEpochDay(), epochDay); day <= to; day++) {
+      int count = buffer.getShort(base + 2 * (int) (day - epochDay));
+      if (day >= ignoreFrom && day <= ignoreTo) {
+        count--;
+      }
+      max = Math.max(max, count);
+    }
+    return max;
+  }
+
+  /** Adds {@code delta} to every night of [start, finish] inside the file, never below zero. */
+  void add(String propertyId, LocalDate start, LocalDate finish, int delta) {
+    Integer slot = slots.get(propertyId);
+    if (slot == null) {
+      if (delta < 0) {
+        return;
+      }
+      slot = allocate(propertyId);
+    }
+    int base = nightsOffset(slot);
+    long to = Math.min(finish.toEpochDay(), epochDay + days - 1);
+    for (long day = Math.max(start.toEpochDay(), epochDay); day <= to; day++) {
+      int index = base + 2 * (int) (day - epochDay);
+      int count = Math.max(0, Math.min(Short.MAX_VALUE, buffer.getShort(index) + delta));
+      buffer.putShort(index, (short) count);
+    }
+  }
+
+  /** Zeroes every night of the property. */
+  void clear(String propertyId) {
+    Integer slot = slots.get(propertyId);
+    if (slot != null) {
+      clearSlot(slot);
+    }
+  }
+
+  /** Zeroes every night of every property. */
+  void clearAll() {
+    slots.values().forEach(this::clearSlot);
+  }
+
+  /** Flushes the counts, marking them as reusable by the next run only when {@code clean}. */
+  void close(boolean clean) throws IOException {
+    buffer.force();
+    if (clean) {
+      buffer.put(CLEAN_OFFSET, (byte) 1);
+      buffer.force();
+    }
+    channel.close();
+  }
+
+  private int allocate(String propertyId) {
+    int slot = slots.size();
+    if (slot >= capacity) {
+      throw new IllegalStateException("Occupancy file is full");
+    }
+    byte[] id = propertyId.getBytes(StandardCharsets.UTF_8);
+    int offset = HEADER_BYTES + slot * slotBytes;
+    buffer.put(offset, (byte) id.length);
+    buffer.put(offset + 1, id);
+    // The slot may hold nights from a file laid out for another window
+    clearSlot(slot);
+    slots.put(propertyId, slot);
+    buffer.putInt(COUNT_OFFSET, slot + 1);
+    return slot;
+  }
+
+  private void clearSlot(int slot) {
+    int base = nightsOffset(slot);
+    for (int night = 0; night < days; night++) {
+      buffer.putShort(base + 2 * night, (short) 0);
+    }
+  }
+
+  private String readId(int slot) {
+    int offset = HEADER_BYTES + slot * slotBytes;
+    byte[] id = new byte[buffer.get(offset)];
+    buffer.get(offset + 1, id);
+    return new String(id, StandardCharsets.UTF_8);
+  }
+
+  private int nightsOffset(int slot) {
+    return HEADER_BYTES + slot * slotBytes + ID_BYTES;
+  }
+}
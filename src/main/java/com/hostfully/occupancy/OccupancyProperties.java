@@ -0,0 +1,13 @@
+package com.hostfully.occupancy;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param enabled whether booking validation consults the occupancy store before the database
+ * @param file memory-mapped file holding the per-night counts
+ * @param days nights tracked from the first day of the previous month
+ * @param maxProperties properties the file has slots for, later ones are checked in the database
+ */
+@ConfigurationProperties(prefix = "hostfully.occupancy")
+public record OccupancyProperties(boolean enabled, Path file, int days, int maxProperties) {}
@@ -0,0 +1,186 @@
+package com.hostfully.occupancy;
+
+import com.hostfully.event.PropertyDeletedEvent;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which nights of each property are taken by active reservations and blocks, kept in an {@link
+ * OccupancyFile} outside the heap so that booking validation can rule out an overlap without a
+ * database query.
+ *
+ * <p>The store only ever answers {@link Availability#FREE} when it is sure. Until it is loaded, for
+ * dates outside its window and for properties it has no slot for, whether they never had a
+ * booking or did not fit in the file, it answers {@link Availability#UNKNOWN}, and callers go to
+ * the database as before. A file closed cleanly by the previous run is remapped as is; otherwise
+ * the counts are rebuilt from the database once the application is ready.
+ *
+ * <p>The servlet services keep it current through {@link #replace}. Anything else that writes
+ * bookings leaves the counts stale: a run with the store disabled, such as one on the reactive
+ * stack, deletes the file so the next enabled run rebuilds it, and so does {@code
+ * generateDataset}. Other instances or tools writing the same database are not noticed.
+ */
+@Slf4j
+@Component
+public class OccupancyStore implements DisposableBean {
+
+  public enum Availability {
+    FREE,
+    OCCUPIED,
+    UNKNOWN
+  }
+
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final OccupancyFile file;
+  private volatile boolean ready;
+
+  public OccupancyStore(
+      OccupancyProperties properties,
+      ReservationRepository reservationRepository,
+      BlockRepository blockRepository) {
+    this.reservationRepository = reservationRepository;
+    this.blockRepository = blockRepository;
+    if (!properties.enabled()) {
+      this.file = null;
+      discard(properties.file());
+      return;
+    }
+    try {
+      this.file =
+          OccupancyFile.open(
+              properties.file(),
+              LocalDate.now().withDayOfMonth(1).minusMonths(1),
+              properties.days(),
+              properties.maxProperties());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not map " + properties.file(), e);
+    }
+    this.ready = file.reused();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (file == null || ready) {
+      return;
+    }
+    long start = System.nanoTime();
+    // Cleared before the queries run, so bookings written meanwhile are either in the query
+    // results or added by replace, never lost
+    synchronized (file) {
+      file.clearAll();
+    }
+    LocalDate from = file.epoch();
+    LocalDate to = from.plusYears(100);
+    int reservations = 0;
+    for (BookingInterval reservation : reservationRepository.findActiveIntervals(from, to)) {
+      replace(null, reservation);
+      reservations++;
+    }
+    int blocks = 0;
+    for (BookingInterval block : blockRepository.findIntervals(from, to)) {
+      replace(null, block);
+      blocks++;
+    }
+    ready = true;
+    log.info(
+        "Rebuilt occupancy from {} reservations and {} blocks in {} ms",
+        reservations,
+        blocks,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Whether [start, finish] of the property is free of active reservations and blocks, leaving
+   * out the booking {@code ignore}, if given, which is the one being changed.
+   */
+  public Availability check(
+      String propertyId, LocalDate start, LocalDate finish, BookingInterval ignore) {
+    if (!ready
+        || start == null
+        || finish == null
+        || !file.covers(start, finish)
+        || !file.hasSlot(propertyId)) {
+      return Availability.UNKNOWN;
+    }
+    boolean ignoring = ignore != null && propertyId.equals(ignore.propertyId());
+    int taken =
+        file.maxCount(
+            propertyId,
+            start,
+            finish,
+            ignoring ? ignore.start() : null,
+            ignoring ? ignore.finish() : null);
+    return taken > 0 ? Availability.OCCUPIED : Availability.FREE;
+  }
+
+  /**
+   * Records that a booking which took {@code previous} now takes {@code current}. Either is null
+   * when the booking did not take any nights before, such as a new or rebooked reservation, or no
+   * longer does, such as a cancelled reservation or a deleted block.
+   */
+  public void replace(BookingInterval previous, BookingInterval current) {
+    if (file == null) {
+      return;
+    }
+    synchronized (file) {
+      if (previous != null) {
+        file.add(previous.propertyId(), previous.start(), previous.finish(), -1);
+      }
+      // A property that cannot be given a slot stays without one, and unknown
+      if (current != null && file.tracks(current.propertyId())) {
+        file.add(current.propertyId(), current.start(), current.finish(), 1);
+      }
+    }
+  }
+
+  /** Forgets every night of a property whose bookings were all removed. */
+  public void clear(String propertyId) {
+    if (file == null) {
+      return;
+    }
+    synchronized (file) {
+      file.clear(propertyId);
+    }
+  }
+
+  @EventListener
+  public void onPropertyDeleted(PropertyDeletedEvent event) {
+    clear(event.propertyId());
+  }
+
+  /** Deletes counts left by an earlier run, bookings written without the store are not in them. */
+  private static void discard(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      if (Files.deleteIfExists(file)) {
+        log.info("Deleted {}, it will be rebuilt by the next run with the store enabled", file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not delete stale " + file, e);
+    }
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    if (file != null) {
+      synchronized (file) {
+        // Counts of an unfinished rebuild are incomplete, the next run has to rebuild again
+        file.close(ready);
+      }
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package com.hostfully.pipeline;
+
+import com.hostfully.exception.OverlappingReservationsException;
+import com.hostfully.exception.RateLimitExceededException;
+import com.hostfully.lock.PropertyLocks;
+import com.hostfully.model.Reservation;
+import com.hostfully.repository.ReservationRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group commit for new reservations. Callers enqueue their booking and wait on a future while a
+ * single writer thread drains the queue in batches: each booking is validated against the
+ * database and against the bookings accepted earlier in the same batch, and all accepted ones are
+ * committed in one transaction. The writer hands every committed booking to its {@code committed}
+ * callback before the next batch is validated, so the in-memory indexes the validation reads are
+ * never behind. Since every pipelined booking goes through the same thread, two of them can never
+ * race past the overlap validation, and a batch is validated and committed holding the locks of
+ * all its properties, so neither can a booking written outside the pipeline.
+ *
+ * <p>Callers block until their batch commits. The wait is bounded by the linger and one batch
+ * commit, and the queue is bounded too: once full, new bookings are turned away at once instead of
+ * tying up more request threads.
+ */
+@Slf4j
+@Component
+public class BookingPipeline implements DisposableBean {
+
+  private final BookingPipelineProperties properties;
+  private final ReservationRepository reservationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final PropertyLocks propertyLocks;
+  private final BlockingQueue<PendingBooking> queue;
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  public BookingPipeline(
+      BookingPipelineProperties properties,
+      ReservationRepository reservationRepository,
+      TransactionTemplate transactionTemplate,
+      PropertyLocks propertyLocks) {
+    this.properties = properties;
+    this.reservationRepository = reservationRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.propertyLocks = propertyLocks;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+    this.writer = new Thread(this::drain, "booking-pipeline");
+    this.writer.setDaemon(true);
+    if (properties.enabled()) {
+      writer.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /**
+   * Queues the reservation and waits for the batch holding it to commit.
+   *
+   * @param validate the checks a reservation must pass, given the reservations of the same
+   *     property accepted earlier in its batch; returns those it cannot share its nights with,
+   *     which are reported once they have ids. Run on the writer thread.
+   * @param save persists a single reservation, used when a whole batch cannot be committed
+   * @param committed records a stored reservation, run on the writer thread before the batch's
+   *     callers are answered and the next batch is validated
+   */
+  public Reservation write(
+      Reservation reservation,
+      BatchValidation validate,
+      UnaryOperator<Reservation> save,
+      Consumer<Reservation> committed) {
+    try {
+      return submit(reservation, validate, save, committed).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  public CompletableFuture<Reservation> submit(
+      Reservation reservation,
+      BatchValidation validate,
+      UnaryOperator<Reservation> save,
+      Consumer<Reservation> committed) {
+    if (!properties.enabled()) {
+      throw new IllegalStateException("Booking pipeline is disabled");
+    }
+    CompletableFuture<Reservation> result = new CompletableFuture<>();
+    PendingBooking pending = new PendingBooking(reservation, validate, save, committed, result);
+    if (!running || !queue.offer(pending)) {
+      result.completeExceptionally(
+          new RateLimitExceededException("Too many bookings waiting to be written"));
+    }
+    return result;
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    running = false;
+    writer.interrupt();
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void drain() {
+    List<PendingBooking> batch = new ArrayList<>(properties.batchSize());
+    while (running) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + properties.linger().toNanos();
+        while (batch.size() < properties.batchSize()) {
+          PendingBooking next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        propertyLocks.serialized(
+            batch.stream().map(pending -> pending.reservation().getProperty().getId()).toList(),
+            () -> {
+              flush(batch);
+              return null;
+            });
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (RuntimeException e) {
+        log.error("Booking batch failed", e);
+        batch.forEach(pending -> pending.result().completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+    PendingBooking left;
+    while ((left = queue.poll()) != null) {
+      left.result().completeExceptionally(new IllegalStateException("Shutting down"));
+    }
+  }
+
+  private void flush(List<PendingBooking> batch) {
+    List<PendingBooking> accepted = new ArrayList<>(batch.size());
+    // Rejected for overlapping a booking of this batch, reported once that booking has an id
+    Map<PendingBooking, List<Reservation>> overlappingInBatch = new LinkedHashMap<>();
+    Map<String, List<Reservation>> acceptedByProperty = new HashMap<>();
+
+    for (PendingBooking pending : batch) {
+      Reservation reservation = pending.reservation();
+      List<Reservation> sameProperty =
+          acceptedByProperty.computeIfAbsent(
+              reservation.getProperty().getId(), id -> new ArrayList<>());
+      List<Reservation> overlapping;
+      try {
+        overlapping = pending.validate().validate(reservation, sameProperty);
+      } catch (RuntimeException e) {
+        pending.result().completeExceptionally(e);
+        continue;
+      }
+      if (!overlapping.isEmpty()) {
+        overlappingInBatch.put(pending, overlapping);
+        continue;
+      }
+      sameProperty.add(reservation);
+      accepted.add(pending);
+    }
+
+    commit(accepted);
+    overlappingInBatch.forEach(
+        (pending, overlapping) ->
+            pending
+                .result()
+                .completeExceptionally(new OverlappingReservationsException(overlapping)));
+  }
+
+  private void commit(List<PendingBooking> accepted) {
+    if (accepted.isEmpty()) {
+      return;
+    }
+    List<Reservation> saved;
+    try {
+      saved =
+          transactionTemplate.execute(
+              status ->
+                  reservationRepository.saveAll(
+                      accepted.stream().map(PendingBooking::reservation).toList()));
+    } catch (RuntimeException e) {
+      // One bad booking fails the whole batch, write them one by one so only it is rejected
+      for (PendingBooking pending : accepted) {
+        // The id generated for the rolled back insert would make the retry a merge
+        pending.reservation().setId(null);
+        Reservation single;
+        try {
+          single = pending.save().apply(pending.reservation());
+        } catch (RuntimeException rejected) {
+          pending.result().completeExceptionally(rejected);
+          continue;
+        }
+        complete(pending, single);
+      }
+      return;
+    }
+    for (int i = 0; i < accepted.size(); i++) {
+      complete(accepted.get(i), saved.get(i));
+    }
+  }
+
+  private static void complete(PendingBooking pending, Reservation saved) {
+    try {
+      pending.committed().accept(saved);
+    } catch (RuntimeException e) {
+      // The reservation is stored all the same, the caller must not retry it
+      log.error("Recording committed reservation {} failed", saved.getId(), e);
+    }
+    pending.result().complete(saved);
+  }
+
+  /** Validation of a pipelined reservation that knows the rest of its batch. */
+  @FunctionalInterface
+  public interface BatchValidation {
+
+    /**
+     * Throws when the reservation conflicts with stored bookings.
+     *
+     * @param accepted the reservations of the same property accepted earlier in the batch
+     * @return those of {@code accepted} the reservation is rejected for, empty when it is accepted
+     */
+    List<Reservation> validate(Reservation reservation, List<Reservation> accepted);
+  }
+
+  private record PendingBooking(
+      Reservation reservation,
+      BatchValidation validate,
+      UnaryOperator<Reservation> save,
+      Consumer<Reservation> committed,
+      CompletableFuture<Reservation> result) {}
+}
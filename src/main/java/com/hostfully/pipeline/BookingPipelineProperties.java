@@ -0,0 +1,13 @@
+package com.hostfully.pipeline;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param queueCapacity bookings waiting for the writer before new ones are rejected
+ * @param batchSize most bookings committed in one transaction
+ * @param linger how long the writer waits for a batch to fill once the first booking arrived
+ */
+@ConfigurationProperties(prefix = "hostfully.booking-pipeline")
+public record BookingPipelineProperties(
+    boolean enabled, int queueCapacity, int batchSize, Duration linger) {}
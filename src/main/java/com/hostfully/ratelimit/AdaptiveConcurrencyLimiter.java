@@ -0,0 +1,69 @@
+package com.hostfully.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the number of requests in flight with an additive-increase / multiplicative-decrease
+ * limit: every request answered under the latency threshold grows the limit a little, a slow one
+ * cuts it by 10%, so the service sheds load before the connection pool is exhausted. Requests that
+ * were already in flight when the limit was cut saw the same overload, so only a slow request
+ * started after the last cut cuts it again.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+  private final RateLimitProperties.Concurrency config;
+  private final long latencyThresholdNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private double limit;
+  private long lastDecreaseNanos;
+
+  public AdaptiveConcurrencyLimiter(RateLimitProperties properties, RateLimitMetrics metrics) {
+    this.config = properties.concurrency();
+    this.latencyThresholdNanos = config.latencyThreshold().toNanos();
+    this.limit = config.initialLimit();
+    this.lastDecreaseNanos = System.nanoTime();
+    metrics.gauge(
+        "hostfully.requests.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit);
+    metrics.gauge("hostfully.requests.in-flight", inFlight, AtomicInteger::get);
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= getLimit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Frees the slot of a request that was answered, adjusting the limit by its latency. */
+  public void release(long startNanos) {
+    inFlight.decrementAndGet();
+    long now = System.nanoTime();
+    long latency = now - startNanos;
+    synchronized (this) {
+      if (latency > latencyThresholdNanos) {
+        if (startNanos - lastDecreaseNanos > 0) {
+          limit = Math.max(config.minLimit(), limit * 0.9);
+          lastDecreaseNanos = now;
+        }
+      } else {
+        limit = Math.min(config.maxLimit(), limit + 1 / limit);
+      }
+    }
+  }
+
+  /** Frees the slot of a request that was turned away before it ran, leaving the limit alone. */
+  public void cancel() {
+    inFlight.decrementAndGet();
+  }
+
+  public synchronized double getLimit() {
+    return limit;
+  }
+}
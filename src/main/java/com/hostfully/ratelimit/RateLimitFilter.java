@@ -0,0 +1,124 @@
+package com.hostfully.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission control in front of every controller: the adaptive concurrency limit, followed by a
+ * token bucket per API client. Clients are told apart by their authenticated principal or else by
+ * their remote address, never by anything they can put in a header themselves. A request turned
+ * away by the concurrency limit does not spend its client's token. Requests for a single property
+ * are limited further down, in the services.
+ */
+@Component
+@AllArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private final RateLimitProperties properties;
+  private final RateLimiter rateLimiter;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final RateLimitMetrics metrics;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!properties.enabled()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    if (!concurrencyLimiter.tryAcquire()) {
+      metrics.rejected("concurrency");
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Service is overloaded, try again later");
+      return;
+    }
+    if (!rateLimiter.tryAcquireClient(client(request))) {
+      concurrencyLimiter.cancel();
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests for this client");
+      return;
+    }
+
+    metrics.admitted();
+    long start = System.nanoTime();
+    boolean async = false;
+    try {
+      filterChain.doFilter(request, response);
+      async = request.isAsyncStarted();
+    } finally {
+      if (async) {
+        // Streamed responses are still being written, the slot is freed once they are done
+        request.getAsyncContext().addListener(new ReleaseListener(start));
+      } else {
+        concurrencyLimiter.release(start);
+      }
+    }
+  }
+
+  private static String client(HttpServletRequest request) {
+    Principal principal = request.getUserPrincipal();
+    return principal != null ? principal.getName() : request.getRemoteAddr();
+  }
+
+  private void reject(HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDto(message, null));
+  }
+
+  /** Releases the slot of an asynchronous request once, whichever way it ends. */
+  private class ReleaseListener implements AsyncListener {
+
+    private final long start;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ReleaseListener(long start) {
+      this.start = start;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Registered again by the container when the request goes async once more
+      event.getAsyncContext().addListener(this);
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        concurrencyLimiter.release(start);
+      }
+    }
+  }
+}
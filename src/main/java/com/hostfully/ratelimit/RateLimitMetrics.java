@@ -0,0 +1,36 @@
+package com.hostfully.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RateLimitMetrics {
+
+  private final MeterRegistry registry;
+  private final Counter admitted;
+  private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+  public RateLimitMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.admitted = registry.counter("hostfully.requests.admitted");
+  }
+
+  public void admitted() {
+    admitted.increment();
+  }
+
+  public void rejected(String reason) {
+    rejected
+        .computeIfAbsent(
+            reason, r -> registry.counter("hostfully.requests.rejected", "reason", r))
+        .increment();
+  }
+
+  <T> void gauge(String name, T target, ToDoubleFunction<T> value) {
+    registry.gauge(name, target, value);
+  }
+}
@@ -0,0 +1,14 @@
+package com.hostfully.ratelimit;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "hostfully.rate-limit")
+public record RateLimitProperties(
+    boolean enabled, Bucket client, Bucket property, Concurrency concurrency) {
+
+  public record Bucket(long capacity, double refillPerSecond) {}
+
+  public record Concurrency(
+      int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {}
+}
@@ -0,0 +1,55 @@
+package com.hostfully.ratelimit;
+
+import com.hostfully.exception.RateLimitExceededException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/** Token buckets per API client and per property, created on first use. */
+@Component
+public class RateLimiter {
+
+  private static final int MAX_TRACKED_KEYS = 100_000;
+
+  private final RateLimitProperties properties;
+  private final RateLimitMetrics metrics;
+  private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+  private final Map<String, TokenBucket> propertyBuckets = new ConcurrentHashMap<>();
+
+  public RateLimiter(RateLimitProperties properties, RateLimitMetrics metrics) {
+    this.properties = properties;
+    this.metrics = metrics;
+  }
+
+  public boolean tryAcquireClient(String client) {
+    if (!properties.enabled()) {
+      return true;
+    }
+    boolean acquired = acquire(clientBuckets, client, properties.client());
+    if (!acquired) {
+      metrics.rejected("client");
+    }
+    return acquired;
+  }
+
+  public void acquireProperty(String propertyId) {
+    if (!properties.enabled() || propertyId == null) {
+      return;
+    }
+    if (!acquire(propertyBuckets, propertyId, properties.property())) {
+      metrics.rejected("property");
+      throw new RateLimitExceededException("Too many requests for property " + propertyId);
+    }
+  }
+
+  private boolean acquire(
+      Map<String, TokenBucket> buckets, String key, RateLimitProperties.Bucket config) {
+    if (buckets.size() > MAX_TRACKED_KEYS) {
+      // Idle buckets are full again, dropping them loses nothing
+      buckets.values().removeIf(TokenBucket::isFull);
+    }
+    return buckets
+        .computeIfAbsent(key, k -> new TokenBucket(config.capacity(), config.refillPerSecond()))
+        .tryAcquire();
+  }
+}
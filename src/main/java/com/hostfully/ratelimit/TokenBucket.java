@@ -0,0 +1,37 @@
+package com.hostfully.ratelimit;
+
+/** Classic token bucket, refilled lazily from the elapsed time whenever a token is requested. */
+class TokenBucket {
+
+  private final long capacity;
+  private final double tokensPerNano;
+  private double tokens;
+  private long lastRefill;
+
+  TokenBucket(long capacity, double refillPerSecond) {
+    this.capacity = capacity;
+    this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+    this.tokens = capacity;
+    this.lastRefill = System.nanoTime();
+  }
+
+  synchronized boolean tryAcquire() {
+    refill();
+    if (tokens < 1) {
+      return false;
+    }
+    tokens--;
+    return true;
+  }
+
+  synchronized boolean isFull() {
+    refill();
+    return tokens >= capacity;
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+  }
+}
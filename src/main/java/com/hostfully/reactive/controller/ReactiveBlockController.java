@@ -0,0 +1,49 @@
+package com.hostfully.reactive.controller;
+
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.reactive.service.ReactiveBlockService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/block")
+@AllArgsConstructor
+public class ReactiveBlockController {
+
+  private final ReactiveBlockService blockService;
+
+  @GetMapping("/{blockId}")
+  public Mono<BlockDto> findById(@PathVariable String blockId) {
+    return blockService.findById(blockId);
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<BlockDto> create(@RequestBody PersistBlockDto request) {
+    return blockService.create(request);
+  }
+
+  @PutMapping("/{blockId}")
+  public Mono<BlockDto> update(@PathVariable String blockId, @RequestBody PersistBlockDto request) {
+    return blockService.update(blockId, request);
+  }
+
+  @DeleteMapping("/{blockId}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> delete(@PathVariable String blockId) {
+    return blockService.delete(blockId);
+  }
+}
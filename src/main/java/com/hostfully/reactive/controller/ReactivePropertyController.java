@@ -0,0 +1,157 @@
+package com.hostfully.reactive.controller;
+
+import com.hostfully.controller.dtos.AvailableWindowDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.reactive.mapper.BookingRowMapper;
+import com.hostfully.reactive.model.BlockRow;
+import com.hostfully.reactive.model.PropertyRow;
+import com.hostfully.reactive.model.ReservationRow;
+import com.hostfully.reactive.repository.ReactiveBlockRepository;
+import com.hostfully.reactive.repository.ReactivePropertyRepository;
+import com.hostfully.reactive.repository.ReactiveReservationRepository;
+import com.hostfully.service.AvailabilityService;
+import com.hostfully.service.PropertyService;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Property endpoints for the reactive stack. The listing is read through R2DBC so it streams with
+ * backpressure, the rest is rare enough to stay on {@link PropertyService} and {@link
+ * AvailabilityService}, run off the event loop.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/property")
+@AllArgsConstructor
+public class ReactivePropertyController {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final PropertyService propertyService;
+  private final ReactivePropertyRepository propertyRepository;
+  private final ReactiveReservationRepository reservationRepository;
+  private final ReactiveBlockRepository blockRepository;
+  private final BookingRowMapper bookingRowMapper;
+  private final AvailabilityService availabilityService;
+
+  /**
+   * Properties are emitted a batch at a time as the client consumes them: concatMap only requests
+   * the next rows once the response has room for them, so a slow client never makes the whole
+   * table pile up in memory. The bookings of a batch are read with one query per table.
+   */
+  @GetMapping
+  public Flux<PropertyDto> findAll() {
+    return propertyRepository
+        .findAll()
+        .buffer(BATCH_SIZE)
+        .concatMap(
+            properties -> {
+              List<String> ids = properties.stream().map(PropertyRow::getId).toList();
+              return Mono.zip(
+                      blockRepository
+                          .findByPropertyIdIn(ids)
+                          .collectMultimap(BlockRow::getPropertyId, bookingRowMapper::map),
+                      reservationRepository
+                          .findByPropertyIdIn(ids)
+                          .collectMultimap(ReservationRow::getPropertyId, bookingRowMapper::map))
+                  .flatMapIterable(
+                      bookings ->
+                          properties.stream()
+                              .map(
+                                  property ->
+                                      bookingRowMapper.map(
+                                          property,
+                                          bookingsOf(bookings.getT1(), property),
+                                          bookingsOf(bookings.getT2(), property)))
+                              .toList());
+            });
+  }
+
+  @GetMapping("/{propertyId}")
+  public Mono<PropertyDto> findById(@PathVariable String propertyId) {
+    return blocking(() -> propertyService.findById(propertyId));
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<PropertyDto> create(@RequestBody PersistPropertyDto request) {
+    return blocking(() -> propertyService.create(request));
+  }
+
+  @PutMapping("/{propertyId}")
+  public Mono<PropertyDto> update(
+      @PathVariable String propertyId, @RequestBody PersistPropertyDto request) {
+    return blocking(() -> propertyService.update(propertyId, request));
+  }
+
+  @GetMapping("/{propertyId}/next-available")
+  public Mono<AvailableWindowDto> nextAvailable(
+      @PathVariable String propertyId,
+      @RequestParam int nights,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from) {
+    LocalDate start = from == null ? LocalDate.now() : from;
+    return blocking(() -> availabilityService.nextAvailable(propertyId, nights, start));
+  }
+
+  @GetMapping("/next-available")
+  public Mono<List<AvailableWindowDto>> nextAvailable(
+      @RequestParam List<String> ids,
+      @RequestParam int nights,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from) {
+    LocalDate start = from == null ? LocalDate.now() : from;
+    return blocking(() -> availabilityService.nextAvailable(ids, nights, start));
+  }
+
+  @DeleteMapping("/{propertyId}")
+  public Mono<ResponseEntity<PropertyDeletionDto>> delete(@PathVariable String propertyId) {
+    return blocking(
+        () ->
+            propertyService
+                .delete(propertyId)
+                .map(
+                    deletion ->
+                        ResponseEntity.accepted()
+                            .location(URI.create("/property/deletions/" + deletion.id()))
+                            .body(deletion))
+                .orElseGet(() -> ResponseEntity.noContent().build()));
+  }
+
+  @GetMapping("/deletions/{deletionId}")
+  public Mono<PropertyDeletionDto> findDeletion(@PathVariable String deletionId) {
+    return blocking(() -> propertyService.findDeletion(deletionId));
+  }
+
+  private static <T> List<T> bookingsOf(Map<String, Collection<T>> bookings, PropertyRow property) {
+    return List.copyOf(bookings.getOrDefault(property.getId(), List.of()));
+  }
+
+  private static <T> Mono<T> blocking(Callable<T> call) {
+    return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+  }
+}
@@ -0,0 +1,55 @@
+package com.hostfully.reactive.controller;
+
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.reactive.service.ReactiveReservationService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/reservation")
+@AllArgsConstructor
+public class ReactiveReservationController {
+
+  private final ReactiveReservationService reservationService;
+
+  @GetMapping("/{reservationId}")
+  public Mono<ReservationDto> findById(@PathVariable String reservationId) {
+    return reservationService.findById(reservationId);
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<ReservationDto> create(@RequestBody PersistReservationDto request) {
+    return reservationService.create(request);
+  }
+
+  @PutMapping("/{reservationId}")
+  public Mono<ReservationDto> update(
+      @PathVariable String reservationId, @RequestBody PersistReservationDto request) {
+    return reservationService.update(reservationId, request);
+  }
+
+  @PutMapping("/{reservationId}/cancel")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> cancel(@PathVariable String reservationId) {
+    return reservationService.cancel(reservationId);
+  }
+
+  @PutMapping("/{reservationId}/rebook")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> rebook(@PathVariable String reservationId) {
+    return reservationService.rebook(reservationId);
+  }
+}
@@ -0,0 +1,59 @@
+package com.hostfully.reactive.mapper;
+
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.model.Block;
+import com.hostfully.model.Reservation;
+import com.hostfully.reactive.model.BlockRow;
+import com.hostfully.reactive.model.PropertyRow;
+import com.hostfully.reactive.model.ReservationRow;
+import java.util.List;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(componentModel = "spring")
+public interface BookingRowMapper {
+
+  @Mapping(target = "status", expression = "java(status(reservation))")
+  ReservationDto map(ReservationRow reservation);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "status", ignore = true)
+  @Mapping(target = "newRow", ignore = true)
+  ReservationRow map(PersistReservationDto reservation);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "propertyId", ignore = true)
+  @Mapping(target = "status", ignore = true)
+  @Mapping(target = "newRow", ignore = true)
+  void update(PersistReservationDto reservationDto, @MappingTarget ReservationRow reservation);
+
+  BlockDto map(BlockRow block);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "newRow", ignore = true)
+  BlockRow map(PersistBlockDto block);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "propertyId", ignore = true)
+  @Mapping(target = "newRow", ignore = true)
+  void update(PersistBlockDto blockDto, @MappingTarget BlockRow block);
+
+  PropertyDto map(PropertyRow property, List<BlockDto> blocks, List<ReservationDto> reservations);
+
+  /** Overlap exceptions are built from entities, so rejected rows are reported through them. */
+  @Mapping(target = "property", ignore = true)
+  @Mapping(target = "status", ignore = true)
+  Reservation toEntity(ReservationRow reservation);
+
+  @Mapping(target = "property", ignore = true)
+  Block toEntity(BlockRow block);
+
+  default String status(ReservationRow reservation) {
+    return Reservation.ReservationStatus.values()[reservation.getStatus()].name();
+  }
+}
@@ -0,0 +1,35 @@
+package com.hostfully.reactive.model;
+
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** Block as stored in its table, read and written through R2DBC. */
+@Table("block")
+@NoArgsConstructor
+@Getter
+@Setter
+public class BlockRow implements Persistable<String> {
+
+  @Id private String id;
+
+  @Column("property_id")
+  private String propertyId;
+
+  private LocalDate start;
+
+  private LocalDate finish;
+
+  @Transient private boolean newRow;
+
+  @Override
+  public boolean isNew() {
+    return newRow;
+  }
+}
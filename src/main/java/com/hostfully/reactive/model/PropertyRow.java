@@ -0,0 +1,20 @@
+package com.hostfully.reactive.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("property")
+@NoArgsConstructor
+@Getter
+@Setter
+public class PropertyRow {
+
+  @Id private String id;
+
+  private String name;
+
+  private int units;
+}
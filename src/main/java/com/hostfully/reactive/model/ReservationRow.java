@@ -0,0 +1,41 @@
+package com.hostfully.reactive.model;
+
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** Reservation as stored in its table, read and written through R2DBC. */
+@Table("reservation")
+@NoArgsConstructor
+@Getter
+@Setter
+public class ReservationRow implements Persistable<String> {
+
+  @Id private String id;
+
+  @Column("property_id")
+  private String propertyId;
+
+  private LocalDate start;
+
+  private LocalDate finish;
+
+  @Column("guest_name")
+  private String guestName;
+
+  /** Ordinal of {@link com.hostfully.model.Reservation.ReservationStatus}. */
+  private int status;
+
+  @Transient private boolean newRow;
+
+  @Override
+  public boolean isNew() {
+    return newRow;
+  }
+}
@@ -0,0 +1,28 @@
+package com.hostfully.reactive.repository;
+
+import com.hostfully.reactive.model.BlockRow;
+import java.time.LocalDate;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveBlockRepository extends ReactiveCrudRepository<BlockRow, String> {
+
+  @Query(
+      "SELECT * FROM block "
+          + "WHERE property_id = :propertyId "
+          + "AND start <= :endDate "
+          + "AND finish >= :startDate")
+  Flux<BlockRow> findByPropertyIdAndDateRange(
+      @Param("propertyId") String propertyId,
+      @Param("startDate") LocalDate start,
+      @Param("endDate") LocalDate finish);
+
+  Flux<BlockRow> findByPropertyId(String propertyId);
+
+  Flux<BlockRow> findByPropertyIdIn(Collection<String> propertyIds);
+}
@@ -0,0 +1,8 @@
+package com.hostfully.reactive.repository;
+
+import com.hostfully.reactive.model.PropertyRow;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactivePropertyRepository extends ReactiveCrudRepository<PropertyRow, String> {}
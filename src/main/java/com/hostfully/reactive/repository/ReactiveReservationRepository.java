@@ -0,0 +1,30 @@
+package com.hostfully.reactive.repository;
+
+import com.hostfully.reactive.model.ReservationRow;
+import java.time.LocalDate;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveReservationRepository
+    extends ReactiveCrudRepository<ReservationRow, String> {
+
+  @Query(
+      "SELECT * FROM reservation "
+          + "WHERE property_id = :propertyId "
+          + "AND status = 0 "
+          + "AND start <= :endDate "
+          + "AND finish >= :startDate")
+  Flux<ReservationRow> findByPropertyIdAndDateRange(
+      @Param("propertyId") String propertyId,
+      @Param("startDate") LocalDate start,
+      @Param("endDate") LocalDate finish);
+
+  Flux<ReservationRow> findByPropertyId(String propertyId);
+
+  Flux<ReservationRow> findByPropertyIdIn(Collection<String> propertyIds);
+}
@@ -0,0 +1,207 @@
+package com.hostfully.reactive.service;
+
+import com.hostfully.availability.AvailabilityIndex;
+import com.hostfully.capacity.CapacityIndex;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.exception.BlockNotFoundException;
+import com.hostfully.exception.OverlappingBlocksException;
+import com.hostfully.exception.OverlappingReservationsException;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.hold.HoldStore;
+import com.hostfully.lock.PropertyLocks;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.ratelimit.RateLimiter;
+import com.hostfully.reactive.mapper.BookingRowMapper;
+import com.hostfully.reactive.model.BlockRow;
+import com.hostfully.reactive.repository.ReactiveBlockRepository;
+import com.hostfully.reactive.repository.ReactiveReservationRepository;
+import com.hostfully.registry.PropertyRegistry;
+import com.hostfully.repository.ExclusionConstraints;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link com.hostfully.service.BlockService}, writing under the same
+ * per-property lock and keeping the same in-memory indexes current.
+ */
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveBlockService {
+
+  private final ReactiveBlockRepository blockRepository;
+  private final ReactiveReservationRepository reservationRepository;
+  private final BookingRowMapper bookingRowMapper;
+  private final RateLimiter rateLimiter;
+  private final HoldStore holdStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CapacityIndex capacityIndex;
+  private final AvailabilityIndex availabilityIndex;
+  private final PropertyRegistry propertyRegistry;
+  private final PropertyLocks propertyLocks;
+
+  public Mono<BlockDto> create(@Valid PersistBlockDto blockDto) {
+    return Mono.fromRunnable(
+            () -> {
+              // Before the rate limiter, which would otherwise keep a bucket for every unknown id
+              propertyRegistry.check(blockDto.propertyId());
+              rateLimiter.acquireProperty(blockDto.propertyId());
+            })
+        .then(
+            Mono.defer(
+                () -> {
+                  BlockRow toBePersisted = bookingRowMapper.map(blockDto);
+                  toBePersisted.setId(UUID.randomUUID().toString());
+                  toBePersisted.setNewRow(true);
+                  return serialized(
+                      toBePersisted.getPropertyId(),
+                      () -> validate(toBePersisted).then(save(toBePersisted, null)));
+                }))
+        .map(bookingRowMapper::map);
+  }
+
+  public Mono<BlockDto> findById(String blockId) {
+    return findExisting(blockId).map(bookingRowMapper::map);
+  }
+
+  public Mono<BlockDto> update(String blockId, PersistBlockDto blockDto) {
+    return findExisting(blockId)
+        .flatMap(
+            found ->
+                serialized(
+                    found.getPropertyId(),
+                    // Read again under the lock, the nights given back must be the stored ones
+                    () ->
+                        findExisting(blockId)
+                            .flatMap(
+                                existingBlock -> {
+                                  BookingInterval previous = interval(existingBlock);
+                                  bookingRowMapper.update(blockDto, existingBlock);
+                                  return validate(existingBlock)
+                                      .then(save(existingBlock, previous));
+                                })))
+        .map(bookingRowMapper::map);
+  }
+
+  public Mono<Void> delete(String blockId) {
+    return blockRepository
+        .findById(blockId)
+        .flatMap(
+            found ->
+                serialized(
+                    found.getPropertyId(),
+                    () -> blockRepository.findById(blockId).flatMap(this::deleteExisting)));
+  }
+
+  private Mono<Void> deleteExisting(BlockRow block) {
+    return track(block)
+        .then(blockRepository.delete(block))
+        .doOnSuccess(
+            deleted -> {
+              capacityIndex.replaceBlock(interval(block), null);
+              availabilityIndex.replaceBlock(interval(block), null);
+              eventPublisher.publishEvent(new BookingChangedEvent(block.getPropertyId()));
+            });
+  }
+
+  /**
+   * Runs the write holding the property's lock, the one the servlet services take, so that no
+   * other write of the property lands between its checks and its save. The lock belongs to a
+   * thread, so the write waits for its result on a bounded elastic worker.
+   */
+  private <T> Mono<T> serialized(String propertyId, Supplier<Mono<T>> write) {
+    return Mono.fromCallable(() -> propertyLocks.serialized(propertyId, () -> write.get().block()))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private Mono<BlockRow> findExisting(String blockId) {
+    return blockRepository
+        .findById(blockId)
+        .switchIfEmpty(Mono.error(() -> new BlockNotFoundException(blockId)));
+  }
+
+  /**
+   * @param previous the nights the block took before this change
+   */
+  private Mono<BlockRow> save(BlockRow block, BookingInterval previous) {
+    return blockRepository
+        .save(block)
+        .doOnNext(
+            saved -> {
+              capacityIndex.replaceBlock(previous, interval(saved));
+              availabilityIndex.replaceBlock(previous, interval(saved));
+              eventPublisher.publishEvent(new BookingChangedEvent(saved.getPropertyId()));
+            })
+        .onErrorResume(
+            DataIntegrityViolationException.class,
+            e -> {
+              if (ExclusionConstraints.isViolatedBy(e)) {
+                // A concurrent block won the race and the database rejected ours, report that block
+                return validate(block).then(Mono.error(e));
+              }
+              return Mono.error(new PropertyNotFoundException(block.getPropertyId()));
+            });
+  }
+
+  private Mono<Void> validate(BlockRow block) {
+    if (block.getStart().isAfter(block.getFinish())) {
+      return Mono.error(new IllegalArgumentException("Start cannot be after the finish"));
+    }
+
+    Mono<Void> reservations =
+        reservationRepository
+            .findByPropertyIdAndDateRange(
+                block.getPropertyId(), block.getStart(), block.getFinish())
+            .map(bookingRowMapper::toEntity)
+            .collectList()
+            .flatMap(
+                overlapping ->
+                    overlapping.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new OverlappingReservationsException(overlapping)));
+
+    Mono<Void> blocks =
+        blockRepository
+            .findByPropertyIdAndDateRange(
+                block.getPropertyId(), block.getStart(), block.getFinish())
+            .filter(b -> !b.getId().equals(block.getId()))
+            .map(bookingRowMapper::toEntity)
+            .collectList()
+            .flatMap(
+                overlapping ->
+                    overlapping.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new OverlappingBlocksException(overlapping)));
+
+    Mono<Void> holds =
+        Mono.fromRunnable(
+            () ->
+                holdStore.checkNoOverlap(
+                    block.getPropertyId(), block.getStart(), block.getFinish()));
+
+    // Blocks close every unit, so the overlap checks are the same whatever the units, but a
+    // multi-unit property's index has to be loaded before the block is written
+    return track(block).then(reservations).then(blocks).then(holds);
+  }
+
+  private Mono<Void> track(BlockRow block) {
+    return Mono.fromCallable(() -> capacityIndex.track(block.getPropertyId()))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+
+  private static BookingInterval interval(BlockRow block) {
+    return new BookingInterval(
+        block.getId(), block.getPropertyId(), block.getStart(), block.getFinish());
+  }
+}
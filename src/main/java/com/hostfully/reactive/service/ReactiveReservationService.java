@@ -0,0 +1,295 @@
+package com.hostfully.reactive.service;
+
+import com.hostfully.availability.AvailabilityIndex;
+import com.hostfully.capacity.CapacityIndex;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.exception.OverlappingBlocksException;
+import com.hostfully.exception.OverlappingReservationsException;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.exception.ReservationNotFoundException;
+import com.hostfully.hold.HoldStore;
+import com.hostfully.lock.PropertyLocks;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.Reservation;
+import com.hostfully.ratelimit.RateLimiter;
+import com.hostfully.reactive.mapper.BookingRowMapper;
+import com.hostfully.reactive.model.ReservationRow;
+import com.hostfully.reactive.repository.ReactiveBlockRepository;
+import com.hostfully.reactive.repository.ReactiveReservationRepository;
+import com.hostfully.registry.PropertyRegistry;
+import com.hostfully.repository.ExclusionConstraints;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link com.hostfully.service.ReservationService}, with the same
+ * registry, capacity and overlap checks, the same per-property lock and the same in-memory
+ * indexes kept current. Loading a property into the capacity index still goes through JPA, so it
+ * runs off the event loop.
+ */
+@Validated
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveReservationService {
+
+  private final ReactiveReservationRepository reservationRepository;
+  private final ReactiveBlockRepository blockRepository;
+  private final BookingRowMapper bookingRowMapper;
+  private final RateLimiter rateLimiter;
+  private final HoldStore holdStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CapacityIndex capacityIndex;
+  private final AvailabilityIndex availabilityIndex;
+  private final PropertyRegistry propertyRegistry;
+  private final PropertyLocks propertyLocks;
+
+  public Mono<ReservationDto> create(@Valid PersistReservationDto reservationDto) {
+    return Mono.fromRunnable(
+            () -> {
+              // Before the rate limiter, which would otherwise keep a bucket for every unknown id
+              propertyRegistry.check(reservationDto.propertyId());
+              rateLimiter.acquireProperty(reservationDto.propertyId());
+            })
+        .then(
+            Mono.defer(
+                () -> {
+                  ReservationRow toBePersisted = bookingRowMapper.map(reservationDto);
+                  toBePersisted.setId(UUID.randomUUID().toString());
+                  toBePersisted.setStatus(Reservation.ReservationStatus.ACTIVE.ordinal());
+                  toBePersisted.setNewRow(true);
+                  return serialized(
+                      toBePersisted.getPropertyId(),
+                      () -> validate(toBePersisted, null).then(save(toBePersisted, null)));
+                }))
+        .map(bookingRowMapper::map);
+  }
+
+  public Mono<ReservationDto> findById(String reservationId) {
+    return findExisting(reservationId).map(bookingRowMapper::map);
+  }
+
+  public Mono<ReservationDto> update(
+      String reservationId, @Valid PersistReservationDto reservationDto) {
+    return serializedChange(
+            reservationId,
+            existingReservation -> {
+              BookingInterval previous = occupied(existingReservation);
+              bookingRowMapper.update(reservationDto, existingReservation);
+              return validate(existingReservation, previous)
+                  .then(save(existingReservation, previous));
+            })
+        .map(bookingRowMapper::map);
+  }
+
+  public Mono<Void> cancel(String reservationId) {
+    return changeStatus(reservationId, Reservation.ReservationStatus.CANCELLED);
+  }
+
+  public Mono<Void> rebook(String reservationId) {
+    return changeStatus(reservationId, Reservation.ReservationStatus.ACTIVE);
+  }
+
+  private Mono<Void> changeStatus(String reservationId, Reservation.ReservationStatus status) {
+    return serializedChange(
+            reservationId,
+            existingReservation -> {
+              BookingInterval previous = occupied(existingReservation);
+              existingReservation.setStatus(status.ordinal());
+              return validate(existingReservation, previous)
+                  .then(save(existingReservation, previous));
+            })
+        .then();
+  }
+
+  /**
+   * Changes the reservation under its property's lock, reading it again once the lock is held so
+   * that the nights it gives back are those of the stored version.
+   */
+  private Mono<ReservationRow> serializedChange(
+      String reservationId, Function<ReservationRow, Mono<ReservationRow>> change) {
+    return findExisting(reservationId)
+        .flatMap(
+            found ->
+                serialized(
+                    found.getPropertyId(), () -> findExisting(reservationId).flatMap(change)));
+  }
+
+  /**
+   * Runs the write holding the property's lock, the one the servlet services take, so that no
+   * other write of the property lands between its checks and its save. The lock belongs to a
+   * thread, so the write waits for its result on a bounded elastic worker.
+   */
+  private <T> Mono<T> serialized(String propertyId, Supplier<Mono<T>> write) {
+    return blocking(() -> propertyLocks.serialized(propertyId, () -> write.get().block()));
+  }
+
+  private Mono<ReservationRow> findExisting(String reservationId) {
+    return reservationRepository
+        .findById(reservationId)
+        .switchIfEmpty(Mono.error(() -> new ReservationNotFoundException(reservationId)));
+  }
+
+  /**
+   * @param previous the nights the reservation took before this change
+   */
+  private Mono<ReservationRow> save(ReservationRow reservation, BookingInterval previous) {
+    return reservationRepository
+        .save(reservation)
+        .doOnNext(
+            saved -> {
+              capacityIndex.replace(previous, occupied(saved));
+              availabilityIndex.replace(previous, occupied(saved));
+              eventPublisher.publishEvent(new BookingChangedEvent(saved.getPropertyId()));
+            })
+        .onErrorResume(
+            DataIntegrityViolationException.class,
+            e -> {
+              if (ExclusionConstraints.isViolatedBy(e)) {
+                // A concurrent booking won the race and the database rejected ours, report it
+                return checkBookings(reservation).then(Mono.error(e));
+              }
+              return Mono.error(new PropertyNotFoundException(reservation.getPropertyId()));
+            });
+  }
+
+  /**
+   * @param previous the nights the reservation took before this change, which it may keep
+   */
+  private Mono<Void> validate(ReservationRow reservation, BookingInterval previous) {
+    if (reservation.getStart() != null
+        && reservation.getFinish() != null
+        && reservation.getStart().isAfter(reservation.getFinish())) {
+      return Mono.error(new IllegalArgumentException("Start cannot be after the finish"));
+    }
+
+    Mono<Void> bookings =
+        blocking(() -> capacityIndex.track(reservation.getPropertyId()))
+            .flatMap(
+                units ->
+                    units > 1
+                        ? checkCapacity(reservation, previous, units)
+                        : checkBookings(reservation));
+
+    Mono<Void> holds =
+        Mono.fromRunnable(
+            () ->
+                holdStore.checkNoOverlap(
+                    reservation.getPropertyId(), reservation.getStart(), reservation.getFinish()));
+
+    return bookings.then(holds);
+  }
+
+  /**
+   * A property with several units takes a reservation as long as fewer reservations than units
+   * share each of its nights and no block closes any of them.
+   */
+  private Mono<Void> checkCapacity(
+      ReservationRow reservation, BookingInterval previous, int units) {
+    if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE.ordinal()) {
+      return Mono.empty();
+    }
+    int taken =
+        capacityIndex.maxTaken(
+            reservation.getPropertyId(),
+            reservation.getStart(),
+            reservation.getFinish(),
+            previous);
+    if (taken != CapacityIndex.UNKNOWN && taken < units) {
+      return Mono.empty();
+    }
+
+    Mono<Void> blocks =
+        blockRepository
+            .findByPropertyIdAndDateRange(
+                reservation.getPropertyId(), reservation.getStart(), reservation.getFinish())
+            .map(bookingRowMapper::toEntity)
+            .collectList()
+            .flatMap(
+                overlapping ->
+                    overlapping.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new OverlappingBlocksException(overlapping)));
+
+    Mono<Void> reservations =
+        reservationRepository
+            .findByPropertyIdAndDateRange(
+                reservation.getPropertyId(), reservation.getStart(), reservation.getFinish())
+            .filter(r -> !r.getId().equals(reservation.getId()))
+            .collectList()
+            .flatMap(
+                overlapping -> {
+                  int concurrent =
+                      CapacityIndex.maxConcurrent(
+                          overlapping.stream().map(ReactiveReservationService::occupied).toList(),
+                          reservation.getStart(),
+                          reservation.getFinish());
+                  if (concurrent < units) {
+                    return Mono.<Void>empty();
+                  }
+                  return Mono.error(
+                      new OverlappingReservationsException(
+                          overlapping.stream().map(bookingRowMapper::toEntity).toList()));
+                });
+
+    return blocks.then(reservations);
+  }
+
+  private Mono<Void> checkBookings(ReservationRow reservation) {
+    Mono<Void> reservations =
+        reservationRepository
+            .findByPropertyIdAndDateRange(
+                reservation.getPropertyId(), reservation.getStart(), reservation.getFinish())
+            .filter(r -> !r.getId().equals(reservation.getId()))
+            .map(bookingRowMapper::toEntity)
+            .collectList()
+            .flatMap(
+                overlapping ->
+                    overlapping.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new OverlappingReservationsException(overlapping)));
+
+    Mono<Void> blocks =
+        blockRepository
+            .findByPropertyIdAndDateRange(
+                reservation.getPropertyId(), reservation.getStart(), reservation.getFinish())
+            .filter(b -> !b.getId().equals(reservation.getId()))
+            .map(bookingRowMapper::toEntity)
+            .collectList()
+            .flatMap(
+                overlapping ->
+                    overlapping.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new OverlappingBlocksException(overlapping)));
+
+    return reservations.then(blocks);
+  }
+
+  private static BookingInterval occupied(ReservationRow reservation) {
+    if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE.ordinal()) {
+      return null;
+    }
+    return new BookingInterval(
+        reservation.getId(),
+        reservation.getPropertyId(),
+        reservation.getStart(),
+        reservation.getFinish());
+  }
+
+  private static <T> Mono<T> blocking(Callable<T> call) {
+    return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+  }
+}
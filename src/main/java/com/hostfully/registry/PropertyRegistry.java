@@ -0,0 +1,86 @@
+package com.hostfully.registry;
+
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.repository.PropertyRepository;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ids of every property, so that a request naming a property that does not exist is turned
+ * away before any query runs, instead of after the overlap queries and a failed insert.
+ *
+ * <p>Loaded from the database once the application is ready and kept current by {@code
+ * PropertyService}; until then every lookup goes to the database. Like the occupancy store, it
+ * assumes this instance is the only one writing properties.
+ */
+@Slf4j
+@Component
+public class PropertyRegistry {
+
+  private final PropertyRepository propertyRepository;
+  private final Set<String> ids = ConcurrentHashMap.newKeySet();
+  private final Set<String> removedWhileLoading = new HashSet<>();
+  private volatile boolean ready;
+
+  public PropertyRegistry(PropertyRepository propertyRepository) {
+    this.propertyRepository = propertyRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    long start = System.nanoTime();
+    // Properties created meanwhile are added by add, whether or not the query sees them
+    int loaded = 0;
+    for (String id : propertyRepository.findIds()) {
+      ids.add(id);
+      loaded++;
+    }
+    synchronized (removedWhileLoading) {
+      // A property deleted after the query read it must not come back
+      ids.removeAll(removedWhileLoading);
+      removedWhileLoading.clear();
+      ready = true;
+    }
+    log.info(
+        "Registered {} properties in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  public boolean exists(String propertyId) {
+    if (propertyId == null) {
+      return false;
+    }
+    if (ids.contains(propertyId)) {
+      return true;
+    }
+    return !ready && propertyRepository.existsById(propertyId);
+  }
+
+  /**
+   * @throws PropertyNotFoundException if the property does not exist
+   */
+  public void check(String propertyId) {
+    if (!exists(propertyId)) {
+      throw new PropertyNotFoundException(propertyId);
+    }
+  }
+
+  public void add(String propertyId) {
+    ids.add(propertyId);
+  }
+
+  public void remove(String propertyId) {
+    if (!ready) {
+      synchronized (removedWhileLoading) {
+        if (!ready) {
+          removedWhileLoading.add(propertyId);
+        }
+      }
+    }
+    ids.remove(propertyId);
+  }
+}
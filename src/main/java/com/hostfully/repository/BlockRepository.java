@@ -1,10 +1,18 @@
 package com.hostfully.repository;
 
 import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.PropertyNights;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,14 +22,49 @@ public interface BlockRepository extends JpaRepository<Block, String> {
   @Query(
       "SELECT b FROM Block b "
           + "WHERE b.property.id = :propertyId "
-          + "AND ( "
-          + "   :startDate BETWEEN b.start AND b.finish  OR "
-          + "   :endDate BETWEEN b.start AND b.finish OR "
-          + "   b.start BETWEEN :startDate AND :endDate  OR "
-          + "   b.finish BETWEEN :startDate AND :endDate "
-          + ")")
+          + "AND b.start <= :endDate "
+          + "AND b.finish >= :startDate")
   List<Block> findByPropertyIdAndDateRange(
       @Param("propertyId") String propertyId,
       @Param("startDate") LocalDate start,
       @Param("endDate") LocalDate finish);
+
+  /** Property of the block, read without loading the block itself. */
+  @Query("SELECT b.property.id FROM Block b WHERE b.id = :id")
+  Optional<String> findPropertyIdById(@Param("id") String id);
+
+  @Query(
+      "SELECT new com.hostfully.model.BookingInterval(b.id, b.property.id, b.start, b.finish) "
+          + "FROM Block b "
+          + "WHERE b.start <= :endDate "
+          + "AND b.finish >= :startDate")
+  List<BookingInterval> findIntervals(
+      @Param("startDate") LocalDate start, @Param("endDate") LocalDate finish);
+
+  /**
+   * Blocked nights within [start, finish] per property, both ends included, summed by the
+   * database. Ordered by property id, properties with no such nights are left out.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      "SELECT new com.hostfully.model.PropertyNights(b.property.id, "
+          + "SUM((CASE WHEN b.finish > :endDate THEN :endDate ELSE b.finish END "
+          + "- CASE WHEN b.start < :startDate THEN :startDate ELSE b.start END) BY DAY) "
+          + "+ COUNT(b)) "
+          + "FROM Block b "
+          + "WHERE b.start <= :endDate "
+          + "AND b.finish >= :startDate "
+          + "GROUP BY b.property.id "
+          + "ORDER BY b.property.id")
+  Stream<PropertyNights> streamNightsPerProperty(
+      @Param("startDate") LocalDate start, @Param("endDate") LocalDate finish);
+
+  /** Deletes up to {@code limit} blocks of the property. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM block WHERE id IN "
+              + "(SELECT id FROM block WHERE property_id = :propertyId LIMIT :limit)",
+      nativeQuery = true)
+  int deleteChunkByPropertyId(@Param("propertyId") String propertyId, @Param("limit") int limit);
 }
@@ -0,0 +1,25 @@
+package com.hostfully.repository;
+
+import java.sql.SQLException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Recognizes the overlap exclusion constraints the PostgreSQL schema puts on bookings, and the
+ * reservation capacity trigger, which reports in the same state.
+ */
+public final class ExclusionConstraints {
+
+  private static final String EXCLUSION_VIOLATION = "23P01";
+
+  private ExclusionConstraints() {}
+
+  public static boolean isViolatedBy(DataIntegrityViolationException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException
+          && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,8 +1,73 @@
 package com.hostfully.repository;
 
 import com.hostfully.model.Property;
+import com.hostfully.model.PropertySummary;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, String> {}
+public interface PropertyRepository extends JpaRepository<Property, String> {
+
+  @Query("SELECT p.id FROM Property p WHERE p.id > :after ORDER BY p.id")
+  List<String> findIdsAfter(@Param("after") String after, Limit limit);
+
+  @Query("SELECT p FROM Property p LEFT JOIN FETCH p.reservations WHERE p.id IN :ids")
+  List<Property> findWithReservations(@Param("ids") Collection<String> ids);
+
+  /**
+   * Two bags cannot be fetched in one query; run after {@link #findWithReservations} in the same
+   * persistence context, this fills in the blocks of the properties already loaded.
+   */
+  @Query("SELECT p FROM Property p LEFT JOIN FETCH p.blocks WHERE p.id IN :ids")
+  List<Property> findWithBlocks(@Param("ids") Collection<String> ids);
+
+  /** Read as the caller consumes it, which needs an open transaction. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      "SELECT new com.hostfully.model.PropertySummary(p.id, p.name, p.units) "
+          + "FROM Property p "
+          + "ORDER BY p.id")
+  Stream<PropertySummary> streamSummaries();
+
+  @Query("SELECT p.id FROM Property p")
+  List<String> findIds();
+
+  /**
+   * Ids of the {@code limit} properties with the most active reservations and blocks touching
+   * [from, to], busiest first. Counted by the database, so nothing but the ids is read.
+   */
+  @Query(
+      value =
+          "SELECT property_id FROM ("
+              + "SELECT property_id FROM reservation "
+              + "WHERE status = 0 AND start <= :to AND finish >= :from "
+              + "UNION ALL "
+              + "SELECT property_id FROM block WHERE start <= :to AND finish >= :from"
+              + ") bookings "
+              + "GROUP BY property_id "
+              + "ORDER BY COUNT(*) DESC, property_id "
+              + "LIMIT :limit",
+      nativeQuery = true)
+  List<String> findBusiestIds(
+      @Param("from") LocalDate from, @Param("to") LocalDate to, @Param("limit") int limit);
+
+  @Query("SELECT p.units FROM Property p WHERE p.id = :propertyId")
+  Optional<Integer> findUnitsById(@Param("propertyId") String propertyId);
+
+  /** Deletes the property without loading it, its bookings must be deleted first. */
+  @Modifying
+  @Query("DELETE FROM Property p WHERE p.id = :propertyId")
+  int deleteRowById(@Param("propertyId") String propertyId);
+}
@@ -1,10 +1,18 @@
 package com.hostfully.repository;
 
+import com.hostfully.model.BookingInterval;
+import com.hostfully.model.PropertyNights;
 import com.hostfully.model.Reservation;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,14 +23,51 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
       "SELECT r FROM Reservation r "
           + "WHERE r.property.id = :propertyId "
           + "AND r.status = com.hostfully.model.Reservation$ReservationStatus.ACTIVE "
-          + "AND ( "
-          + "   :startDate BETWEEN r.start AND r.finish  OR "
-          + "   :endDate BETWEEN r.start AND r.finish OR "
-          + "   r.start BETWEEN :startDate AND :endDate  OR "
-          + "   r.finish BETWEEN :startDate AND :endDate "
-          + ") ")
+          + "AND r.start <= :endDate "
+          + "AND r.finish >= :startDate")
   List<Reservation> findByPropertyIdAndDateRange(
       @Param("propertyId") String propertyId,
       @Param("startDate") LocalDate start,
       @Param("endDate") LocalDate finish);
+
+  /** Property of the reservation, read without loading the reservation itself. */
+  @Query("SELECT r.property.id FROM Reservation r WHERE r.id = :id")
+  Optional<String> findPropertyIdById(@Param("id") String id);
+
+  @Query(
+      "SELECT new com.hostfully.model.BookingInterval(r.id, r.property.id, r.start, r.finish) "
+          + "FROM Reservation r "
+          + "WHERE r.status = com.hostfully.model.Reservation$ReservationStatus.ACTIVE "
+          + "AND r.start <= :endDate "
+          + "AND r.finish >= :startDate")
+  List<BookingInterval> findActiveIntervals(
+      @Param("startDate") LocalDate start, @Param("endDate") LocalDate finish);
+
+  /**
+   * Nights of active reservations within [start, finish] per property, both ends included, summed
+   * by the database. Ordered by property id, properties with no such nights are left out.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      "SELECT new com.hostfully.model.PropertyNights(r.property.id, "
+          + "SUM((CASE WHEN r.finish > :endDate THEN :endDate ELSE r.finish END "
+          + "- CASE WHEN r.start < :startDate THEN :startDate ELSE r.start END) BY DAY) "
+          + "+ COUNT(r)) "
+          + "FROM Reservation r "
+          + "WHERE r.status = com.hostfully.model.Reservation$ReservationStatus.ACTIVE "
+          + "AND r.start <= :endDate "
+          + "AND r.finish >= :startDate "
+          + "GROUP BY r.property.id "
+          + "ORDER BY r.property.id")
+  Stream<PropertyNights> streamNightsPerProperty(
+      @Param("startDate") LocalDate start, @Param("endDate") LocalDate finish);
+
+  /** Deletes up to {@code limit} reservations of the property, whatever their status. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM reservation WHERE id IN "
+              + "(SELECT id FROM reservation WHERE property_id = :propertyId LIMIT :limit)",
+      nativeQuery = true)
+  int deleteChunkByPropertyId(@Param("propertyId") String propertyId, @Param("limit") int limit);
 }
@@ -0,0 +1,82 @@
+package com.hostfully.service;
+
+import com.hostfully.availability.AvailabilityIndex;
+import com.hostfully.capacity.CapacityIndex;
+import com.hostfully.controller.dtos.AvailableWindowDto;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.registry.PropertyRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Earliest free windows of properties. A window of n nights covers n days, start and finish
+ * included, the same way overlaps are checked, so a reservation with its dates is accepted unless
+ * another booking or a hold takes them first. Holds are left out, they expire within minutes.
+ */
+@Service
+@AllArgsConstructor
+public class AvailabilityService {
+
+  static final int MAX_NIGHTS = 365;
+  static final int MAX_PROPERTIES = 100;
+
+  private final CapacityIndex capacityIndex;
+  private final AvailabilityIndex availabilityIndex;
+  private final PropertyRegistry propertyRegistry;
+
+  public AvailableWindowDto nextAvailable(String propertyId, int nights, LocalDate from) {
+    checkSearch(nights, from);
+    AvailableWindowDto window = find(propertyId, nights, from);
+    if (window == null) {
+      throw new PropertyNotFoundException(propertyId);
+    }
+    return window;
+  }
+
+  /** The window of each property that exists, earliest first. */
+  public List<AvailableWindowDto> nextAvailable(
+      List<String> propertyIds, int nights, LocalDate from) {
+    checkSearch(nights, from);
+    if (propertyIds.size() > MAX_PROPERTIES) {
+      throw new IllegalArgumentException(
+          "Searches cover at most " + MAX_PROPERTIES + " properties");
+    }
+    List<AvailableWindowDto> windows = new ArrayList<>(propertyIds.size());
+    for (String propertyId : new LinkedHashSet<>(propertyIds)) {
+      AvailableWindowDto window = find(propertyId, nights, from);
+      if (window != null) {
+        windows.add(window);
+      }
+    }
+    windows.sort(
+        Comparator.comparing(AvailableWindowDto::start)
+            .thenComparing(AvailableWindowDto::propertyId));
+    return windows;
+  }
+
+  private AvailableWindowDto find(String propertyId, int nights, LocalDate from) {
+    if (!propertyRegistry.exists(propertyId)) {
+      return null;
+    }
+    int units = capacityIndex.units(propertyId);
+    if (units == 0) {
+      return null;
+    }
+    LocalDate start = availabilityIndex.nextAvailable(propertyId, from, nights, units);
+    return new AvailableWindowDto(propertyId, start, start.plusDays(nights - 1));
+  }
+
+  private static void checkSearch(int nights, LocalDate from) {
+    if (nights < 1 || nights > MAX_NIGHTS) {
+      throw new IllegalArgumentException("Nights must be between 1 and " + MAX_NIGHTS);
+    }
+    if (from.isBefore(LocalDate.now())) {
+      throw new IllegalArgumentException("From cannot be in the past");
+    }
+  }
+}
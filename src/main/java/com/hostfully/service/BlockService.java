@@ -1,23 +1,41 @@
 package com.hostfully.service;
 
+import com.hostfully.availability.AvailabilityIndex;
+import com.hostfully.capacity.CapacityIndex;
 import com.hostfully.controller.dtos.BlockDto;
 import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.event.BookingChangedEvent;
 import com.hostfully.exception.BlockNotFoundException;
 import com.hostfully.exception.OverlappingBlocksException;
+import com.hostfully.exception.OverlappingException;
 import com.hostfully.exception.OverlappingReservationsException;
 import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.hold.HoldStore;
+import com.hostfully.journal.BookingJournal;
+import com.hostfully.journal.JournalEntry;
+import com.hostfully.journal.JournalEntry.Command;
+import com.hostfully.lock.PropertyLocks;
 import com.hostfully.mapper.BlockMapper;
 import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
 import com.hostfully.model.Property;
 import com.hostfully.model.Reservation;
+import com.hostfully.occupancy.OccupancyStore;
+import com.hostfully.occupancy.OccupancyStore.Availability;
+import com.hostfully.ratelimit.RateLimiter;
+import com.hostfully.registry.PropertyRegistry;
 import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.ExclusionConstraints;
 import com.hostfully.repository.ReservationRepository;
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @AllArgsConstructor
@@ -26,50 +44,224 @@ public class BlockService {
   private final BlockRepository blockRepository;
   private final ReservationRepository reservationRepository;
   private final BlockMapper blockMapper;
+  private final RateLimiter rateLimiter;
+  private final HoldStore holdStore;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final OccupancyStore occupancyStore;
+  private final BookingJournal bookingJournal;
+  private final PropertyLocks propertyLocks;
+  private final CapacityIndex capacityIndex;
+  private final AvailabilityIndex availabilityIndex;
+  private final PropertyRegistry propertyRegistry;
 
   public BlockDto create(@Valid PersistBlockDto blockDto) {
+    propertyRegistry.check(blockDto.propertyId());
+    rateLimiter.acquireProperty(blockDto.propertyId());
+
     Block toBePersisted = blockMapper.map(blockDto);
     toBePersisted.setProperty(new Property(blockDto.propertyId()));
 
-    validate(toBePersisted);
+    return blockMapper.map(
+        propertyLocks.serialized(
+            blockDto.propertyId(),
+            () -> {
+              validate(toBePersisted, null);
+              return persist(toBePersisted, null, Command.CREATE_BLOCK);
+            }));
+  }
 
-    Block created;
-    try {
-      created = blockRepository.save(toBePersisted);
-    } catch (DataIntegrityViolationException e) {
-      throw new PropertyNotFoundException(blockDto.propertyId());
+  /**
+   * Creates many blocks of one property with a single batched insert. Blocks overlapping an
+   * existing booking, a hold or a block earlier in the list are skipped instead of failing the
+   * others, while any other invalid block fails them all.
+   */
+  public List<BlockDto> createAll(String propertyId, List<PersistBlockDto> blockDtos) {
+    propertyRegistry.check(propertyId);
+    rateLimiter.acquireProperty(propertyId);
+
+    return propertyLocks.serialized(propertyId, () -> createAccepted(propertyId, blockDtos));
+  }
+
+  private List<BlockDto> createAccepted(String propertyId, List<PersistBlockDto> blockDtos) {
+    List<Block> accepted = new ArrayList<>(blockDtos.size());
+    for (PersistBlockDto blockDto : blockDtos) {
+      Block block = blockMapper.map(blockDto);
+      block.setProperty(new Property(propertyId));
+      try {
+        validate(block, null);
+      } catch (OverlappingException e) {
+        continue;
+      }
+      boolean overlapsAccepted =
+          accepted.stream()
+              .anyMatch(
+                  other ->
+                      !other.getStart().isAfter(block.getFinish())
+                          && !other.getFinish().isBefore(block.getStart()));
+      if (!overlapsAccepted) {
+        accepted.add(block);
+      }
+    }
+    if (accepted.isEmpty()) {
+      return List.of();
     }
 
-    return blockMapper.map(created);
+    List<Block> saved;
+    if (bookingJournal.isEnabled()) {
+      accepted.stream()
+          .filter(block -> block.getId() == null)
+          .forEach(block -> block.setId(UUID.randomUUID().toString()));
+      bookingJournal.appendAll(
+          accepted.stream().map(block -> JournalEntry.of(Command.CREATE_BLOCK, block)).toList());
+      saved = accepted;
+    } else {
+      try {
+        saved = transactionTemplate.execute(status -> blockRepository.saveAll(accepted));
+      } catch (DataIntegrityViolationException e) {
+        if (ExclusionConstraints.isViolatedBy(e)) {
+          throw e;
+        }
+        throw new PropertyNotFoundException(propertyId);
+      }
+    }
+    saved.forEach(
+        block -> {
+          occupancyStore.replace(null, interval(block));
+          capacityIndex.replaceBlock(null, interval(block));
+          availabilityIndex.replaceBlock(null, interval(block));
+        });
+    eventPublisher.publishEvent(new BookingChangedEvent(propertyId));
+    return saved.stream().map(blockMapper::map).toList();
   }
 
   public BlockDto findById(String blockId) {
+    bookingJournal.awaitPersisted(blockId);
+    bookingJournal.checkNotRejected(blockId);
     return blockMapper.map(
         blockRepository.findById(blockId).orElseThrow(() -> new BlockNotFoundException(blockId)));
   }
 
   public BlockDto update(String blockId, PersistBlockDto blockDto) {
-    Block existingBlock =
-        blockRepository.findById(blockId).orElseThrow(() -> new BlockNotFoundException(blockId));
+    bookingJournal.awaitPersisted(blockId);
+    String propertyId =
+        blockRepository
+            .findPropertyIdById(blockId)
+            .orElseThrow(() -> new BlockNotFoundException(blockId));
 
-    BeanUtils.copyProperties(blockDto, existingBlock);
-    existingBlock.setId(blockId);
+    return blockMapper.map(
+        propertyLocks.serialized(
+            propertyId,
+            () -> {
+              // Read under the lock, the nights given back must be those of the stored version
+              bookingJournal.awaitPersisted(blockId);
+              Block existingBlock =
+                  blockRepository
+                      .findById(blockId)
+                      .orElseThrow(() -> new BlockNotFoundException(blockId));
+              BookingInterval previous = interval(existingBlock);
+              blockMapper.update(blockDto, existingBlock);
+              validate(existingBlock, previous);
+              return persist(existingBlock, previous, Command.UPDATE_BLOCK);
+            }));
+  }
 
-    validate(existingBlock);
+  public void delete(String blockId) {
+    bookingJournal.awaitPersisted(blockId);
+    blockRepository
+        .findPropertyIdById(blockId)
+        .ifPresent(
+            propertyId ->
+                propertyLocks.serialized(
+                    propertyId,
+                    () -> {
+                      bookingJournal.awaitPersisted(blockId);
+                      blockRepository.findById(blockId).ifPresent(this::deleteExisting);
+                      return null;
+                    }));
+  }
 
-    Block updatedBlock = blockRepository.save(existingBlock);
-    return blockMapper.map(updatedBlock);
+  private void deleteExisting(Block block) {
+    capacityIndex.track(block.getProperty().getId());
+    if (bookingJournal.isEnabled()) {
+      journal(block, Command.DELETE_BLOCK);
+    } else {
+      blockRepository.delete(block);
+    }
+    occupancyStore.replace(interval(block), null);
+    capacityIndex.replaceBlock(interval(block), null);
+    availabilityIndex.replaceBlock(interval(block), null);
+    eventPublisher.publishEvent(new BookingChangedEvent(block.getProperty().getId()));
   }
 
-  public void delete(String blockId) {
-    blockRepository.deleteById(blockId);
+  /**
+   * Saves the block, or with the journal enabled acknowledges it once journaled and leaves the
+   * save to the journal.
+   *
+   * @param previous the nights the block took before this change
+   */
+  private Block persist(Block block, BookingInterval previous, Command command) {
+    Block persisted;
+    if (bookingJournal.isEnabled()) {
+      persisted = journal(block, command);
+      eventPublisher.publishEvent(new BookingChangedEvent(block.getProperty().getId()));
+    } else {
+      persisted = save(block);
+    }
+    occupancyStore.replace(previous, interval(persisted));
+    capacityIndex.replaceBlock(previous, interval(persisted));
+    availabilityIndex.replaceBlock(previous, interval(persisted));
+    return persisted;
+  }
+
+  private Block journal(Block block, Command command) {
+    if (block.getId() == null) {
+      block.setId(UUID.randomUUID().toString());
+    }
+    bookingJournal.append(JournalEntry.of(command, block));
+    return block;
+  }
+
+  private Block save(Block block) {
+    try {
+      Block saved = blockRepository.save(block);
+      eventPublisher.publishEvent(new BookingChangedEvent(block.getProperty().getId()));
+      return saved;
+    } catch (DataIntegrityViolationException e) {
+      if (ExclusionConstraints.isViolatedBy(e)) {
+        // A concurrent block won the race and the database rejected ours, report that block
+        checkBookings(block);
+        throw e;
+      }
+      throw new PropertyNotFoundException(block.getProperty().getId());
+    }
   }
 
-  private void validate(Block block) {
+  /**
+   * @param previous the nights the block took before this change, which it may keep
+   */
+  private void validate(Block block, BookingInterval previous) {
     if (block.getStart().isAfter(block.getFinish())) {
       throw new IllegalArgumentException("Start cannot be after the finish");
     }
 
+    // Blocks close every unit, so the overlap checks are the same whatever the units, but a
+    // multi-unit property's index has to be loaded before the block is written
+    capacityIndex.track(block.getProperty().getId());
+
+    Availability availability =
+        occupancyStore.check(
+            block.getProperty().getId(), block.getStart(), block.getFinish(), previous);
+    if (availability != Availability.FREE) {
+      // The queries must see the journaled bookings of the property
+      bookingJournal.awaitPersisted(block.getProperty().getId());
+      checkBookings(block);
+    }
+
+    holdStore.checkNoOverlap(block.getProperty().getId(), block.getStart(), block.getFinish());
+  }
+
+  private void checkBookings(Block block) {
     List<Reservation> overlappingReservations =
         reservationRepository.findByPropertyIdAndDateRange(
             block.getProperty().getId(), block.getStart(), block.getFinish());
@@ -91,4 +283,9 @@ public class BlockService {
       throw new OverlappingBlocksException(overlappingBlocks);
     }
   }
+
+  private static BookingInterval interval(Block block) {
+    return new BookingInterval(
+        block.getId(), block.getProperty().getId(), block.getStart(), block.getFinish());
+  }
 }
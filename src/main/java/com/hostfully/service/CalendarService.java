@@ -0,0 +1,189 @@
+package com.hostfully.service;
+
+import com.hostfully.calendar.CalendarProperties;
+import com.hostfully.calendar.Ics;
+import com.hostfully.calendar.IcsEvent;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.CalendarImportDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.event.PropertyDeletedEvent;
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.model.Block;
+import com.hostfully.model.Reservation;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.PropertyRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * ICS feeds of the active reservations and blocks of a property. The feed over the default
+ * window is kept per property and rebuilt on the first request after one of its bookings changed.
+ * Feeds are evicted least recently read first once their bytes pass {@code cache-max-size}.
+ */
+@Service
+public class CalendarService {
+
+  static final int PAST_DAYS = 30;
+  static final int FUTURE_DAYS = 540;
+  static final int MAX_IMPORTED_EVENTS = 5_000;
+  // Rough cost of the map node, key and record around each feed body
+  private static final int ENTRY_OVERHEAD = 128;
+
+  private final PropertyRepository propertyRepository;
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final BlockService blockService;
+  private final Instant startedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+  private final long maxBytes;
+  private final LinkedHashMap<String, CalendarFeed> feeds = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+  private final Map<String, Change> changes = new ConcurrentHashMap<>();
+
+  public CalendarService(
+      PropertyRepository propertyRepository,
+      ReservationRepository reservationRepository,
+      BlockRepository blockRepository,
+      BlockService blockService,
+      CalendarProperties properties) {
+    this.propertyRepository = propertyRepository;
+    this.reservationRepository = reservationRepository;
+    this.blockRepository = blockRepository;
+    this.blockService = blockService;
+    this.maxBytes = properties.cacheMaxSize().toBytes();
+  }
+
+  /** The default window is served from the cached feed, any other one is built on the spot. */
+  public CalendarFeed feed(String propertyId, LocalDate from, LocalDate to) {
+    LocalDate defaultFrom = LocalDate.now().minusDays(PAST_DAYS);
+    if (from != null || to != null) {
+      LocalDate start = from == null ? defaultFrom : from;
+      LocalDate finish = to == null ? start.plusDays(PAST_DAYS + FUTURE_DAYS) : to;
+      if (start.isAfter(finish)) {
+        throw new IllegalArgumentException("From cannot be after to");
+      }
+      return build(propertyId, start, finish, change(propertyId));
+    }
+
+    synchronized (feeds) {
+      CalendarFeed cached = feeds.get(propertyId);
+      if (cached != null && cached.from().equals(defaultFrom)) {
+        return cached;
+      }
+    }
+    Change change = change(propertyId);
+    CalendarFeed built =
+        build(propertyId, defaultFrom, defaultFrom.plusDays(PAST_DAYS + FUTURE_DAYS), change);
+    synchronized (feeds) {
+      // Only kept when no booking changed while it was being built
+      if (change(propertyId).version() == change.version()) {
+        CalendarFeed previous = feeds.put(propertyId, built);
+        bytes += cost(built) - (previous == null ? 0 : cost(previous));
+        evict();
+      }
+    }
+    return built;
+  }
+
+  /**
+   * Turns the events of an external feed into blocks, skipping those that overlap a booking.
+   * Date-times are read as dates in {@code zone}, the time zone of the property.
+   */
+  public CalendarImportDto importFeed(String propertyId, String ics, ZoneId zone) {
+    List<IcsEvent> events = Ics.read(ics, zone);
+    if (events.size() > MAX_IMPORTED_EVENTS) {
+      throw new IllegalArgumentException(
+          "A feed can import at most " + MAX_IMPORTED_EVENTS + " events");
+    }
+    if (!propertyRepository.existsById(propertyId)) {
+      throw new PropertyNotFoundException(propertyId);
+    }
+    List<PersistBlockDto> blocks =
+        events.stream()
+            .map(event -> new PersistBlockDto(propertyId, event.start(), event.finish()))
+            .toList();
+    List<BlockDto> created = blockService.createAll(propertyId, blocks);
+    return new CalendarImportDto(created, blocks.size() - created.size());
+  }
+
+  @EventListener
+  public void onBookingChanged(BookingChangedEvent event) {
+    changes.merge(
+        event.propertyId(),
+        new Change(1, Instant.now().truncatedTo(ChronoUnit.SECONDS)),
+        (previous, next) -> new Change(previous.version() + 1, next.at()));
+    removeFeed(event.propertyId());
+  }
+
+  @EventListener
+  public void onPropertyDeleted(PropertyDeletedEvent event) {
+    changes.remove(event.propertyId());
+    removeFeed(event.propertyId());
+  }
+
+  private void removeFeed(String propertyId) {
+    synchronized (feeds) {
+      CalendarFeed removed = feeds.remove(propertyId);
+      if (removed != null) {
+        bytes -= cost(removed);
+      }
+    }
+  }
+
+  private void evict() {
+    Iterator<CalendarFeed> eldest = feeds.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= cost(eldest.next());
+      eldest.remove();
+    }
+  }
+
+  private static long cost(CalendarFeed feed) {
+    return feed.body().length + ENTRY_OVERHEAD;
+  }
+
+  private Change change(String propertyId) {
+    return changes.getOrDefault(propertyId, new Change(0, startedAt));
+  }
+
+  private CalendarFeed build(String propertyId, LocalDate from, LocalDate to, Change change) {
+    if (!propertyRepository.existsById(propertyId)) {
+      throw new PropertyNotFoundException(propertyId);
+    }
+    List<IcsEvent> events = new ArrayList<>();
+    for (Reservation r : reservationRepository.findByPropertyIdAndDateRange(propertyId, from, to)) {
+      events.add(new IcsEvent(uid(r.getId()), "Reserved", r.getStart(), r.getFinish()));
+    }
+    for (Block b : blockRepository.findByPropertyIdAndDateRange(propertyId, from, to)) {
+      events.add(new IcsEvent(uid(b.getId()), "Blocked", b.getStart(), b.getFinish()));
+    }
+    events.sort(Comparator.comparing(IcsEvent::start));
+
+    byte[] body = Ics.write(events, change.at()).getBytes(StandardCharsets.UTF_8);
+    String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    return new CalendarFeed(from, body, etag, change.at());
+  }
+
+  private static String uid(String bookingId) {
+    return bookingId + "@hostfully";
+  }
+
+  public record CalendarFeed(LocalDate from, byte[] body, String etag, Instant lastModified) {}
+
+  /** How many times the bookings of a property changed, and when they last did. */
+  private record Change(long version, Instant at) {}
+}
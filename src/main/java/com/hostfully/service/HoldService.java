@@ -0,0 +1,81 @@
+package com.hostfully.service;
+
+import com.hostfully.controller.dtos.ConvertHoldDto;
+import com.hostfully.controller.dtos.HoldDto;
+import com.hostfully.controller.dtos.PersistHoldDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.exception.HoldNotFoundException;
+import com.hostfully.hold.Hold;
+import com.hostfully.hold.HoldProperties;
+import com.hostfully.hold.HoldStore;
+import com.hostfully.mapper.HoldMapper;
+import com.hostfully.ratelimit.RateLimiter;
+import com.hostfully.registry.PropertyRegistry;
+import jakarta.validation.Valid;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@Service
+@AllArgsConstructor
+public class HoldService {
+
+  private final HoldStore holdStore;
+  private final HoldProperties holdProperties;
+  private final PropertyRegistry propertyRegistry;
+  private final ReservationService reservationService;
+  private final HoldMapper holdMapper;
+  private final RateLimiter rateLimiter;
+
+  public HoldDto create(String propertyId, @Valid PersistHoldDto holdDto) {
+    // Before the rate limiter, which would otherwise keep a bucket for every unknown id
+    propertyRegistry.check(propertyId);
+    rateLimiter.acquireProperty(propertyId);
+
+    Hold hold =
+        new Hold(
+            UUID.randomUUID().toString(),
+            propertyId,
+            holdDto.start(),
+            holdDto.finish(),
+            Instant.now().plus(ttl(holdDto)));
+    return holdMapper.map(reservationService.hold(hold));
+  }
+
+  public HoldDto findById(String propertyId, String holdId) {
+    return holdMapper.map(findLive(propertyId, holdId));
+  }
+
+  public void release(String propertyId, String holdId) {
+    holdStore
+        .find(holdId)
+        .filter(h -> h.propertyId().equals(propertyId))
+        .ifPresent(h -> holdStore.release(holdId));
+  }
+
+  /** Books the held dates, releasing the hold once the reservation exists. */
+  public ReservationDto convert(
+      String propertyId, String holdId, @Valid ConvertHoldDto reservationDto) {
+    Hold hold = findLive(propertyId, holdId);
+    return reservationService.createFromHold(hold, reservationDto.guestName());
+  }
+
+  private Hold findLive(String propertyId, String holdId) {
+    return holdStore
+        .find(holdId)
+        .filter(h -> h.propertyId().equals(propertyId))
+        .orElseThrow(() -> new HoldNotFoundException(holdId));
+  }
+
+  private Duration ttl(PersistHoldDto holdDto) {
+    if (holdDto.ttlSeconds() == null) {
+      return holdProperties.ttl();
+    }
+    Duration requested = Duration.ofSeconds(holdDto.ttlSeconds());
+    return requested.compareTo(holdProperties.maxTtl()) > 0 ? holdProperties.maxTtl() : requested;
+  }
+}
@@ -1,53 +1,118 @@
 package com.hostfully.service;
 
+import com.hostfully.cache.PropertyReadCoalescer;
 import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
 import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.deletion.PropertyDeleter;
+import com.hostfully.event.PropertyChangedEvent;
+import com.hostfully.exception.PropertyDeletionNotFoundException;
 import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.journal.BookingJournal;
 import com.hostfully.mapper.DomainPropertyMapper;
+import com.hostfully.mapper.PropertyDeletionMapper;
 import com.hostfully.model.Property;
+import com.hostfully.registry.PropertyRegistry;
 import com.hostfully.repository.PropertyRepository;
+import jakarta.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor
 public class PropertyService {
 
+  private static final int STREAM_PAGE_SIZE = 100;
+
   private final PropertyRepository propertyRepository;
   private final DomainPropertyMapper domainPropertyMapper;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PropertyReadCoalescer readCoalescer;
+  private final BookingJournal bookingJournal;
+  private final PropertyRegistry propertyRegistry;
+  private final PropertyDeleter propertyDeleter;
+  private final PropertyDeletionMapper propertyDeletionMapper;
 
-  public List<PropertyDto> findAll() {
-    return propertyRepository.findAll().stream().map(domainPropertyMapper::map).toList();
+  /**
+   * Hands every property to the consumer one at a time. Properties are read in pages of {@value
+   * #STREAM_PAGE_SIZE}, each page with its reservations and blocks fetched by one join query
+   * apiece, and the persistence context is cleared between pages so memory stays flat no matter
+   * how many properties exist.
+   */
+  @Transactional(readOnly = true)
+  public void streamAll(Consumer<PropertyDto> consumer) {
+    bookingJournal.awaitPersisted();
+    List<String> ids = propertyRepository.findIdsAfter("", Limit.of(STREAM_PAGE_SIZE));
+    while (!ids.isEmpty()) {
+      propertyRepository.findWithReservations(ids);
+      Map<String, Property> page =
+          propertyRepository.findWithBlocks(ids).stream()
+              .collect(Collectors.toMap(Property::getId, Function.identity()));
+      ids.stream()
+          .map(page::get)
+          .filter(Objects::nonNull)
+          .map(domainPropertyMapper::map)
+          .forEach(consumer);
+      entityManager.clear();
+      ids = propertyRepository.findIdsAfter(ids.get(ids.size() - 1), Limit.of(STREAM_PAGE_SIZE));
+    }
   }
 
   public PropertyDto create(PersistPropertyDto propertyDto) {
     Property created = propertyRepository.save(domainPropertyMapper.map(propertyDto));
+    propertyRegistry.add(created.getId());
     return domainPropertyMapper.map(created);
   }
 
   public PropertyDto findById(String propertyId) {
-    return domainPropertyMapper.map(
-        propertyRepository
-            .findById(propertyId)
-            .orElseThrow(() -> new PropertyNotFoundException(propertyId)));
+    propertyRegistry.check(propertyId);
+    bookingJournal.awaitPersisted(propertyId);
+    return readCoalescer.load(
+        propertyId,
+        () ->
+            domainPropertyMapper.map(
+                propertyRepository
+                    .findById(propertyId)
+                    .orElseThrow(() -> new PropertyNotFoundException(propertyId))));
   }
 
   public PropertyDto update(String propertyId, PersistPropertyDto propertyDto) {
+    propertyRegistry.check(propertyId);
     Property existingProperty =
         propertyRepository
             .findById(propertyId)
             .orElseThrow(() -> new PropertyNotFoundException(propertyId));
 
-    BeanUtils.copyProperties(propertyDto, existingProperty);
-    existingProperty.setId(propertyId);
+    domainPropertyMapper.update(propertyDto, existingProperty);
 
     Property updatedProperty = propertyRepository.save(existingProperty);
+    eventPublisher.publishEvent(new PropertyChangedEvent(propertyId));
     return domainPropertyMapper.map(updatedProperty);
   }
 
-  public void delete(String propertyId) {
-    propertyRepository.deleteById(propertyId);
+  /**
+   * Starts deleting the property with its reservations and blocks in the background. Empty when
+   * the property does not exist.
+   */
+  public Optional<PropertyDeletionDto> delete(String propertyId) {
+    return propertyDeleter.delete(propertyId).map(propertyDeletionMapper::map);
+  }
+
+  public PropertyDeletionDto findDeletion(String deletionId) {
+    return propertyDeletionMapper.map(
+        propertyDeleter
+            .find(deletionId)
+            .orElseThrow(() -> new PropertyDeletionNotFoundException(deletionId)));
   }
 }
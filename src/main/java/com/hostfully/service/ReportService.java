@@ -0,0 +1,158 @@
+package com.hostfully.service;
+
+import com.hostfully.controller.dtos.OccupancyReportDto;
+import com.hostfully.model.PropertyNights;
+import com.hostfully.model.PropertySummary;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.PropertyRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Occupancy per property and month. The database sums the booked and blocked nights of every
+ * property once per month, and those sums are merged with the properties as all of them are read
+ * in property id order, so nothing but one row per month is held at a time. A night is every day a
+ * booking covers, start and finish included, the same way overlaps are checked. Booked nights are
+ * unit nights, so the rate divides them by the nights every unit of the property could be booked.
+ */
+@Service
+@AllArgsConstructor
+public class ReportService {
+
+  static final int MAX_MONTHS = 36;
+
+  private final PropertyRepository propertyRepository;
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+
+  /**
+   * Hands the rows to the consumer ordered by property id and month. The queries share one
+   * snapshot, so each sum belongs to a property they all see.
+   */
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+  public void occupancy(LocalDate from, LocalDate to, Consumer<OccupancyReportDto> consumer) {
+    checkRange(from, to);
+
+    YearMonth firstMonth = YearMonth.from(from);
+    int months = (int) firstMonth.until(YearMonth.from(to), ChronoUnit.MONTHS) + 1;
+    List<Stream<PropertyNights>> streams = new ArrayList<>();
+    try {
+      List<NightsCursor> booked = new ArrayList<>(months);
+      List<NightsCursor> blocked = new ArrayList<>(months);
+      for (int i = 0; i < months; i++) {
+        YearMonth month = firstMonth.plusMonths(i);
+        LocalDate start = max(from, month.atDay(1));
+        LocalDate finish = min(to, month.atEndOfMonth());
+        booked.add(
+            new NightsCursor(
+                open(streams, reservationRepository.streamNightsPerProperty(start, finish))));
+        blocked.add(
+            new NightsCursor(
+                open(streams, blockRepository.streamNightsPerProperty(start, finish))));
+      }
+
+      try (Stream<PropertySummary> properties = propertyRepository.streamSummaries()) {
+        properties.forEach(
+            property -> {
+              for (int i = 0; i < months; i++) {
+                consumer.accept(
+                    row(
+                        property,
+                        firstMonth.plusMonths(i),
+                        from,
+                        to,
+                        booked.get(i).nights(property.id()),
+                        blocked.get(i).nights(property.id())));
+              }
+            });
+      }
+    } finally {
+      streams.forEach(Stream::close);
+    }
+  }
+
+  public void checkRange(LocalDate from, LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("From cannot be after to");
+    }
+    if (YearMonth.from(from).until(YearMonth.from(to), ChronoUnit.MONTHS) >= MAX_MONTHS) {
+      throw new IllegalArgumentException("Reports cover at most " + MAX_MONTHS + " months");
+    }
+  }
+
+  private static OccupancyReportDto row(
+      PropertySummary property,
+      YearMonth month,
+      LocalDate from,
+      LocalDate to,
+      long booked,
+      long blocked) {
+    LocalDate start = max(from, month.atDay(1));
+    LocalDate finish = min(to, month.atEndOfMonth());
+    long nights = ChronoUnit.DAYS.between(start, finish) + 1;
+    // A block closes every unit
+    long available = (long) property.units() * (nights - blocked);
+    double rate = available == 0 ? 0 : Math.round(booked * 10_000.0 / available) / 10_000.0;
+    return new OccupancyReportDto(
+        property.id(), property.name(), month, nights, booked, blocked, rate);
+  }
+
+  private static Iterator<PropertyNights> open(
+      List<Stream<PropertyNights>> streams, Stream<PropertyNights> stream) {
+    streams.add(stream);
+    return stream.iterator();
+  }
+
+  private static LocalDate max(LocalDate a, LocalDate b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static LocalDate min(LocalDate a, LocalDate b) {
+    return a.isBefore(b) ? a : b;
+  }
+
+  /**
+   * Walks the sums of one month alongside the properties. Both come in the database's property id
+   * order, so a sum is either the current property's or a later one's, except for sums of a
+   * property the listing no longer has, or of bookings without one, which are skipped. Ids are
+   * UUIDs, which Java orders the way the database does.
+   */
+  private static final class NightsCursor {
+
+    private final Iterator<PropertyNights> sums;
+    private PropertyNights next;
+
+    private NightsCursor(Iterator<PropertyNights> sums) {
+      this.sums = sums;
+      advance();
+    }
+
+    long nights(String propertyId) {
+      while (next != null
+          && (next.propertyId() == null || next.propertyId().compareTo(propertyId) < 0)) {
+        advance();
+      }
+      if (next == null || !next.propertyId().equals(propertyId)) {
+        return 0;
+      }
+      long nights = next.nights();
+      advance();
+      return nights;
+    }
+
+    private void advance() {
+      next = sums.hasNext() ? sums.next() : null;
+    }
+  }
+}
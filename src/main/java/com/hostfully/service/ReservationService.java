@@ -1,21 +1,41 @@
 package com.hostfully.service;
 
+import com.hostfully.availability.AvailabilityIndex;
+import com.hostfully.capacity.CapacityIndex;
 import com.hostfully.controller.dtos.PersistReservationDto;
 import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.event.BookingChangedEvent;
+import com.hostfully.exception.HoldNotFoundException;
 import com.hostfully.exception.OverlappingBlocksException;
+import com.hostfully.exception.OverlappingHoldsException;
 import com.hostfully.exception.OverlappingReservationsException;
 import com.hostfully.exception.PropertyNotFoundException;
 import com.hostfully.exception.ReservationNotFoundException;
+import com.hostfully.hold.Hold;
+import com.hostfully.hold.HoldStore;
+import com.hostfully.journal.BookingJournal;
+import com.hostfully.journal.JournalEntry;
+import com.hostfully.journal.JournalEntry.Command;
+import com.hostfully.lock.PropertyLocks;
 import com.hostfully.mapper.ReservationMapper;
 import com.hostfully.model.Block;
+import com.hostfully.model.BookingInterval;
 import com.hostfully.model.Property;
 import com.hostfully.model.Reservation;
+import com.hostfully.occupancy.OccupancyStore;
+import com.hostfully.occupancy.OccupancyStore.Availability;
+import com.hostfully.pipeline.BookingPipeline;
+import com.hostfully.ratelimit.RateLimiter;
+import com.hostfully.registry.PropertyRegistry;
 import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.ExclusionConstraints;
 import com.hostfully.repository.ReservationRepository;
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
@@ -28,24 +48,85 @@ public class ReservationService {
   private final ReservationRepository reservationRepository;
   private final BlockRepository blockRepository;
   private final ReservationMapper reservationMapper;
+  private final RateLimiter rateLimiter;
+  private final BookingPipeline bookingPipeline;
+  private final HoldStore holdStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final OccupancyStore occupancyStore;
+  private final BookingJournal bookingJournal;
+  private final PropertyLocks propertyLocks;
+  private final CapacityIndex capacityIndex;
+  private final AvailabilityIndex availabilityIndex;
+  private final PropertyRegistry propertyRegistry;
 
   public ReservationDto create(@Valid PersistReservationDto reservationDto) {
+    // Before the rate limiter, which would otherwise keep a bucket for every unknown id
+    propertyRegistry.check(reservationDto.propertyId());
+    rateLimiter.acquireProperty(reservationDto.propertyId());
+
     Reservation toBePersisted = reservationMapper.map(reservationDto);
     toBePersisted.setProperty(new Property(reservationDto.propertyId()));
 
-    validate(toBePersisted);
-
-    Reservation created;
-    try {
-      created = reservationRepository.save(toBePersisted);
-    } catch (DataIntegrityViolationException e) {
-      throw new PropertyNotFoundException(reservationDto.propertyId());
+    // The journal already groups writes into one fsync, the pipeline would only add a hop
+    if (bookingPipeline.isEnabled() && !bookingJournal.isEnabled()) {
+      return reservationMapper.map(
+          bookingPipeline.write(toBePersisted, this::validateInBatch, this::store, this::created));
     }
 
-    return reservationMapper.map(created);
+    return reservationMapper.map(
+        propertyLocks.serialized(
+            reservationDto.propertyId(),
+            () -> {
+              validate(toBePersisted, null);
+              return persist(toBePersisted, null, Command.CREATE_RESERVATION);
+            }));
+  }
+
+  /**
+   * Places the hold when a reservation of its dates would be taken right now, checked like one
+   * under the property's lock. Live holds take a unit each, so on a property with several units
+   * up to that many holds and reservations may share a night.
+   */
+  public Hold hold(Hold hold) {
+    Reservation held = new Reservation();
+    held.setProperty(new Property(hold.propertyId()));
+    held.setStart(hold.start());
+    held.setFinish(hold.finish());
+
+    return propertyLocks.serialized(
+        hold.propertyId(),
+        () -> {
+          validate(held, null);
+          return holdStore.place(hold, capacityIndex.track(hold.propertyId()));
+        });
+  }
+
+  /**
+   * Stores the dates of a hold as a reservation, taking the hold over under the property's lock.
+   * The dates are not validated again: the hold was placed after the same validation, and every
+   * write of the property since has counted it.
+   */
+  public ReservationDto createFromHold(Hold hold, String guestName) {
+    Reservation toBePersisted = new Reservation();
+    toBePersisted.setProperty(new Property(hold.propertyId()));
+    toBePersisted.setStart(hold.start());
+    toBePersisted.setFinish(hold.finish());
+    toBePersisted.setGuestName(guestName);
+
+    return reservationMapper.map(
+        propertyLocks.serialized(
+            hold.propertyId(),
+            () -> {
+              if (!holdStore.release(hold.id())) {
+                throw new HoldNotFoundException(hold.id());
+              }
+              return persist(toBePersisted, null, Command.CREATE_RESERVATION);
+            }));
   }
 
   public ReservationDto findById(String reservationId) {
+    bookingJournal.awaitPersisted(reservationId);
+    bookingJournal.checkNotRejected(reservationId);
     return reservationMapper.map(
         reservationRepository
             .findById(reservationId)
@@ -53,18 +134,16 @@ public class ReservationService {
   }
 
   public ReservationDto update(String reservationId, @Valid PersistReservationDto reservationDto) {
-    Reservation existingReservation =
-        reservationRepository
-            .findById(reservationId)
-            .orElseThrow(() -> new ReservationNotFoundException(reservationId));
-
-    BeanUtils.copyProperties(reservationDto, existingReservation);
-    existingReservation.setId(reservationId);
-
-    validate(existingReservation);
-
-    Reservation updatedReservation = reservationRepository.save(existingReservation);
-    return reservationMapper.map(updatedReservation);
+    return reservationMapper.map(
+        propertyLocks.serialized(
+            propertyId(reservationId),
+            () -> {
+              Reservation existingReservation = existing(reservationId);
+              BookingInterval previous = occupied(existingReservation);
+              reservationMapper.update(reservationDto, existingReservation);
+              validate(existingReservation, previous);
+              return persist(existingReservation, previous, Command.UPDATE_RESERVATION);
+            }));
   }
 
   public void cancel(String reservationId) {
@@ -76,24 +155,215 @@ public class ReservationService {
   }
 
   private void changeStatus(String reservationId, Reservation.ReservationStatus status) {
-    Reservation existingReservation =
-        reservationRepository
-            .findById(reservationId)
-            .orElseThrow(() -> new ReservationNotFoundException(reservationId));
-    existingReservation.setStatus(status);
+    Command command =
+        status == Reservation.ReservationStatus.CANCELLED
+            ? Command.CANCEL_RESERVATION
+            : Command.REBOOK_RESERVATION;
 
-    validate(existingReservation);
+    propertyLocks.serialized(
+        propertyId(reservationId),
+        () -> {
+          Reservation existingReservation = existing(reservationId);
+          BookingInterval previous = occupied(existingReservation);
+          existingReservation.setStatus(status);
+          validate(existingReservation, previous);
+          return persist(existingReservation, previous, command);
+        });
+  }
+
+  /** Property of the reservation, which picks the lock its changes are made under. */
+  private String propertyId(String reservationId) {
+    bookingJournal.awaitPersisted(reservationId);
+    return reservationRepository
+        .findPropertyIdById(reservationId)
+        .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+  }
 
-    reservationRepository.save(existingReservation);
+  /**
+   * The reservation as stored, read under its property's lock so that the nights it took, which a
+   * change gives back, are not those of a version another change has already replaced.
+   */
+  private Reservation existing(String reservationId) {
+    bookingJournal.awaitPersisted(reservationId);
+    return reservationRepository
+        .findById(reservationId)
+        .orElseThrow(() -> new ReservationNotFoundException(reservationId));
   }
 
-  private void validate(Reservation reservation) {
+  /**
+   * Saves the reservation, or with the journal enabled acknowledges it once journaled and leaves
+   * the save to the journal.
+   *
+   * @param previous the nights the reservation took before this change
+   */
+  private Reservation persist(Reservation reservation, BookingInterval previous, Command command) {
+    Reservation persisted;
+    if (bookingJournal.isEnabled()) {
+      if (reservation.getId() == null) {
+        reservation.setId(UUID.randomUUID().toString());
+      }
+      bookingJournal.append(JournalEntry.of(command, reservation));
+      eventPublisher.publishEvent(new BookingChangedEvent(reservation.getProperty().getId()));
+      persisted = reservation;
+    } else {
+      persisted = save(reservation);
+    }
+    occupancyStore.replace(previous, occupied(persisted));
+    capacityIndex.replace(previous, occupied(persisted));
+    availabilityIndex.replace(previous, occupied(persisted));
+    return persisted;
+  }
+
+  /** Records a reservation the pipeline stored, on its writer thread. */
+  private void created(Reservation persisted) {
+    occupancyStore.replace(null, occupied(persisted));
+    capacityIndex.replace(null, occupied(persisted));
+    availabilityIndex.replace(null, occupied(persisted));
+    eventPublisher.publishEvent(new BookingChangedEvent(persisted.getProperty().getId()));
+  }
+
+  /**
+   * Validates a pipelined reservation against the stored bookings and against the reservations
+   * accepted earlier in its batch, which are not stored yet. On a property with several units the
+   * batch only rejects it when, counted with the stored reservations and live holds, they would
+   * take every unit of one of its nights.
+   *
+   * @return the reservations of the batch it is rejected for
+   */
+  private List<Reservation> validateInBatch(Reservation reservation, List<Reservation> accepted) {
+    validate(reservation, null);
+    List<Reservation> overlapping =
+        accepted.stream()
+            .filter(
+                other ->
+                    !other.getStart().isAfter(reservation.getFinish())
+                        && !other.getFinish().isBefore(reservation.getStart()))
+            .toList();
+    if (overlapping.isEmpty()) {
+      return List.of();
+    }
+    String propertyId = reservation.getProperty().getId();
+    int units = capacityIndex.track(propertyId);
+    if (units == 1) {
+      return overlapping;
+    }
+
+    List<BookingInterval> taken = new ArrayList<>();
+    reservationRepository
+        .findByPropertyIdAndDateRange(propertyId, reservation.getStart(), reservation.getFinish())
+        .forEach(stored -> taken.add(occupied(stored)));
+    overlapping.forEach(pending -> taken.add(occupied(pending)));
+    int concurrent =
+        CapacityIndex.maxConcurrent(taken, reservation.getStart(), reservation.getFinish());
+    int holds =
+        holdStore.overlapping(propertyId, reservation.getStart(), reservation.getFinish()).size();
+    return concurrent + holds < units ? List.of() : overlapping;
+  }
+
+  private Reservation save(Reservation reservation) {
+    Reservation saved = store(reservation);
+    eventPublisher.publishEvent(new BookingChangedEvent(reservation.getProperty().getId()));
+    return saved;
+  }
+
+  private Reservation store(Reservation reservation) {
+    try {
+      return reservationRepository.save(reservation);
+    } catch (DataIntegrityViolationException e) {
+      if (ExclusionConstraints.isViolatedBy(e)) {
+        // A concurrent booking won the race and the database rejected ours, report that booking
+        checkBookings(reservation);
+        throw e;
+      }
+      throw new PropertyNotFoundException(reservation.getProperty().getId());
+    }
+  }
+
+  /**
+   * @param previous the nights the reservation took before this change, which it may keep
+   */
+  private void validate(Reservation reservation, BookingInterval previous) {
     if (reservation.getStart() != null
         && reservation.getFinish() != null
         && reservation.getStart().isAfter(reservation.getFinish())) {
       throw new IllegalArgumentException("Start cannot be after the finish");
     }
 
+    String propertyId = reservation.getProperty().getId();
+    List<Hold> holds =
+        holdStore.overlapping(propertyId, reservation.getStart(), reservation.getFinish());
+    int units = capacityIndex.track(propertyId);
+    if (units > 1) {
+      checkCapacity(reservation, previous, units, holds);
+      return;
+    }
+
+    // The queries also name the conflicting bookings, so they only run when an overlap is
+    // possible
+    Availability availability =
+        occupancyStore.check(propertyId, reservation.getStart(), reservation.getFinish(), previous);
+    if (availability != Availability.FREE) {
+      // The queries must see the journaled bookings of the property
+      bookingJournal.awaitPersisted(propertyId);
+      checkBookings(reservation);
+    }
+    if (!holds.isEmpty()) {
+      throw new OverlappingHoldsException(holds);
+    }
+  }
+
+  /**
+   * A property with several units takes a reservation as long as fewer reservations and holds
+   * than units share each of its nights and no block closes any of them. Holds are counted as if
+   * they all shared one night, which may turn away a reservation that would just have fitted.
+   */
+  private void checkCapacity(
+      Reservation reservation, BookingInterval previous, int units, List<Hold> holds) {
+    if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE) {
+      return;
+    }
+    int taken =
+        capacityIndex.maxTaken(
+            reservation.getProperty().getId(),
+            reservation.getStart(),
+            reservation.getFinish(),
+            previous);
+    // BLOCKED is the largest int, adding the holds to it would wrap around
+    if (taken != CapacityIndex.UNKNOWN
+        && taken != CapacityIndex.BLOCKED
+        && taken + holds.size() < units) {
+      return;
+    }
+
+    bookingJournal.awaitPersisted(reservation.getProperty().getId());
+    List<Block> overlappingBlocks =
+        blockRepository.findByPropertyIdAndDateRange(
+            reservation.getProperty().getId(), reservation.getStart(), reservation.getFinish());
+    if (overlappingBlocks.size() > 0) {
+      throw new OverlappingBlocksException(overlappingBlocks);
+    }
+
+    List<Reservation> overlappingReservations =
+        reservationRepository
+            .findByPropertyIdAndDateRange(
+                reservation.getProperty().getId(), reservation.getStart(), reservation.getFinish())
+            .stream()
+            .filter(r -> !r.getId().equals(reservation.getId()))
+            .toList();
+    int concurrent =
+        CapacityIndex.maxConcurrent(
+            overlappingReservations.stream().map(ReservationService::occupied).toList(),
+            reservation.getStart(),
+            reservation.getFinish());
+    if (concurrent >= units) {
+      throw new OverlappingReservationsException(overlappingReservations);
+    }
+    if (concurrent + holds.size() >= units) {
+      throw new OverlappingHoldsException(holds);
+    }
+  }
+
+  private void checkBookings(Reservation reservation) {
     List<Reservation> overlappingReservations =
         reservationRepository
             .findByPropertyIdAndDateRange(
@@ -118,4 +388,15 @@ public class ReservationService {
       throw new OverlappingBlocksException(overlappingBlocks);
     }
   }
+
+  private static BookingInterval occupied(Reservation reservation) {
+    if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE) {
+      return null;
+    }
+    return new BookingInterval(
+        reservation.getId(),
+        reservation.getProperty().getId(),
+        reservation.getStart(),
+        reservation.getFinish());
+  }
 }
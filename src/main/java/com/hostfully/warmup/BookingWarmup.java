@@ -0,0 +1,56 @@
+package com.hostfully.warmup;
+
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.PropertyRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the hot working set when the application starts: the bookings for the next months of the
+ * {@code max-properties} properties booked the most in that window, ranked by the database. It
+ * runs before the application reports itself ready for traffic, so the database cache, the
+ * overlap query path and every {@link WarmupListener} are warm by the time real requests arrive.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class BookingWarmup {
+
+  private final WarmupProperties properties;
+  private final PropertyRepository propertyRepository;
+  private final ReservationRepository reservationRepository;
+  private final BlockRepository blockRepository;
+  private final ObjectProvider<WarmupListener> listeners;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (!properties.enabled()) {
+      return;
+    }
+    long start = System.nanoTime();
+    LocalDate from = LocalDate.now();
+    LocalDate to = from.plusMonths(properties.months());
+
+    WarmupSet warmupSet =
+        new WarmupSet(
+            from, to, propertyRepository.findBusiestIds(from, to, properties.maxProperties()));
+    for (String propertyId : warmupSet.propertyIds()) {
+      reservationRepository.findByPropertyIdAndDateRange(propertyId, from, to);
+      blockRepository.findByPropertyIdAndDateRange(propertyId, from, to);
+    }
+
+    listeners.orderedStream().forEach(listener -> listener.onWarmup(warmupSet));
+
+    log.info(
+        "Warmed up bookings of {} properties until {} in {} ms",
+        warmupSet.propertyIds().size(),
+        to,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+}
@@ -0,0 +1,10 @@
+package com.hostfully.warmup;
+
+/**
+ * Implemented by in-memory indexes and caches that want to be filled before the first request
+ * instead of lazily on it.
+ */
+public interface WarmupListener {
+
+  void onWarmup(WarmupSet warmupSet);
+}
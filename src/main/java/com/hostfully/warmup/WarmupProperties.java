@@ -0,0 +1,6 @@
+package com.hostfully.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "hostfully.warmup")
+public record WarmupProperties(boolean enabled, int months, int maxProperties) {}
@@ -0,0 +1,7 @@
+package com.hostfully.warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** The busiest properties in the window [from, to], busiest first, found once at startup. */
+public record WarmupSet(LocalDate from, LocalDate to, List<String> propertyIds) {}
@@ -0,0 +1 @@
+ALTER TABLE property ADD COLUMN units INT DEFAULT 1 NOT NULL;
@@ -0,0 +1,43 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE property (
+    id   VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    CONSTRAINT pk_property PRIMARY KEY (id)
+);
+
+CREATE TABLE reservation (
+    id          VARCHAR(255) NOT NULL,
+    property_id VARCHAR(255),
+    start       DATE,
+    finish      DATE,
+    guest_name  VARCHAR(255),
+    status      SMALLINT,
+    CONSTRAINT pk_reservation PRIMARY KEY (id),
+    CONSTRAINT fk_reservation_property FOREIGN KEY (property_id) REFERENCES property (id)
+);
+
+CREATE TABLE block (
+    id          VARCHAR(255) NOT NULL,
+    property_id VARCHAR(255),
+    start       DATE,
+    finish      DATE,
+    CONSTRAINT pk_block PRIMARY KEY (id),
+    CONSTRAINT fk_block_property FOREIGN KEY (property_id) REFERENCES property (id)
+);
+
+-- Stays are closed ranges, the same semantics the application overlap checks use.
+-- Only active reservations (status ordinal 0) take part in the exclusion.
+ALTER TABLE reservation ADD CONSTRAINT reservation_no_overlap
+    EXCLUDE USING gist (property_id WITH =, daterange(start, finish, '[]') WITH &&)
+    WHERE (status = 0);
+
+ALTER TABLE block ADD CONSTRAINT block_no_overlap
+    EXCLUDE USING gist (property_id WITH =, daterange(start, finish, '[]') WITH &&);
+
+-- Overlap checks filter on property, status and start, then read finish from the index.
+-- The leading property_id also serves the property's reservations collection.
+CREATE INDEX idx_reservation_overlap ON reservation (property_id, status, start)
+    INCLUDE (finish);
+
+CREATE INDEX idx_block_overlap ON block (property_id, start) INCLUDE (finish);
@@ -0,0 +1,84 @@
+ALTER TABLE property ADD COLUMN units INT NOT NULL DEFAULT 1 CHECK (units > 0);
+
+-- A property with several units takes overlapping reservations up to its unit count, which an
+-- exclusion constraint cannot express. Reservations carry whether their property has a single
+-- unit, so the exclusion constraint keeps guarding those and only leaves out the others. For
+-- those, the trigger below locks the property row, so concurrent bookings of one property are
+-- checked one after the other, and rejects a reservation that would leave more active
+-- reservations than units on some night. It raises the exclusion violation state so the
+-- application keeps recognizing the conflict.
+ALTER TABLE reservation ADD COLUMN single_unit BOOLEAN NOT NULL DEFAULT TRUE;
+
+ALTER TABLE reservation DROP CONSTRAINT reservation_no_overlap;
+
+ALTER TABLE reservation ADD CONSTRAINT reservation_no_overlap
+    EXCLUDE USING gist (property_id WITH =, daterange(start, finish, '[]') WITH &&)
+    WHERE (status = 0 AND single_unit);
+
+CREATE FUNCTION check_reservation_capacity() RETURNS trigger AS $$
+DECLARE
+    capacity INT;
+    taken    INT;
+BEGIN
+    SELECT units INTO capacity FROM property WHERE id = NEW.property_id;
+    IF NOT FOUND THEN
+        RETURN NEW;
+    END IF;
+    IF capacity = 1 OR NEW.status <> 0 THEN
+        -- Shared, so these bookings do not wait on each other but a change of units waits
+        SELECT units INTO capacity FROM property WHERE id = NEW.property_id FOR SHARE;
+    ELSE
+        SELECT units INTO capacity FROM property WHERE id = NEW.property_id FOR UPDATE;
+    END IF;
+    NEW.single_unit := capacity = 1;
+    IF NEW.single_unit OR NEW.status <> 0 THEN
+        RETURN NEW;
+    END IF;
+
+    -- Occupancy only rises where a stay starts, so the busiest night is one of those starts
+    SELECT COALESCE(MAX(overlapping), 0) INTO taken
+    FROM (
+        SELECT (SELECT COUNT(*)
+                FROM reservation o
+                WHERE o.property_id = NEW.property_id
+                  AND o.status = 0
+                  AND o.id <> NEW.id
+                  AND o.start <= night.day
+                  AND o.finish >= night.day) AS overlapping
+        FROM (SELECT GREATEST(r.start, NEW.start) AS day
+              FROM reservation r
+              WHERE r.property_id = NEW.property_id
+                AND r.status = 0
+                AND r.id <> NEW.id
+                AND r.start <= NEW.finish
+                AND r.finish >= NEW.start) night
+    ) counts;
+
+    IF taken >= capacity THEN
+        RAISE EXCEPTION 'Property % has no unit free from % to %',
+            NEW.property_id, NEW.start, NEW.finish
+            USING ERRCODE = '23P01';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservation_capacity
+    BEFORE INSERT OR UPDATE ON reservation
+    FOR EACH ROW
+    EXECUTE FUNCTION check_reservation_capacity();
+
+-- Moving a property to a single unit puts its reservations back under the exclusion constraint,
+-- which rejects the change while any of them overlap.
+CREATE FUNCTION copy_property_units() RETURNS trigger AS $$
+BEGIN
+    UPDATE reservation SET single_unit = NEW.units = 1 WHERE property_id = NEW.id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER property_units
+    AFTER UPDATE OF units ON property
+    FOR EACH ROW
+    WHEN (OLD.units <> NEW.units)
+    EXECUTE FUNCTION copy_property_units();
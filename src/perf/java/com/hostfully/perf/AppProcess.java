@@ -0,0 +1,112 @@
+package com.hostfully.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The application running in its own process on a random port, as it would in production. */
+final class AppProcess implements AutoCloseable {
+
+  private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+  private final Process process;
+  private final int port;
+  private final long startedAt;
+
+  private AppProcess(Process process, int port, long startedAt) {
+    this.process = process;
+    this.port = port;
+    this.startedAt = startedAt;
+  }
+
+  static List<String> javaCommand(List<String> jvmArgs, String... launch) {
+    List<String> command = new ArrayList<>();
+    command.add(ProcessHandle.current().info().command().orElse("java"));
+    command.addAll(jvmArgs);
+    command.addAll(List.of(launch));
+    return command;
+  }
+
+  static AppProcess start(List<String> command, List<String> appArgs) throws IOException {
+    int port = freePort();
+    List<String> fullCommand = new ArrayList<>(command);
+    fullCommand.addAll(appArgs);
+    fullCommand.add("--server.port=" + port);
+
+    File log = new File(System.getProperty("appLog", "build/perf/app.log"));
+    log.getParentFile().mkdirs();
+    long startedAt = System.nanoTime();
+    Process process =
+        new ProcessBuilder(fullCommand)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+            .start();
+    return new AppProcess(process, port, startedAt);
+  }
+
+  /** Polls {@code GET /property} until it succeeds and returns the nanos elapsed since launch. */
+  long awaitFirstSuccessfulRequest(Duration timeout) throws IOException, InterruptedException {
+    return awaitFirstSuccessfulRequest("/property", timeout);
+  }
+
+  /** Polls {@code GET path} until it succeeds and returns the nanos elapsed since launch. */
+  long awaitFirstSuccessfulRequest(String path, Duration timeout)
+      throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(uri(path)).GET().build();
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("Application exited with code " + process.exitValue());
+      }
+      try {
+        if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+          return System.nanoTime() - startedAt;
+        }
+      } catch (IOException e) {
+        // Not listening yet
+      }
+      Thread.sleep(5);
+    }
+    throw new IllegalStateException("Application did not answer within " + timeout);
+  }
+
+  /** Resident set size in kB, or -1 where /proc is not available. */
+  long residentSetSizeKb() {
+    Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+    try {
+      for (String line : Files.readAllLines(status)) {
+        if (line.startsWith("VmRSS:")) {
+          return Long.parseLong(line.replaceAll("\\D", ""));
+        }
+      }
+    } catch (IOException e) {
+      return -1;
+    }
+    return -1;
+  }
+
+  URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    process.waitFor();
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
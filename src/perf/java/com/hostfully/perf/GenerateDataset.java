@@ -0,0 +1,59 @@
+package com.hostfully.perf;
+
+import com.hostfully.fixtures.SyntheticDataset;
+import com.hostfully.fixtures.SyntheticDataset.Spec;
+import com.hostfully.fixtures.SyntheticDataset.Summary;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Migrates the database at {@code jdbcUrl} and fills it with a {@link SyntheticDataset}.
+ *
+ * <p>{@code properties} and {@code reservationsPerProperty} size the portfolio; {@code from},
+ * {@code days}, {@code seed} and {@code threads} override the rest of {@link Spec#of}. The
+ * default URL is the file the {@code h2file} profile opens, so the application can be started on
+ * the generated data right after. The rows are written around the application, so the occupancy
+ * file at {@code occupancyFile} is deleted for the next run to rebuild it from them.
+ */
+public class GenerateDataset {
+
+  public static void main(String[] args) throws IOException {
+    String url = System.getProperty("jdbcUrl", "jdbc:h2:file:./data/hostfully");
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            url, System.getProperty("user", "sa"), System.getProperty("password", "password"));
+
+    String vendor = url.startsWith("jdbc:postgresql:") ? "postgresql" : "h2";
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration/" + vendor)
+        .load()
+        .migrate();
+
+    Spec spec =
+        Spec.of(
+            Integer.getInteger("properties", 100_000),
+            Integer.getInteger("reservationsPerProperty", 100));
+    String from = System.getProperty("from");
+    spec =
+        spec.withTimeline(
+                from == null ? spec.from() : LocalDate.parse(from),
+                Integer.getInteger("days", spec.days()))
+            .withSeed(Long.getLong("seed", spec.seed()))
+            .withThreads(Integer.getInteger("threads", spec.threads()));
+
+    Summary summary = SyntheticDataset.generate(dataSource, spec);
+    Files.deleteIfExists(Path.of(System.getProperty("occupancyFile", "./data/occupancy.bin")));
+    System.out.printf(
+        "%,d properties, %,d reservations and %,d blocks in %.1f s (%,.0f rows/s)%n",
+        summary.properties(),
+        summary.reservations(),
+        summary.blocks(),
+        summary.took().toMillis() / 1000.0,
+        summary.rowsPerSecond());
+  }
+}
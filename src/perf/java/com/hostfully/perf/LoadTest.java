@@ -0,0 +1,394 @@
+package com.hostfully.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a production-like mix of requests against the packaged application and records latency
+ * histograms per operation.
+ *
+ * <p>The boot jar comes from the {@code bootJar} system property. {@code mix} sets the weight of
+ * each operation, e.g. {@code calendar=30,read=20,book=20,conflict=10,cancel=5,rebook=5,block=10},
+ * and {@code concurrency}, {@code propertyCount}, {@code warmupSeconds} and {@code durationSeconds}
+ * size the run. Histograms are written to {@code build/perf}. When {@code baseline} points to a
+ * properties file of p99 milliseconds per operation, the run fails if any p99 is more than {@code
+ * tolerance} times its baseline; {@code updateBaseline=true} rewrites that file instead. {@code
+ * h2File} runs the application on that H2 file, e.g. one filled by {@link GenerateDataset}, so
+ * the mix is measured against a large portfolio instead of an empty database.
+ */
+public class LoadTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final HttpClient HTTP = HttpClient.newHttpClient();
+  private static final long MAX_LATENCY_NANOS = Duration.ofMinutes(1).toNanos();
+  private static final int RESERVATIONS_PER_PROPERTY = 10;
+  // Seeded stays, blocks and new bookings each get their own years so that only conflicts collide
+  private static final LocalDate SEEDED_STAYS = LocalDate.of(2080, 1, 1);
+  private static final LocalDate SEEDED_BLOCKS = LocalDate.of(2079, 1, 1);
+  private static final LocalDate NEW_BOOKINGS = LocalDate.of(2081, 1, 1);
+
+  enum Operation {
+    CALENDAR("calendar", 30),
+    READ("read", 20),
+    BOOK("book", 20),
+    CONFLICT("conflict", 10),
+    CANCEL("cancel", 5),
+    REBOOK("rebook", 5),
+    BLOCK_EDIT("block", 10);
+
+    final String key;
+    final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+      this.key = key;
+      this.defaultWeight = defaultWeight;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    String bootJar = System.getProperty("bootJar");
+    int concurrency = Integer.getInteger("concurrency", 32);
+    int propertyCount = Integer.getInteger("propertyCount", 200);
+    int warmupSeconds = Integer.getInteger("warmupSeconds", 15);
+    int durationSeconds = Integer.getInteger("durationSeconds", 60);
+    Map<Operation, Integer> mix = mix(System.getProperty("mix", ""));
+    String h2File = System.getProperty("h2File");
+    List<String> appArgs = new ArrayList<>();
+    appArgs.add("--hostfully.rate-limit.enabled=false");
+    if (h2File == null) {
+      appArgs.add("--spring.profiles.active=prod");
+    } else {
+      appArgs.add("--spring.profiles.active=prod,h2file");
+      appArgs.add("--H2_FILE=" + h2File);
+    }
+
+    Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new ConcurrentHistogram(MAX_LATENCY_NANOS, 3));
+      errors.put(operation, new LongAdder());
+    }
+
+    try (AppProcess app =
+        AppProcess.start(AppProcess.javaCommand(List.of(), "-jar", bootJar), appArgs)) {
+      // GET /property would stream the whole generated portfolio
+      app.awaitFirstSuccessfulRequest("/actuator/health", Duration.ofMinutes(5));
+      Portfolio portfolio = Portfolio.seed(app, propertyCount);
+      Traffic traffic = new Traffic(app, portfolio, mix, histograms, errors);
+
+      traffic.run(concurrency, warmupSeconds);
+      histograms.values().forEach(Histogram::reset);
+      errors.values().forEach(LongAdder::reset);
+      traffic.run(concurrency, durationSeconds);
+    }
+
+    Map<Operation, Double> p99s = report(histograms, errors, durationSeconds);
+    String baseline = System.getProperty("baseline");
+    if (baseline != null) {
+      if (Boolean.getBoolean("updateBaseline")) {
+        writeBaseline(Path.of(baseline), p99s);
+      } else if (!withinBaseline(Path.of(baseline), p99s)) {
+        System.exit(1);
+      }
+    }
+  }
+
+  private static Map<Operation, Integer> mix(String spec) {
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      mix.put(operation, operation.defaultWeight);
+    }
+    for (String entry : spec.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      String[] keyAndWeight = entry.split("=");
+      Operation operation =
+          List.of(Operation.values()).stream()
+              .filter(o -> o.key.equals(keyAndWeight[0].trim()))
+              .findFirst()
+              .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + entry));
+      mix.put(operation, Integer.parseInt(keyAndWeight[1].trim()));
+    }
+    return mix;
+  }
+
+  private static Map<Operation, Double> report(
+      Map<Operation, Histogram> histograms, Map<Operation, LongAdder> errors, int seconds)
+      throws IOException {
+    Path output = Path.of(System.getProperty("outputDir", "build/perf"));
+    Files.createDirectories(output);
+    Map<Operation, Double> p99s = new EnumMap<>(Operation.class);
+    long total = 0;
+    System.out.printf(
+        "%-10s %9s %9s %9s %9s %9s %9s %9s %7s%n",
+        "operation",
+        "req/s",
+        "p50 ms",
+        "p90 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms",
+        "count",
+        "errors");
+    for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+      Histogram histogram = entry.getValue();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      total += histogram.getTotalCount();
+      double p99 = millis(histogram.getValueAtPercentile(99));
+      p99s.put(entry.getKey(), p99);
+      System.out.printf(
+          "%-10s %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9d %7d%n",
+          entry.getKey().key,
+          histogram.getTotalCount() / (double) seconds,
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(90)),
+          p99,
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue()),
+          histogram.getTotalCount(),
+          errors.get(entry.getKey()).sum());
+      try (OutputStream file =
+              new FileOutputStream(output.resolve(entry.getKey().key + ".hgrm").toFile());
+          PrintStream printStream = new PrintStream(file)) {
+        histogram.outputPercentileDistribution(printStream, 1_000_000.0);
+      }
+    }
+    System.out.printf("%-10s %9.0f%n", "total", total / (double) seconds);
+    return p99s;
+  }
+
+  private static boolean withinBaseline(Path baselineFile, Map<Operation, Double> p99s)
+      throws IOException {
+    Properties baseline = new Properties();
+    try (InputStream in = Files.newInputStream(baselineFile)) {
+      baseline.load(in);
+    }
+    double tolerance = Double.parseDouble(System.getProperty("tolerance", "1.2"));
+    boolean within = true;
+    for (Map.Entry<Operation, Double> p99 : p99s.entrySet()) {
+      String expected = baseline.getProperty(p99.getKey().key + ".p99");
+      if (expected != null && p99.getValue() > Double.parseDouble(expected) * tolerance) {
+        System.out.printf(
+            "REGRESSION %s: p99 %.2f ms, baseline %s ms (tolerance x%.2f)%n",
+            p99.getKey().key, p99.getValue(), expected, tolerance);
+        within = false;
+      }
+    }
+    return within;
+  }
+
+  private static void writeBaseline(Path baselineFile, Map<Operation, Double> p99s)
+      throws IOException {
+    Properties baseline = new Properties();
+    for (Map.Entry<Operation, Double> p99 : p99s.entrySet()) {
+      double rounded = Math.round(p99.getValue() * 100) / 100.0;
+      baseline.setProperty(p99.getKey().key + ".p99", String.valueOf(rounded));
+    }
+    try (OutputStream out = Files.newOutputStream(baselineFile)) {
+      baseline.store(out, "p99 latency in milliseconds per operation, written by loadTest");
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /** Workers picking operations by weight until stopped. */
+  private record Traffic(
+      AppProcess app,
+      Portfolio portfolio,
+      Map<Operation, Integer> mix,
+      Map<Operation, Histogram> histograms,
+      Map<Operation, LongAdder> errors) {
+
+    void run(int concurrency, int seconds) throws InterruptedException {
+      int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+      AtomicBoolean running = new AtomicBoolean(true);
+      List<Thread> workers = new ArrayList<>();
+      for (int i = 0; i < concurrency; i++) {
+        Thread worker =
+            new Thread(
+                () -> {
+                  while (running.get()) {
+                    execute(pick(ThreadLocalRandom.current().nextInt(totalWeight)));
+                  }
+                });
+        workers.add(worker);
+        worker.start();
+      }
+      Thread.sleep(seconds * 1000L);
+      running.set(false);
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    }
+
+    private Operation pick(int ticket) {
+      for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+        ticket -= entry.getValue();
+        if (ticket < 0) {
+          return entry.getKey();
+        }
+      }
+      throw new IllegalStateException("Empty mix");
+    }
+
+    private void execute(Operation operation) {
+      HttpRequest request = request(operation);
+      long startedAt = System.nanoTime();
+      try {
+        int status = HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        // Conflicts and rebooks over a taken range are expected to be rejected with 400
+        if (status >= 400 && status != 400) {
+          errors.get(operation).increment();
+        }
+      } catch (IOException e) {
+        errors.get(operation).increment();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long latency = System.nanoTime() - startedAt;
+      histograms.get(operation).recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+    }
+
+    private HttpRequest request(Operation operation) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      Portfolio.Listing listing = portfolio.randomListing();
+      return switch (operation) {
+        case CALENDAR -> get("/property/" + listing.propertyId() + "/calendar.ics");
+        case READ -> get("/property/" + listing.propertyId());
+        case BOOK -> {
+          LocalDate start = NEW_BOOKINGS.plusDays(random.nextInt(3000));
+          yield send(
+              "POST",
+              "/reservation",
+              reservation(listing.propertyId(), start, start.plusDays(1 + random.nextInt(6))));
+        }
+        case CONFLICT ->
+            send(
+                "POST",
+                "/reservation",
+                reservation(listing.propertyId(), SEEDED_STAYS, SEEDED_STAYS.plusDays(1)));
+        case CANCEL -> send("PUT", "/reservation/" + listing.randomReservation() + "/cancel", null);
+        case REBOOK -> send("PUT", "/reservation/" + listing.randomReservation() + "/rebook", null);
+        case BLOCK_EDIT -> {
+          LocalDate start = SEEDED_BLOCKS.plusDays(random.nextInt(5));
+          yield send(
+              "PUT",
+              "/block/" + listing.blockId(),
+              Map.of(
+                  "propertyId", listing.propertyId(),
+                  "start", start.toString(),
+                  "finish", start.plusDays(1).toString()));
+        }
+      };
+    }
+
+    private HttpRequest get(String path) {
+      return HttpRequest.newBuilder(app.uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, Object body) {
+      return LoadTest.send(app, method, path, body);
+    }
+  }
+
+  static Map<String, String> reservation(String propertyId, LocalDate start, LocalDate finish) {
+    return Map.of(
+        "propertyId", propertyId,
+        "start", start.toString(),
+        "finish", finish.toString(),
+        "guestName", "Load test");
+  }
+
+  static HttpRequest send(AppProcess app, String method, String path, Object body) {
+    try {
+      HttpRequest.BodyPublisher publisher =
+          body == null
+              ? HttpRequest.BodyPublishers.noBody()
+              : HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body));
+      return HttpRequest.newBuilder(app.uri(path))
+          .header("Content-Type", "application/json")
+          .method(method, publisher)
+          .build();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Properties, each with seeded stays and one block, created through the API before the run. */
+  private record Portfolio(List<Listing> listings) {
+
+    record Listing(String propertyId, List<String> reservationIds, String blockId) {
+
+      /** Any stay but the first, which conflicting bookings always target. */
+      String randomReservation() {
+        int index = 1 + ThreadLocalRandom.current().nextInt(reservationIds.size() - 1);
+        return reservationIds.get(index);
+      }
+    }
+
+    static Portfolio seed(AppProcess app, int propertyCount)
+        throws IOException, InterruptedException {
+      List<Listing> listings = new ArrayList<>(propertyCount);
+      for (int p = 0; p < propertyCount; p++) {
+        String propertyId = create(app, "/property", Map.of("name", "Property " + p));
+        List<String> reservationIds = new ArrayList<>(RESERVATIONS_PER_PROPERTY);
+        for (int r = 0; r < RESERVATIONS_PER_PROPERTY; r++) {
+          LocalDate start = SEEDED_STAYS.plusDays(10L * r);
+          reservationIds.add(
+              create(app, "/reservation", reservation(propertyId, start, start.plusDays(3))));
+        }
+        String blockId =
+            create(
+                app,
+                "/block",
+                Map.of(
+                    "propertyId", propertyId,
+                    "start", SEEDED_BLOCKS.toString(),
+                    "finish", SEEDED_BLOCKS.plusDays(1).toString()));
+        listings.add(new Listing(propertyId, reservationIds, blockId));
+      }
+      return new Portfolio(listings);
+    }
+
+    private static String create(AppProcess app, String path, Object body)
+        throws IOException, InterruptedException {
+      HttpResponse<byte[]> response =
+          HTTP.send(send(app, "POST", path, body), HttpResponse.BodyHandlers.ofByteArray());
+      if (response.statusCode() != 201) {
+        throw new IllegalStateException(path + " answered " + response.statusCode());
+      }
+      return MAPPER.readTree(response.body()).get("id").asText();
+    }
+
+    Listing randomListing() {
+      return listings.get(ThreadLocalRandom.current().nextInt(listings.size()));
+    }
+  }
+}
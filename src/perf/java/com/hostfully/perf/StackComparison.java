@@ -0,0 +1,211 @@
+package com.hostfully.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the same closed-loop load against the servlet stack and the reactive stack and reports
+ * throughput and latency percentiles for each.
+ *
+ * <p>Every worker reads a random reservation and, one request in {@code writeRatio}, tries to book
+ * a random range of a random property, so both the read path and the overlap validation are
+ * exercised. Rate limiting is turned off so that it is the stacks being compared. The boot jar is
+ * given by the {@code bootJar} system property; {@code concurrency}, {@code warmupSeconds} and
+ * {@code durationSeconds} tune the run.
+ */
+public class StackComparison {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final HttpClient HTTP = HttpClient.newHttpClient();
+  private static final LocalDate EPOCH = LocalDate.of(2030, 1, 1);
+
+  public static void main(String[] args) throws Exception {
+    String bootJar = System.getProperty("bootJar");
+    int concurrency = Integer.getInteger("concurrency", 64);
+    int warmupSeconds = Integer.getInteger("warmupSeconds", 10);
+    int durationSeconds = Integer.getInteger("durationSeconds", 30);
+    int writeRatio = Integer.getInteger("writeRatio", 5);
+
+    Map<String, List<String>> stacks = new LinkedHashMap<>();
+    stacks.put("servlet", List.of("--hostfully.rate-limit.enabled=false"));
+    stacks.put(
+        "reactive",
+        List.of("--hostfully.rate-limit.enabled=false", "--spring.profiles.active=reactive"));
+
+    System.out.printf(
+        "%-10s %12s %10s %10s %10s %12s%n",
+        "stack", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "rss kB");
+    for (Map.Entry<String, List<String>> stack : stacks.entrySet()) {
+      try (AppProcess app =
+          AppProcess.start(AppProcess.javaCommand(List.of(), "-jar", bootJar), stack.getValue())) {
+        app.awaitFirstSuccessfulRequest(Duration.ofMinutes(2));
+        Dataset dataset = Dataset.seed(app, 50, 20);
+
+        run(app, dataset, concurrency, warmupSeconds, writeRatio);
+        long[] latencies = run(app, dataset, concurrency, durationSeconds, writeRatio);
+
+        Arrays.sort(latencies);
+        System.out.printf(
+            "%-10s %12.0f %10.2f %10.2f %10.2f %12d%n",
+            stack.getKey(),
+            latencies.length / (double) durationSeconds,
+            percentile(latencies, 0.50),
+            percentile(latencies, 0.99),
+            percentile(latencies, 0.999),
+            app.residentSetSizeKb());
+      }
+    }
+  }
+
+  /** Drives the load for the given time and returns the latency of every request, in nanos. */
+  private static long[] run(
+      AppProcess app, Dataset dataset, int concurrency, int seconds, int writeRatio)
+      throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<long[]> perWorker = new ArrayList<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      LatencyLog log = new LatencyLog();
+      Thread worker =
+          new Thread(
+              () -> {
+                while (running.get()) {
+                  log.record(request(app, dataset, writeRatio));
+                }
+                synchronized (perWorker) {
+                  perWorker.add(log.toArray());
+                }
+              });
+      workers.add(worker);
+      worker.start();
+    }
+    Thread.sleep(seconds * 1000L);
+    running.set(false);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return perWorker.stream().flatMapToLong(Arrays::stream).toArray();
+  }
+
+  private static long request(AppProcess app, Dataset dataset, int writeRatio) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    HttpRequest request;
+    if (random.nextInt(writeRatio) == 0) {
+      LocalDate start = EPOCH.plusDays(random.nextInt(3650));
+      request =
+          post(
+              app,
+              "/reservation",
+              Map.of(
+                  "propertyId", dataset.randomProperty(),
+                  "start", start.toString(),
+                  "finish", start.plusDays(1 + random.nextInt(7)).toString(),
+                  "guestName", "Load test"));
+    } else {
+      request =
+          HttpRequest.newBuilder(app.uri("/reservation/" + dataset.randomReservation())).build();
+    }
+    long startedAt = System.nanoTime();
+    try {
+      HTTP.send(request, HttpResponse.BodyHandlers.discarding());
+    } catch (IOException | InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return System.nanoTime() - startedAt;
+  }
+
+  private static HttpRequest post(AppProcess app, String path, Object body) {
+    try {
+      return HttpRequest.newBuilder(app.uri(path))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+          .build();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static double percentile(long[] sortedNanos, double percentile) {
+    if (sortedNanos.length == 0) {
+      return Double.NaN;
+    }
+    int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length));
+    return sortedNanos[index] / 1_000_000.0;
+  }
+
+  /** Growable array of latencies owned by a single worker. */
+  private static final class LatencyLog {
+
+    private long[] values = new long[1 << 16];
+    private int size;
+
+    void record(long nanos) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = nanos;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /** Properties and reservations created before the run, read back at random during it. */
+  private record Dataset(List<String> properties, List<String> reservations) {
+
+    static Dataset seed(AppProcess app, int propertyCount, int reservationsPerProperty)
+        throws IOException, InterruptedException {
+      List<String> properties = new ArrayList<>();
+      List<String> reservations = new ArrayList<>();
+      for (int p = 0; p < propertyCount; p++) {
+        String propertyId = create(app, "/property", Map.of("name", "Property " + p));
+        properties.add(propertyId);
+        for (int r = 0; r < reservationsPerProperty; r++) {
+          // Seeded stays sit before the range written during the run so reads always hit
+          LocalDate start = EPOCH.minusDays(10L * (r + 1));
+          reservations.add(
+              create(
+                  app,
+                  "/reservation",
+                  Map.of(
+                      "propertyId", propertyId,
+                      "start", start.toString(),
+                      "finish", start.plusDays(3).toString(),
+                      "guestName", "Guest " + r)));
+        }
+      }
+      return new Dataset(properties, reservations);
+    }
+
+    private static String create(AppProcess app, String path, Object body)
+        throws IOException, InterruptedException {
+      HttpResponse<byte[]> response =
+          HTTP.send(post(app, path, body), HttpResponse.BodyHandlers.ofByteArray());
+      if (response.statusCode() != 201) {
+        throw new IllegalStateException(path + " answered " + response.statusCode());
+      }
+      return MAPPER.readTree(response.body()).get("id").asText();
+    }
+
+    String randomProperty() {
+      return properties.get(ThreadLocalRandom.current().nextInt(properties.size()));
+    }
+
+    String randomReservation() {
+      return reservations.get(ThreadLocalRandom.current().nextInt(reservations.size()));
+    }
+  }
+}
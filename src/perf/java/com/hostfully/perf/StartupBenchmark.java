@@ -0,0 +1,64 @@
+package com.hostfully.perf;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Launches the application repeatedly in every available mode and reports the time until the
+ * first successful {@code GET /property}, which is what the autoscaler waits for.
+ *
+ * <p>Modes are enabled by system properties: {@code bootJar} for the plain JVM and Spring AOT
+ * runs, {@code cdsArchive} with {@code cdsClasspath} for the AppCDS run and {@code
+ * nativeExecutable} for the GraalVM native image. The resident set size after the first request
+ * is reported alongside, to compare memory footprints.
+ */
+public class StartupBenchmark {
+
+  private static final List<String> APP_ARGS = List.of("--spring.profiles.active=prod");
+
+  public static void main(String[] args) throws Exception {
+    int runs = Integer.parseInt(System.getProperty("runs", "5"));
+
+    Map<String, List<String>> modes = new LinkedHashMap<>();
+    String bootJar = System.getProperty("bootJar");
+    if (bootJar != null) {
+      modes.put("jvm", AppProcess.javaCommand(List.of(), "-jar", bootJar));
+      modes.put(
+          "jvm+aot", AppProcess.javaCommand(List.of("-Dspring.aot.enabled=true"), "-jar", bootJar));
+    }
+    String cdsArchive = System.getProperty("cdsArchive");
+    if (cdsArchive != null) {
+      modes.put(
+          "jvm+cds",
+          AppProcess.javaCommand(
+              List.of("-XX:SharedArchiveFile=" + cdsArchive),
+              "-cp",
+              System.getProperty("cdsClasspath"),
+              "com.hostfully.Application"));
+    }
+
+    String nativeExecutable = System.getProperty("nativeExecutable");
+    if (nativeExecutable != null) {
+      modes.put("native", List.of(nativeExecutable));
+    }
+
+    System.out.printf("%-10s %12s %12s %12s%n", "mode", "median ms", "min ms", "rss kB");
+    for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+      List<Long> millis = new ArrayList<>();
+      long rss = -1;
+      for (int i = 0; i < runs; i++) {
+        try (AppProcess app = AppProcess.start(mode.getValue(), APP_ARGS)) {
+          millis.add(app.awaitFirstSuccessfulRequest(Duration.ofMinutes(2)) / 1_000_000);
+          rss = app.residentSetSizeKb();
+        }
+      }
+      millis.sort(null);
+      System.out.printf(
+          "%-10s %12d %12d %12d%n",
+          mode.getKey(), millis.get(millis.size() / 2), millis.get(0), rss);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.hostfully.availability;
+
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NightCountsTest {
+
+  @Test
+  public void testFirstRunSkipsNightsAtTheLimit() {
+    // Given
+    NightCounts counts = new NightCounts();
+
+    // When
+    counts.add(10, 14, 1);
+    counts.add(17, 20, 1);
+    counts.add(18, 25, 1);
+
+    // Then
+    Assertions.assertThat(counts.firstRun(0, 10, 1)).isEqualTo(0);
+    Assertions.assertThat(counts.firstRun(5, 10, 1)).isEqualTo(26);
+    Assertions.assertThat(counts.firstRun(12, 2, 1)).isEqualTo(15);
+    Assertions.assertThat(counts.firstRun(12, 3, 1)).isEqualTo(26);
+    Assertions.assertThat(counts.firstRun(12, 5, 2)).isEqualTo(12);
+    Assertions.assertThat(counts.firstRun(12, 10, 2)).isEqualTo(21);
+  }
+
+  @Test
+  public void testStepsMergeBackWhenBookingsAreRemoved() {
+    // Given
+    NightCounts counts = new NightCounts();
+    counts.add(10, 14, 1);
+    counts.add(15, 20, 1);
+
+    // When
+    counts.add(10, 14, -1);
+    counts.add(15, 20, -1);
+
+    // Then
+    Assertions.assertThat(counts.size()).isZero();
+    Assertions.assertThat(counts.firstRun(0, 100, 1)).isEqualTo(0);
+  }
+
+  @Test
+  public void testMatchesNightByNightScan() {
+    // Given
+    int days = 200;
+    NightCounts counts = new NightCounts();
+    int[] nights = new int[days];
+    Random random = new Random(11);
+
+    for (int i = 0; i < 2_000; i++) {
+      // When
+      int from = random.nextInt(days - 20);
+      int to = from + random.nextInt(20);
+      counts.add(from, to, 1);
+      for (int night = from; night <= to; night++) {
+        nights[night]++;
+      }
+      if (i % 3 == 0) {
+        counts.add(from, to, -1);
+        for (int night = from; night <= to; night++) {
+          nights[night]--;
+        }
+      }
+      int start = random.nextInt(days);
+      int length = 1 + random.nextInt(5);
+      int limit = 1 + random.nextInt(40);
+      int expected = start;
+      for (int night = start; night < expected + length; night++) {
+        if (night < days && nights[night] >= limit) {
+          expected = night + 1;
+        }
+      }
+
+      // Then
+      Assertions.assertThat(counts.firstRun(start, length, limit)).isEqualTo(expected);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.hostfully.cache;
+
+import com.hostfully.cache.SingleFlight.Outcome;
+import com.hostfully.exception.PropertyNotFoundException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+  private final Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentLoadsShareOneCall() throws Exception {
+    // Given
+    SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofSeconds(5), outcomes::add);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<String> loader =
+        () -> {
+          calls.incrementAndGet();
+          await(release);
+          return "property";
+        };
+
+    // When
+    CompletableFuture<String> leader = load(flights, loader);
+    awaitCalls(calls, 1);
+    List<CompletableFuture<String>> followers =
+        IntStream.range(0, 10).mapToObj(i -> load(flights, loader)).toList();
+    Thread.sleep(100);
+    release.countDown();
+
+    // Then
+    Assertions.assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("property");
+    for (CompletableFuture<String> follower : followers) {
+      Assertions.assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("property");
+    }
+    Assertions.assertThat(calls.get()).isEqualTo(1);
+    Assertions.assertThat(outcomes).containsOnlyOnce(Outcome.LOADED);
+  }
+
+  @Test
+  public void testInvalidateStartsNewLoad() throws Exception {
+    // Given
+    SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofSeconds(5), outcomes::add);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    CompletableFuture<String> stale =
+        load(
+            flights,
+            () -> {
+              calls.incrementAndGet();
+              await(release);
+              return "before";
+            });
+    awaitCalls(calls, 1);
+
+    // When
+    flights.invalidate("key");
+    String fresh = flights.load("key", () -> "after");
+    release.countDown();
+
+    // Then
+    Assertions.assertThat(fresh).isEqualTo("after");
+    Assertions.assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("before");
+  }
+
+  @Test
+  public void testWaitIsBounded() throws Exception {
+    // Given
+    SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofMillis(50), outcomes::add);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    load(
+        flights,
+        () -> {
+          calls.incrementAndGet();
+          await(release);
+          return "slow";
+        });
+    awaitCalls(calls, 1);
+
+    // When
+    String value = flights.load("key", () -> "own");
+    release.countDown();
+
+    // Then
+    Assertions.assertThat(value).isEqualTo("own");
+    Assertions.assertThat(outcomes).contains(Outcome.TIMED_OUT);
+  }
+
+  @Test
+  public void testFailureIsShared() throws Exception {
+    // Given
+    SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofSeconds(5), outcomes::add);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<String> loader =
+        () -> {
+          calls.incrementAndGet();
+          await(release);
+          throw new PropertyNotFoundException("missing");
+        };
+    CompletableFuture<String> leader = load(flights, loader);
+    awaitCalls(calls, 1);
+
+    // When
+    CompletableFuture<String> follower = load(flights, loader);
+    Thread.sleep(100);
+    release.countDown();
+
+    // Then
+    Assertions.assertThatThrownBy(() -> follower.join())
+        .hasCauseInstanceOf(PropertyNotFoundException.class);
+    Assertions.assertThatThrownBy(() -> leader.join())
+        .hasCauseInstanceOf(PropertyNotFoundException.class);
+    Assertions.assertThat(calls.get()).isEqualTo(1);
+  }
+
+  private CompletableFuture<String> load(
+      SingleFlight<String, String> flights, Supplier<String> loader) {
+    return CompletableFuture.supplyAsync(() -> flights.load("key", loader), executor);
+  }
+
+  private static void awaitCalls(AtomicInteger calls, int expected) {
+    while (calls.get() < expected) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
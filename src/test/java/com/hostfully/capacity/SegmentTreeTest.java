@@ -0,0 +1,56 @@
+package com.hostfully.capacity;
+
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SegmentTreeTest {
+
+  @Test
+  public void testRangeMaxFollowsRangeAdds() {
+    // Given
+    SegmentTree tree = new SegmentTree(30);
+
+    // When
+    tree.add(0, 9, 1);
+    tree.add(5, 14, 1);
+    tree.add(7, 7, 1);
+    tree.add(5, 9, -1);
+
+    // Then
+    Assertions.assertThat(tree.max(0, 4)).isEqualTo(1);
+    Assertions.assertThat(tree.max(5, 6)).isEqualTo(1);
+    Assertions.assertThat(tree.max(0, 29)).isEqualTo(2);
+    Assertions.assertThat(tree.max(15, 29)).isZero();
+  }
+
+  @Test
+  public void testMatchesNightByNightCounts() {
+    // Given
+    int nights = 365;
+    SegmentTree tree = new SegmentTree(nights);
+    int[] counts = new int[nights];
+    Random random = new Random(7);
+
+    for (int i = 0; i < 2_000; i++) {
+      // When
+      int from = random.nextInt(nights);
+      int to = from + random.nextInt(nights - from);
+      if (random.nextBoolean()) {
+        int delta = random.nextInt(5) - 2;
+        tree.add(from, to, delta);
+        for (int night = from; night <= to; night++) {
+          counts[night] += delta;
+        }
+      } else {
+        int expected = Integer.MIN_VALUE;
+        for (int night = from; night <= to; night++) {
+          expected = Math.max(expected, counts[night]);
+        }
+
+        // Then
+        Assertions.assertThat(tree.max(from, to)).isEqualTo(expected);
+      }
+    }
+  }
+}
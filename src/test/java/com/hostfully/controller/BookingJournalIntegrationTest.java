@@ -0,0 +1,181 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+    properties = {"hostfully.journal.enabled=true", "hostfully.rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+public class BookingJournalIntegrationTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+  private static final Path DIRECTORY = temporaryDirectory();
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @DynamicPropertySource
+  static void journalDirectory(DynamicPropertyRegistry registry) {
+    registry.add("hostfully.journal.directory", DIRECTORY::toString);
+  }
+
+  @Test
+  public void testJournaledReservationIsReadBack() throws Exception {
+    // Given
+    String propertyId = createProperty();
+
+    // When
+    ReservationDto created = createReservation(propertyId, START, START.plusDays(3));
+
+    // Then
+    mockMvc
+        .perform(get("/reservation/" + created.id()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.guestName").value("guestName"));
+    mockMvc
+        .perform(get("/property/" + propertyId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.reservations[0].id").value(created.id()));
+  }
+
+  @Test
+  public void testOverlapWithJournaledReservationIsRejected() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    ReservationDto first = createReservation(propertyId, START, START.plusDays(3));
+
+    // When
+    mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(
+                            propertyId, START.plusDays(2), START.plusDays(5), "guestName"))))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.conflicts[0].id").value(first.id()));
+
+    // Then
+    mockMvc
+        .perform(put("/reservation/" + first.id() + "/cancel"))
+        .andExpect(status().isNoContent());
+    createReservation(propertyId, START.plusDays(2), START.plusDays(5));
+  }
+
+  @Test
+  public void testReservationOfUnknownPropertyIsRejectedBeforeJournaling() throws Exception {
+    // Given
+    String propertyId = UUID.randomUUID().toString();
+
+    // When
+    String response =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistReservationDto(propertyId, START, START, "guestName"))))
+            .andExpect(status().isNotFound())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    // Then
+    Assertions.assertThat(objectMapper.readValue(response, ErrorResponseDto.class).message())
+        .isEqualTo("Could not find property for the id: " + propertyId);
+  }
+
+  @Test
+  public void testJournaledBlockDeletionIsStored() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    String response =
+        mockMvc
+            .perform(
+                post("/block")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistBlockDto(propertyId, START, START.plusDays(1)))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    BlockDto block = objectMapper.readValue(response, BlockDto.class);
+
+    // When
+    mockMvc.perform(delete("/block/" + block.id())).andExpect(status().isNoContent());
+
+    // Then
+    mockMvc.perform(get("/block/" + block.id())).andExpect(status().isNotFound());
+  }
+
+  private String createProperty() throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new PersistPropertyDto("name"))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, PropertyDto.class).id();
+  }
+
+  private ReservationDto createReservation(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistReservationDto(propertyId, start, finish, "guestName"))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, ReservationDto.class);
+  }
+
+  private static Path temporaryDirectory() {
+    try {
+      return Files.createTempDirectory("journal");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(
+    properties = {
+      "hostfully.booking-pipeline.enabled=true",
+      "hostfully.booking-pipeline.linger=20ms",
+      "hostfully.rate-limit.enabled=false"
+    })
+@AutoConfigureMockMvc
+public class BookingPipelineIntegrationTest {
+
+  private static final int CONCURRENT_BOOKINGS = 16;
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testConcurrentOverlappingBookingsOnlyOneAccepted() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    LocalDate start = LocalDate.now().plusDays(30);
+
+    // When
+    List<Integer> statuses =
+        concurrently(
+            i ->
+                createReservation(
+                    new PersistReservationDto(
+                        propertyDto.id(), start, start.plusDays(2), "Guest " + i)));
+
+    // Then
+    Assertions.assertThat(statuses).containsOnlyOnce(201);
+    Assertions.assertThat(statuses.stream().filter(s -> s == 400)).hasSize(CONCURRENT_BOOKINGS - 1);
+  }
+
+  @Test
+  public void testConcurrentOverlappingBookingsFillEveryUnit() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto(3);
+    LocalDate start = LocalDate.now().plusDays(30);
+
+    // When
+    List<Integer> statuses =
+        concurrently(
+            i ->
+                createReservation(
+                    new PersistReservationDto(
+                        propertyDto.id(), start, start.plusDays(2), "Guest " + i)));
+
+    // Then
+    Assertions.assertThat(statuses.stream().filter(s -> s == 201)).hasSize(3);
+    Assertions.assertThat(statuses.stream().filter(s -> s == 400)).hasSize(CONCURRENT_BOOKINGS - 3);
+    Assertions.assertThat(
+            createReservation(
+                new PersistReservationDto(propertyDto.id(), start, start, "Late guest")))
+        .isEqualTo(400);
+  }
+
+  @Test
+  public void testConcurrentDisjointBookingsAllAccepted() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    LocalDate start = LocalDate.now().plusDays(30);
+
+    // When
+    List<Integer> statuses =
+        concurrently(
+            i ->
+                createReservation(
+                    new PersistReservationDto(
+                        propertyDto.id(),
+                        start.plusDays(3L * i),
+                        start.plusDays(3L * i + 1),
+                        "Guest " + i)));
+
+    // Then
+    Assertions.assertThat(statuses).hasSize(CONCURRENT_BOOKINGS).containsOnly(201);
+  }
+
+  private List<Integer> concurrently(Booking booking) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS);
+    try {
+      List<Callable<Integer>> calls = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+        int index = i;
+        calls.add(() -> booking.create(index));
+      }
+      List<Integer> statuses = new ArrayList<>();
+      for (Future<Integer> status : executor.invokeAll(calls)) {
+        statuses.add(status.get());
+      }
+      return statuses;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private int createReservation(PersistReservationDto reservationDto) throws Exception {
+    return mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationDto)))
+        .andReturn()
+        .getResponse()
+        .getStatus();
+  }
+
+  private PropertyDto getPropertyDto() throws Exception {
+    return getPropertyDto(1);
+  }
+
+  private PropertyDto getPropertyDto(int units) throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new PersistPropertyDto("Pipeline", units))))
+            .andExpect(status().isCreated())
+            .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), PropertyDto.class);
+  }
+
+  private interface Booking {
+    int create(int index) throws Exception;
+  }
+}
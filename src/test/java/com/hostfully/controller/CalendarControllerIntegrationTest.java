@@ -0,0 +1,224 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.CalendarImportDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CalendarControllerIntegrationTest {
+
+  private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testExportContainsReservationsAndBlocks() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    ReservationDto reservation =
+        createReservation(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2));
+    BlockDto block =
+        createBlock(propertyDto.id(), LocalDate.now().plusDays(5), LocalDate.now().plusDays(5));
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/property/{propertyId}/calendar.ics", propertyDto.id()))
+            .andExpect(status().isOk())
+            .andReturn();
+    String ics = result.getResponse().getContentAsString();
+
+    // Then
+    Assertions.assertThat(result.getResponse().getContentType()).startsWith("text/calendar");
+    Assertions.assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotNull();
+    Assertions.assertThat(ics)
+        .startsWith("BEGIN:VCALENDAR\r\n")
+        .contains("UID:" + reservation.id() + "@hostfully\r\n")
+        .contains("DTSTART;VALUE=DATE:" + ICS_DATE.format(LocalDate.now()) + "\r\n")
+        .contains("DTEND;VALUE=DATE:" + ICS_DATE.format(LocalDate.now().plusDays(3)) + "\r\n")
+        .contains("UID:" + block.id() + "@hostfully\r\n")
+        .contains("DTEND;VALUE=DATE:" + ICS_DATE.format(LocalDate.now().plusDays(6)) + "\r\n")
+        .endsWith("END:VCALENDAR\r\n");
+  }
+
+  @Test
+  public void testExportNotModifiedUntilBookingsChange() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    createReservation(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2));
+    String etag =
+        mockMvc
+            .perform(get("/property/{propertyId}/calendar.ics", propertyDto.id()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    // When
+    mockMvc
+        .perform(
+            get("/property/{propertyId}/calendar.ics", propertyDto.id())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+    createBlock(propertyDto.id(), LocalDate.now().plusDays(5), LocalDate.now().plusDays(5));
+
+    // Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/property/{propertyId}/calendar.ics", propertyDto.id())
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn();
+    Assertions.assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+  }
+
+  @Test
+  public void testImportCreatesBlocksAndSkipsOverlaps() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    createReservation(propertyDto.id(), LocalDate.of(2091, 3, 1), LocalDate.of(2091, 3, 3));
+    String ics =
+        String.join(
+            "\r\n",
+            "BEGIN:VCALENDAR",
+            "VERSION:2.0",
+            "BEGIN:VEVENT",
+            "UID:external-1",
+            "DTSTART;VALUE=DATE:20910310",
+            "DTEND;VALUE=DATE:20910313",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:external-2",
+            "DTSTART;VALUE=DATE:20910302",
+            "DTEND;VALUE=DATE:20910305",
+            "END:VEVENT",
+            "END:VCALENDAR");
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/property/{propertyId}/calendar.ics", propertyDto.id())
+                    .contentType("text/calendar")
+                    .content(ics))
+            .andExpect(status().isCreated())
+            .andReturn();
+    CalendarImportDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), CalendarImportDto.class);
+
+    // Then
+    Assertions.assertThat(response.skipped()).isEqualTo(1);
+    Assertions.assertThat(response.created()).hasSize(1);
+    Assertions.assertThat(response.created().get(0).start()).isEqualTo(LocalDate.of(2091, 3, 10));
+    Assertions.assertThat(response.created().get(0).finish()).isEqualTo(LocalDate.of(2091, 3, 12));
+  }
+
+  @Test
+  public void testImportReadsDateTimesInThePropertyZone() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    String ics =
+        String.join(
+            "\r\n",
+            "BEGIN:VCALENDAR",
+            "VERSION:2.0",
+            "BEGIN:VEVENT",
+            "UID:external-utc",
+            "DTSTART:20910401T230000Z",
+            "DTEND:20910404T100000Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:external-tzid",
+            "DTSTART;TZID=America/New_York:20910410T150000",
+            "DTEND;TZID=America/New_York:20910412T110000",
+            "END:VEVENT",
+            "END:VCALENDAR");
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/property/{propertyId}/calendar.ics", propertyDto.id())
+                    .param("zone", "Asia/Tokyo")
+                    .contentType("text/calendar")
+                    .content(ics))
+            .andExpect(status().isCreated())
+            .andReturn();
+    CalendarImportDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), CalendarImportDto.class);
+
+    // Then
+    Assertions.assertThat(response.created())
+        .extracting(BlockDto::start, BlockDto::finish)
+        .containsExactly(
+            Assertions.tuple(LocalDate.of(2091, 4, 2), LocalDate.of(2091, 4, 3)),
+            Assertions.tuple(LocalDate.of(2091, 4, 11), LocalDate.of(2091, 4, 12)));
+  }
+
+  @Test
+  public void testExportOfUnknownProperty() throws Exception {
+    // When
+    // Then
+    mockMvc
+        .perform(get("/property/{propertyId}/calendar.ics", "unknown"))
+        .andExpect(status().isNotFound());
+  }
+
+  private ReservationDto createReservation(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String request =
+        objectMapper.writeValueAsString(
+            new PersistReservationDto(propertyId, start, finish, "Guest name"));
+    MvcResult result =
+        mockMvc
+            .perform(post("/reservation").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isCreated())
+            .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), ReservationDto.class);
+  }
+
+  private BlockDto createBlock(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String request =
+        objectMapper.writeValueAsString(new PersistBlockDto(propertyId, start, finish));
+    MvcResult result =
+        mockMvc
+            .perform(post("/block").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andExpect(status().isCreated())
+            .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), BlockDto.class);
+  }
+
+  private PropertyDto getPropertyDto() throws Exception {
+    String request = objectMapper.writeValueAsString(new PersistPropertyDto("Property name"));
+    MvcResult creationResult =
+        mockMvc
+            .perform(post("/property").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), PropertyDto.class);
+  }
+}
@@ -0,0 +1,51 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(
+    properties = {
+      "hostfully.rate-limit.concurrency.initial-limit=1",
+      "hostfully.rate-limit.concurrency.min-limit=1",
+      "hostfully.rate-limit.concurrency.max-limit=1"
+    })
+@AutoConfigureMockMvc
+public class ConcurrencyLimitIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testRequestOverConcurrencyLimitIsShed() throws Exception {
+    // Given
+    // The streamed listing keeps the only slot until its asynchronous response completes
+    mockMvc.perform(get("/property")).andExpect(request().asyncStarted());
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/property/does-not-exist"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message()).isEqualTo("Service is overloaded, try again later");
+  }
+}
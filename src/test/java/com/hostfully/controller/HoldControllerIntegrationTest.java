@@ -0,0 +1,272 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.ConvertHoldDto;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.controller.dtos.HoldDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistHoldDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class HoldControllerIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testReservationOverlappingHoldIsRejected() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    HoldDto hold = getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), null);
+
+    // When
+    MvcResult result =
+        createReservation(
+                propertyDto.id(), LocalDate.now().plusDays(1), LocalDate.now().plusDays(3))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message())
+        .isEqualTo(
+            String.format(
+                "Selected range is overlapping with previously defined hold(s): (%s until %s)",
+                hold.start(), hold.finish()));
+    Assertions.assertThat(response.conflicts()).hasSize(1);
+    Assertions.assertThat(response.conflicts().get(0).id()).isNull();
+    Assertions.assertThat(result.getResponse().getContentAsString()).doesNotContain(hold.id());
+  }
+
+  @Test
+  public void testHoldsTakeUnitsOfMultiUnitProperty() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto(2);
+    LocalDate start = LocalDate.now().plusDays(5);
+    createReservation(propertyDto.id(), start, start.plusDays(1))
+        .andExpect(status().isCreated());
+    getHoldDto(propertyDto.id(), start, start.plusDays(1), null);
+
+    // When
+    ResultActions result = createReservation(propertyDto.id(), start, start.plusDays(1));
+
+    // Then
+    result.andExpect(status().isBadRequest());
+    createHold(propertyDto.id(), start, start.plusDays(1), null)
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testReservationOverBlockAndHoldOfMultiUnitPropertyIsRejected() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto(2);
+    LocalDate start = LocalDate.now().plusDays(5);
+    String block =
+        objectMapper.writeValueAsString(
+            new PersistBlockDto(propertyDto.id(), start, start.plusDays(1)));
+    mockMvc
+        .perform(post("/block").contentType(MediaType.APPLICATION_JSON).content(block))
+        .andExpect(status().isCreated());
+    getHoldDto(propertyDto.id(), start.plusDays(2), start.plusDays(3), null);
+
+    // When
+    MvcResult result =
+        createReservation(propertyDto.id(), start, start.plusDays(3))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message())
+        .startsWith("Selected range is overlapping with previously defined block(s)");
+  }
+
+  @Test
+  public void testHoldConvertedOnMultiUnitPropertyDoesNotCountItself() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto(2);
+    LocalDate start = LocalDate.now().plusDays(5);
+    createReservation(propertyDto.id(), start, start.plusDays(1))
+        .andExpect(status().isCreated());
+    HoldDto hold = getHoldDto(propertyDto.id(), start, start.plusDays(1), null);
+
+    // When
+    ResultActions result =
+        mockMvc.perform(
+            post("/property/{propertyId}/holds/{holdId}/reservation", propertyDto.id(), hold.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ConvertHoldDto("Guest name"))));
+
+    // Then
+    result.andExpect(status().isCreated());
+    createReservation(propertyDto.id(), start, start.plusDays(1))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testBlockOverlappingHoldIsRejected() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), null);
+    String request =
+        objectMapper.writeValueAsString(
+            new PersistBlockDto(propertyDto.id(), LocalDate.now(), LocalDate.now()));
+
+    // When
+    // Then
+    mockMvc
+        .perform(post("/block").contentType(MediaType.APPLICATION_JSON).content(request))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testOverlappingHoldIsRejected() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), null);
+
+    // When
+    // Then
+    createHold(propertyDto.id(), LocalDate.now().plusDays(2), LocalDate.now().plusDays(4), null)
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testHoldConvertedIntoReservation() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    HoldDto hold = getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), null);
+    String request = objectMapper.writeValueAsString(new ConvertHoldDto("Guest name"));
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                post(
+                        "/property/{propertyId}/holds/{holdId}/reservation",
+                        propertyDto.id(),
+                        hold.id())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(request))
+            .andExpect(status().isCreated())
+            .andReturn();
+    ReservationDto reservation =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ReservationDto.class);
+
+    // Then
+    Assertions.assertThat(reservation.start()).isEqualTo(hold.start());
+    Assertions.assertThat(reservation.finish()).isEqualTo(hold.finish());
+    Assertions.assertThat(reservation.guestName()).isEqualTo("Guest name");
+    mockMvc
+        .perform(get("/property/{propertyId}/holds/{holdId}", propertyDto.id(), hold.id()))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testReleasedHoldFreesDates() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    HoldDto hold = getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), null);
+
+    // When
+    mockMvc
+        .perform(delete("/property/{propertyId}/holds/{holdId}", propertyDto.id(), hold.id()))
+        .andExpect(status().isNoContent());
+
+    // Then
+    createReservation(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(1))
+        .andExpect(status().isCreated());
+  }
+
+  @Test
+  public void testExpiredHoldFreesDates() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    HoldDto hold = getHoldDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(2), 1L);
+
+    // When
+    Thread.sleep(1100);
+
+    // Then
+    mockMvc
+        .perform(get("/property/{propertyId}/holds/{holdId}", propertyDto.id(), hold.id()))
+        .andExpect(status().isNotFound());
+    createReservation(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(1))
+        .andExpect(status().isCreated());
+  }
+
+  @Test
+  public void testHoldOnUnknownProperty() throws Exception {
+    // When
+    // Then
+    createHold("unknown", LocalDate.now(), LocalDate.now().plusDays(1), null)
+        .andExpect(status().isNotFound());
+  }
+
+  private ResultActions createReservation(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String request =
+        objectMapper.writeValueAsString(
+            new PersistReservationDto(propertyId, start, finish, "Guest name"));
+    return mockMvc.perform(
+        post("/reservation").contentType(MediaType.APPLICATION_JSON).content(request));
+  }
+
+  private ResultActions createHold(
+      String propertyId, LocalDate start, LocalDate finish, Long ttlSeconds) throws Exception {
+    String request =
+        objectMapper.writeValueAsString(new PersistHoldDto(start, finish, ttlSeconds));
+    return mockMvc.perform(
+        post("/property/{propertyId}/holds", propertyId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(request));
+  }
+
+  private HoldDto getHoldDto(
+      String propertyId, LocalDate start, LocalDate finish, Long ttlSeconds) throws Exception {
+    MvcResult creationResult =
+        createHold(propertyId, start, finish, ttlSeconds)
+            .andExpect(status().isCreated())
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), HoldDto.class);
+  }
+
+  private PropertyDto getPropertyDto() throws Exception {
+    return getPropertyDto(1);
+  }
+
+  private PropertyDto getPropertyDto(int units) throws Exception {
+    String request =
+        objectMapper.writeValueAsString(new PersistPropertyDto("Property name", units));
+    MvcResult creationResult =
+        mockMvc
+            .perform(post("/property").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), PropertyDto.class);
+  }
+}
@@ -0,0 +1,133 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest(properties = "hostfully.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+public class MultiUnitPropertyIntegrationTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testOverlappingReservationsAreTakenUpToTheUnits() throws Exception {
+    // Given
+    String propertyId = createProperty(2);
+    ReservationDto first =
+        readReservation(
+            reserve(propertyId, START, START.plusDays(3)).andExpect(status().isCreated()));
+    reserve(propertyId, START.plusDays(2), START.plusDays(5)).andExpect(status().isCreated());
+
+    // When
+    reserve(propertyId, START.plusDays(3), START.plusDays(4))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.conflicts.length()").value(2));
+
+    // Then
+    reserve(propertyId, START.plusDays(4), START.plusDays(6)).andExpect(status().isCreated());
+    mockMvc
+        .perform(put("/reservation/" + first.id() + "/cancel"))
+        .andExpect(status().isNoContent());
+    reserve(propertyId, START.plusDays(3), START.plusDays(3)).andExpect(status().isCreated());
+  }
+
+  @Test
+  public void testBlockClosesEveryUnit() throws Exception {
+    // Given
+    String propertyId = createProperty(3);
+    mockMvc
+        .perform(
+            post("/block")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistBlockDto(propertyId, START.plusDays(1), START.plusDays(1)))))
+        .andExpect(status().isCreated());
+
+    // When
+    ResultActions result = reserve(propertyId, START, START.plusDays(2));
+
+    // Then
+    result
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.conflicts[0].type").value("block"));
+    reserve(propertyId, START.plusDays(2), START.plusDays(4)).andExpect(status().isCreated());
+  }
+
+  @Test
+  public void testLoweringUnitsAppliesToNewReservations() throws Exception {
+    // Given
+    String propertyId = createProperty(2);
+    reserve(propertyId, START, START.plusDays(3)).andExpect(status().isCreated());
+
+    // When
+    String response =
+        mockMvc
+            .perform(
+                put("/property/" + propertyId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new PersistPropertyDto("name", 1))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    // Then
+    Assertions.assertThat(objectMapper.readValue(response, PropertyDto.class).units())
+        .isEqualTo(1);
+    reserve(propertyId, START.plusDays(1), START.plusDays(2)).andExpect(status().isBadRequest());
+  }
+
+  private String createProperty(int units) throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new PersistPropertyDto("name", units))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.units").value(units))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, PropertyDto.class).id();
+  }
+
+  private ResultActions reserve(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    return mockMvc.perform(
+        post("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(
+                objectMapper.writeValueAsString(
+                    new PersistReservationDto(propertyId, start, finish, "guestName"))));
+  }
+
+  private ReservationDto readReservation(ResultActions result) throws Exception {
+    return objectMapper.readValue(
+        result.andReturn().getResponse().getContentAsString(), ReservationDto.class);
+  }
+}
@@ -0,0 +1,182 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest(properties = "hostfully.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+public class NextAvailableIntegrationTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testWindowSkipsBookingsTooCloseTogether() throws Exception {
+    // Given
+    String propertyId = createProperty(1);
+    reserve(propertyId, START, START.plusDays(3)).andExpect(status().isCreated());
+    block(propertyId, START.plusDays(6), START.plusDays(7));
+
+    // When
+    ResultActions result = nextAvailable(propertyId, 3, START);
+
+    // Then
+    result
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.propertyId").value(propertyId))
+        .andExpect(jsonPath("$.start").value(START.plusDays(8).toString()))
+        .andExpect(jsonPath("$.finish").value(START.plusDays(10).toString()));
+    nextAvailable(propertyId, 2, START)
+        .andExpect(jsonPath("$.start").value(START.plusDays(4).toString()))
+        .andExpect(jsonPath("$.finish").value(START.plusDays(5).toString()));
+  }
+
+  @Test
+  public void testWindowFollowsLaterBookings() throws Exception {
+    // Given
+    String propertyId = createProperty(1);
+    ReservationDto reservation =
+        readReservation(
+            reserve(propertyId, START, START.plusDays(3)).andExpect(status().isCreated()));
+    nextAvailable(propertyId, 2, START)
+        .andExpect(jsonPath("$.start").value(START.plusDays(4).toString()));
+
+    // When
+    reserve(propertyId, START.plusDays(4), START.plusDays(5)).andExpect(status().isCreated());
+    mockMvc
+        .perform(put("/reservation/" + reservation.id() + "/cancel"))
+        .andExpect(status().isNoContent());
+
+    // Then
+    nextAvailable(propertyId, 2, START)
+        .andExpect(jsonPath("$.start").value(START.toString()))
+        .andExpect(jsonPath("$.finish").value(START.plusDays(1).toString()));
+    nextAvailable(propertyId, 5, START)
+        .andExpect(jsonPath("$.start").value(START.plusDays(6).toString()));
+  }
+
+  @Test
+  public void testWindowOfMultiUnitPropertyNeedsOneFreeUnit() throws Exception {
+    // Given
+    String propertyId = createProperty(2);
+    reserve(propertyId, START, START.plusDays(3)).andExpect(status().isCreated());
+    reserve(propertyId, START.plusDays(2), START.plusDays(5)).andExpect(status().isCreated());
+
+    // When
+    ResultActions result = nextAvailable(propertyId, 4, START);
+
+    // Then
+    result.andExpect(jsonPath("$.start").value(START.plusDays(4).toString()));
+    nextAvailable(propertyId, 2, START).andExpect(jsonPath("$.start").value(START.toString()));
+    reserve(propertyId, START.plusDays(4), START.plusDays(7)).andExpect(status().isCreated());
+  }
+
+  @Test
+  public void testWindowsOfSeveralPropertiesAreSortedByStart() throws Exception {
+    // Given
+    String booked = createProperty(1);
+    String free = createProperty(1);
+    reserve(booked, START, START.plusDays(3)).andExpect(status().isCreated());
+
+    // When
+    ResultActions result =
+        mockMvc.perform(
+            get("/property/next-available")
+                .param("ids", booked, free, "unknown")
+                .param("nights", "2")
+                .param("from", START.toString()));
+
+    // Then
+    result
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].propertyId").value(free))
+        .andExpect(jsonPath("$[0].start").value(START.toString()))
+        .andExpect(jsonPath("$[1].propertyId").value(booked))
+        .andExpect(jsonPath("$[1].start").value(START.plusDays(4).toString()));
+  }
+
+  @Test
+  public void testInvalidSearchesAreRejected() throws Exception {
+    // Given
+    String propertyId = createProperty(1);
+
+    // When
+    ResultActions unknown = nextAvailable("unknown", 2, START);
+
+    // Then
+    unknown.andExpect(status().isNotFound());
+    nextAvailable(propertyId, 0, START).andExpect(status().isBadRequest());
+    nextAvailable(propertyId, 2, LocalDate.now().minusDays(1)).andExpect(status().isBadRequest());
+  }
+
+  private ResultActions nextAvailable(String propertyId, int nights, LocalDate from)
+      throws Exception {
+    return mockMvc.perform(
+        get("/property/" + propertyId + "/next-available")
+            .param("nights", String.valueOf(nights))
+            .param("from", from.toString()));
+  }
+
+  private String createProperty(int units) throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new PersistPropertyDto("name", units))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, PropertyDto.class).id();
+  }
+
+  private ResultActions reserve(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    return mockMvc.perform(
+        post("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(
+                objectMapper.writeValueAsString(
+                    new PersistReservationDto(propertyId, start, finish, "guestName"))));
+  }
+
+  private void block(String propertyId, LocalDate start, LocalDate finish) throws Exception {
+    mockMvc
+        .perform(
+            post("/block")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistBlockDto(propertyId, start, finish))))
+        .andExpect(status().isCreated());
+  }
+
+  private ReservationDto readReservation(ResultActions result) throws Exception {
+    return objectMapper.readValue(
+        result.andReturn().getResponse().getContentAsString(), ReservationDto.class);
+  }
+}
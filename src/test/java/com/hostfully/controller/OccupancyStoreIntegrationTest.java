@@ -0,0 +1,183 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.occupancy.OccupancyStore;
+import com.hostfully.occupancy.OccupancyStore.Availability;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+    properties = {"hostfully.occupancy.enabled=true", "hostfully.rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+public class OccupancyStoreIntegrationTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+  private static final Path FILE = temporaryFile();
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private OccupancyStore occupancyStore;
+
+  @DynamicPropertySource
+  static void occupancyFile(DynamicPropertyRegistry registry) {
+    registry.add("hostfully.occupancy.file", FILE::toString);
+  }
+
+  @Test
+  public void testOverlapIsRejectedWithItsConflicts() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    ReservationDto first = createReservation(propertyId, START, START.plusDays(3));
+
+    // When
+    mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(
+                            propertyId, START.plusDays(2), START.plusDays(5), "guestName"))))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.conflicts[0].id").value(first.id()));
+
+    // Then
+    Assertions.assertThat(occupancyStore.check(propertyId, START, START, null))
+        .isEqualTo(Availability.OCCUPIED);
+    Assertions.assertThat(
+            occupancyStore.check(propertyId, START.plusDays(4), START.plusDays(9), null))
+        .isEqualTo(Availability.FREE);
+  }
+
+  @Test
+  public void testCancelledReservationFreesItsNights() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    ReservationDto reservation = createReservation(propertyId, START, START.plusDays(3));
+
+    // When
+    mockMvc
+        .perform(put("/reservation/" + reservation.id() + "/cancel"))
+        .andExpect(status().isNoContent());
+
+    // Then
+    Assertions.assertThat(occupancyStore.check(propertyId, START, START.plusDays(3), null))
+        .isEqualTo(Availability.FREE);
+    createReservation(propertyId, START.plusDays(1), START.plusDays(2));
+  }
+
+  @Test
+  public void testReservationCanBeMovedOverItsOwnNights() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    ReservationDto reservation = createReservation(propertyId, START, START.plusDays(3));
+
+    // When
+    mockMvc
+        .perform(
+            put("/reservation/" + reservation.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(
+                            propertyId, START.plusDays(2), START.plusDays(6), "guestName"))))
+        .andExpect(status().isOk());
+
+    // Then
+    Assertions.assertThat(occupancyStore.check(propertyId, START, START.plusDays(1), null))
+        .isEqualTo(Availability.FREE);
+    Assertions.assertThat(
+            occupancyStore.check(propertyId, START.plusDays(6), START.plusDays(6), null))
+        .isEqualTo(Availability.OCCUPIED);
+  }
+
+  @Test
+  public void testDeletedBlockFreesItsNights() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    String response =
+        mockMvc
+            .perform(
+                post("/block")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistBlockDto(propertyId, START, START.plusDays(1)))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    BlockDto block = objectMapper.readValue(response, BlockDto.class);
+
+    // When
+    mockMvc.perform(delete("/block/" + block.id())).andExpect(status().isNoContent());
+
+    // Then
+    Assertions.assertThat(occupancyStore.check(propertyId, START, START.plusDays(1), null))
+        .isEqualTo(Availability.FREE);
+  }
+
+  private String createProperty() throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new PersistPropertyDto("name"))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, PropertyDto.class).id();
+  }
+
+  private ReservationDto createReservation(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistReservationDto(propertyId, start, finish, "guestName"))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, ReservationDto.class);
+  }
+
+  private static Path temporaryFile() {
+    try {
+      return Files.createTempDirectory("occupancy").resolve("occupancy.bin");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.hostfully.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -13,16 +14,23 @@ import com.hostfully.controller.dtos.PersistBlockDto;
 import com.hostfully.controller.dtos.PersistPropertyDto;
 import com.hostfully.controller.dtos.PersistReservationDto;
 import com.hostfully.controller.dtos.PropertyDto;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -32,6 +40,8 @@ public class PropertyControllerIntegrationTest {
 
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private MappingJackson2CborHttpMessageConverter cborConverter;
+
   @Test
   public void testSuccessfulPropertyCreation() throws Exception {
     // Given
@@ -52,6 +62,7 @@ public class PropertyControllerIntegrationTest {
     // Then
     Assertions.assertThat(response.name()).isEqualTo("Property name");
     Assertions.assertThat(response.name()).isNotEmpty();
+    Assertions.assertThat(response.units()).isEqualTo(1);
   }
 
   @Test
@@ -114,9 +125,11 @@ public class PropertyControllerIntegrationTest {
     }
 
     // When
+    MvcResult asyncResult =
+        mockMvc.perform(get("/property")).andExpect(request().asyncStarted()).andReturn();
     MvcResult result =
         mockMvc
-            .perform(get("/property"))
+            .perform(asyncDispatch(asyncResult))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andReturn();
@@ -165,6 +178,167 @@ public class PropertyControllerIntegrationTest {
     Assertions.assertThat(foundById).isEqualTo(created);
   }
 
+  @Test
+  public void testSuccessfulFindByIdAsCbor() throws Exception {
+    // Given
+    String request = objectMapper.writeValueAsString(new PersistPropertyDto("Property name"));
+    MvcResult creationResult =
+        mockMvc
+            .perform(post("/property").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andReturn();
+    PropertyDto created =
+        objectMapper.readValue(
+            creationResult.getResponse().getContentAsString(), PropertyDto.class);
+    mockMvc.perform(
+        post("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(
+                objectMapper.writeValueAsString(
+                    new PersistReservationDto(
+                        created.id(), LocalDate.now(), LocalDate.now().plusDays(1), "guestName"))));
+    String jsonResponse =
+        mockMvc
+            .perform(get("/property/" + created.id()))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/property/" + created.id()).accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn();
+    byte[] cborResponse = result.getResponse().getContentAsByteArray();
+    PropertyDto foundById =
+        cborConverter.getObjectMapper().readValue(cborResponse, PropertyDto.class);
+
+    // Then
+    Assertions.assertThat(foundById)
+        .isEqualTo(objectMapper.readValue(jsonResponse, PropertyDto.class));
+    Assertions.assertThat(cborResponse.length).isLessThan(jsonResponse.length());
+  }
+
+  @Test
+  public void testFindByIdHonoursQualityValues() throws Exception {
+    // Given
+    PropertyDto created = createProperty();
+
+    // When
+    ResultActions result =
+        mockMvc.perform(
+            get("/property/" + created.id())
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"));
+
+    // Then
+    result.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+  }
+
+  @Test
+  public void testFindAllWithUnsupportedAcceptIsNotAcceptable() throws Exception {
+    // Given
+    createProperty();
+
+    // When
+    ResultActions result = mockMvc.perform(get("/property").accept(MediaType.APPLICATION_XML));
+
+    // Then
+    result.andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  public void testJsonAndCborLeaveOutTheSameFields() throws Exception {
+    // Given
+    String path = "/property/no-property-whatsoever";
+
+    // When
+    String json = mockMvc.perform(get(path)).andReturn().getResponse().getContentAsString();
+    byte[] cbor =
+        mockMvc
+            .perform(get(path).accept(MediaType.APPLICATION_CBOR))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    // Then
+    List<String> jsonFields = new ArrayList<>();
+    objectMapper.readTree(json).fieldNames().forEachRemaining(jsonFields::add);
+    List<String> cborFields = new ArrayList<>();
+    cborConverter.getObjectMapper().readTree(cbor).fieldNames().forEachRemaining(cborFields::add);
+    Assertions.assertThat(jsonFields).containsExactly("message");
+    Assertions.assertThat(cborFields).isEqualTo(jsonFields);
+  }
+
+  @Test
+  public void testFindByIdSeesReservationCreatedAfterCachedRead() throws Exception {
+    // Given
+    PropertyDto created = createProperty();
+    mockMvc.perform(get("/property/" + created.id())).andExpect(status().isOk());
+    mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(
+                            created.id(),
+                            LocalDate.now(),
+                            LocalDate.now().plusDays(1),
+                            "guestName"))))
+        .andExpect(status().isCreated());
+
+    // When
+    MvcResult result =
+        mockMvc.perform(get("/property/" + created.id())).andExpect(status().isOk()).andReturn();
+    PropertyDto foundById =
+        objectMapper.readValue(result.getResponse().getContentAsString(), PropertyDto.class);
+
+    // Then
+    Assertions.assertThat(foundById.reservations()).hasSize(1);
+  }
+
+  @Test
+  public void testFindByIdServesLargeResponseGzipped() throws Exception {
+    // Given
+    PropertyDto created = createProperty();
+    for (int i = 0; i < 30; i++) {
+      LocalDate start = LocalDate.now().plusDays(3L * i);
+      mockMvc
+          .perform(
+              post("/reservation")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(
+                      objectMapper.writeValueAsString(
+                          new PersistReservationDto(
+                              created.id(), start, start.plusDays(1), "guestName"))))
+          .andExpect(status().isCreated());
+    }
+    String plain =
+        mockMvc
+            .perform(get("/property/" + created.id()))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/property/" + created.id()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn();
+    byte[] gzipped = result.getResponse().getContentAsByteArray();
+
+    // Then
+    try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      Assertions.assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(plain);
+    }
+    Assertions.assertThat(gzipped.length).isLessThan(plain.length());
+  }
+
   @Test
   public void testFindByIdNotFound() throws Exception {
     // Given
@@ -307,7 +481,9 @@ public class PropertyControllerIntegrationTest {
     // When
     mockMvc
         .perform(delete("/property/" + created.id()))
-        .andExpect(status().isNoContent())
+        .andExpect(status().isAccepted())
+        .andExpect(header().exists(HttpHeaders.LOCATION))
+        .andExpect(jsonPath("$.propertyId").value(created.id()))
         .andReturn();
 
     MvcResult result =
@@ -324,6 +500,41 @@ public class PropertyControllerIntegrationTest {
         .isEqualTo("Could not find property for the id: " + created.id());
   }
 
+  @Test
+  public void testBookingsOfDeletedPropertyAreRejected() throws Exception {
+    // Given
+    PropertyDto created = createProperty();
+    mockMvc.perform(delete("/property/" + created.id())).andExpect(status().isAccepted());
+    LocalDate start = LocalDate.now().plusDays(1);
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistReservationDto(
+                                created.id(), start, start.plusDays(2), "guestName"))))
+            .andExpect(status().isNotFound())
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message())
+        .isEqualTo("Could not find property for the id: " + created.id());
+    mockMvc
+        .perform(
+            post("/block")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistBlockDto(created.id(), start, start.plusDays(2)))))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   public void testDeleteNotFound() throws Exception {
     // Given
@@ -339,4 +550,14 @@ public class PropertyControllerIntegrationTest {
     // Then
     Assertions.assertThat(result.getResponse().getContentLength()).isZero();
   }
+
+  private PropertyDto createProperty() throws Exception {
+    String request = objectMapper.writeValueAsString(new PersistPropertyDto("Property name"));
+    MvcResult creationResult =
+        mockMvc
+            .perform(post("/property").contentType(MediaType.APPLICATION_JSON).content(request))
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), PropertyDto.class);
+  }
 }
@@ -0,0 +1,184 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest(
+    properties = {
+      "hostfully.rate-limit.enabled=false",
+      "hostfully.property-deletion.chunk-size=2"
+    })
+@AutoConfigureMockMvc
+public class PropertyDeletionIntegrationTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testPropertyIsDeletedWithItsBookingsInChunks() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    ReservationDto reservation = reserve(propertyId, START, START.plusDays(1));
+    reserve(propertyId, START.plusDays(2), START.plusDays(3));
+    reserve(propertyId, START.plusDays(4), START.plusDays(5));
+    block(propertyId, START.plusDays(6), START.plusDays(7));
+    block(propertyId, START.plusDays(8), START.plusDays(9));
+
+    // When
+    PropertyDeletionDto deletion =
+        readDeletion(deleteProperty(propertyId).andExpect(status().isAccepted()));
+    PropertyDeletionDto finished = awaitFinished(deletion.id());
+
+    // Then
+    Assertions.assertThat(finished.status()).isEqualTo("COMPLETED");
+    Assertions.assertThat(finished.reservationsDeleted()).isEqualTo(3);
+    Assertions.assertThat(finished.blocksDeleted()).isEqualTo(2);
+    Assertions.assertThat(finished.finishedAt()).isNotNull();
+    mockMvc.perform(get("/property/" + propertyId)).andExpect(status().isNotFound());
+    mockMvc.perform(get("/reservation/" + reservation.id())).andExpect(status().isNotFound());
+    deleteProperty(propertyId).andExpect(status().isNoContent());
+  }
+
+  @Test
+  public void testPropertyIsFreedForNewBookingsOnceDeleted() throws Exception {
+    // Given
+    String deleted = createProperty();
+    reserve(deleted, START, START.plusDays(1));
+    String kept = createProperty();
+    reserve(kept, START, START.plusDays(1));
+
+    // When
+    awaitFinished(readDeletion(deleteProperty(deleted)).id());
+
+    // Then
+    mockMvc
+        .perform(get("/property/" + kept))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.reservations.length()").value(1));
+    mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(deleted, START, START, "guestName"))))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testCalendarFeedOfDeletedPropertyIsNotServedFromCache() throws Exception {
+    // Given
+    String propertyId = createProperty();
+    reserve(propertyId, START, START.plusDays(1));
+    mockMvc.perform(get("/property/" + propertyId + "/calendar.ics")).andExpect(status().isOk());
+
+    // When
+    awaitFinished(readDeletion(deleteProperty(propertyId)).id());
+
+    // Then
+    mockMvc
+        .perform(get("/property/" + propertyId + "/calendar.ics"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testUnknownDeletionIsNotFound() throws Exception {
+    // Given
+    // No deletion requested
+
+    // When
+    ResultActions result = mockMvc.perform(get("/property/deletions/unknown"));
+
+    // Then
+    result.andExpect(status().isNotFound());
+  }
+
+  private PropertyDeletionDto awaitFinished(String deletionId) throws Exception {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (true) {
+      PropertyDeletionDto deletion =
+          readDeletion(
+              mockMvc
+                  .perform(get("/property/deletions/" + deletionId))
+                  .andExpect(status().isOk()));
+      if (deletion.finishedAt() != null || System.nanoTime() > deadline) {
+        return deletion;
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private ResultActions deleteProperty(String propertyId) throws Exception {
+    return mockMvc.perform(delete("/property/" + propertyId));
+  }
+
+  private String createProperty() throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new PersistPropertyDto("name"))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, PropertyDto.class).id();
+  }
+
+  private ReservationDto reserve(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistReservationDto(propertyId, start, finish, "guestName"))))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, ReservationDto.class);
+  }
+
+  private void block(String propertyId, LocalDate start, LocalDate finish) throws Exception {
+    mockMvc
+        .perform(
+            post("/block")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistBlockDto(propertyId, start, finish))))
+        .andExpect(status().isCreated());
+  }
+
+  private PropertyDeletionDto readDeletion(ResultActions result) throws Exception {
+    return objectMapper.readValue(
+        result.andReturn().getResponse().getContentAsString(), PropertyDeletionDto.class);
+  }
+}
@@ -0,0 +1,139 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest(
+    properties = {
+      "hostfully.rate-limit.client.capacity=3",
+      "hostfully.rate-limit.client.refill-per-second=0.001",
+      "hostfully.rate-limit.property.capacity=2",
+      "hostfully.rate-limit.property.refill-per-second=0.001"
+    })
+@AutoConfigureMockMvc
+public class RateLimitIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testBlockCreationOverPropertyLimit() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto("10.0.0.2");
+    createBlock("10.0.1.1", propertyDto.id(), 0).andExpect(status().isCreated());
+    createBlock("10.0.1.2", propertyDto.id(), 2).andExpect(status().isCreated());
+
+    // When
+    MvcResult result =
+        createBlock("10.0.1.3", propertyDto.id(), 4)
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message())
+        .isEqualTo("Too many requests for property " + propertyDto.id());
+  }
+
+  @Test
+  public void testRequestsOverClientLimit() throws Exception {
+    // Given
+    for (int i = 0; i < 3; i++) {
+      mockMvc
+          .perform(get("/property/does-not-exist").with(remoteAddress("10.0.0.1")))
+          .andExpect(status().isNotFound());
+    }
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/property/does-not-exist").with(remoteAddress("10.0.0.1")))
+            .andExpect(status().isTooManyRequests())
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.message()).isEqualTo("Too many requests for this client");
+  }
+
+  @Test
+  public void testHeaderDoesNotChooseTheClient() throws Exception {
+    // Given
+    for (int i = 0; i < 3; i++) {
+      mockMvc
+          .perform(
+              get("/property/does-not-exist")
+                  .with(remoteAddress("10.0.0.3"))
+                  .header("X-Api-Client", "client-" + i))
+          .andExpect(status().isNotFound());
+    }
+
+    // When
+    ResultActions result =
+        mockMvc.perform(
+            get("/property/does-not-exist")
+                .with(remoteAddress("10.0.0.3"))
+                .header("X-Api-Client", "fresh-client"));
+
+    // Then
+    result.andExpect(status().isTooManyRequests());
+  }
+
+  private static RequestPostProcessor remoteAddress(String address) {
+    return request -> {
+      request.setRemoteAddr(address);
+      return request;
+    };
+  }
+
+  private PropertyDto getPropertyDto(String client) throws Exception {
+    String request = objectMapper.writeValueAsString(new PersistPropertyDto("Property name"));
+    MvcResult creationResult =
+        mockMvc
+            .perform(
+                post("/property")
+                    .with(remoteAddress(client))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(request))
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), PropertyDto.class);
+  }
+
+  private ResultActions createBlock(String client, String propertyId, int offset)
+      throws Exception {
+    LocalDate start = LocalDate.now().plusDays(offset);
+    return mockMvc.perform(
+        post("/block")
+            .with(remoteAddress(client))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(
+                objectMapper.writeValueAsString(new PersistBlockDto(propertyId, start, start))));
+  }
+}
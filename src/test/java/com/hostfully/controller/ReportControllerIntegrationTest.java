@@ -0,0 +1,193 @@
+package com.hostfully.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.controller.dtos.OccupancyReportDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReportControllerIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void testOccupancyReportAsJson() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDtoWithBookings();
+
+    // When
+    MvcResult result =
+        stream(get("/report/occupancy").param("from", "2090-01-01").param("to", "2090-02-28"))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andReturn();
+    List<OccupancyReportDto> response =
+        objectMapper.readValue(
+            result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+    // Then
+    Assertions.assertThat(response)
+        .filteredOn(row -> row.propertyId().equals(propertyDto.id()))
+        .containsExactly(
+            new OccupancyReportDto(
+                propertyDto.id(), "Report property", YearMonth.of(2090, 1), 31, 2, 0, 0.0645),
+            new OccupancyReportDto(
+                propertyDto.id(), "Report property", YearMonth.of(2090, 2), 28, 2, 2, 0.0769));
+  }
+
+  @Test
+  public void testOccupancyReportAsCsv() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDtoWithBookings();
+
+    // When
+    MvcResult result =
+        stream(
+                get("/report/occupancy")
+                    .param("from", "2090-02-01")
+                    .param("to", "2090-02-28")
+                    .param("format", "csv"))
+            .andExpect(content().contentType("text/csv"))
+            .andReturn();
+    List<String> lines = result.getResponse().getContentAsString().lines().toList();
+
+    // Then
+    Assertions.assertThat(lines.get(0))
+        .isEqualTo(
+            "property_id,property_name,month,nights,nights_booked,nights_blocked,occupancy_rate");
+    Assertions.assertThat(lines)
+        .contains(propertyDto.id() + ",Report property,2090-02,28,2,2,0.0769");
+  }
+
+  @Test
+  public void testOccupancyReportCountsOnlyNightsInTheRange() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDtoWithBookings();
+
+    // When
+    MvcResult result =
+        stream(get("/report/occupancy").param("from", "2090-01-31").param("to", "2090-02-10"))
+            .andReturn();
+    List<OccupancyReportDto> response =
+        objectMapper.readValue(
+            result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+    // Then
+    Assertions.assertThat(response)
+        .filteredOn(row -> row.propertyId().equals(propertyDto.id()))
+        .containsExactly(
+            new OccupancyReportDto(
+                propertyDto.id(), "Report property", YearMonth.of(2090, 1), 1, 1, 0, 1.0),
+            new OccupancyReportDto(
+                propertyDto.id(), "Report property", YearMonth.of(2090, 2), 10, 2, 1, 0.2222));
+  }
+
+  @Test
+  public void testOccupancyReportRateCountsEveryUnit() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto(2);
+    for (int i = 0; i < 2; i++) {
+      createReservation(propertyDto.id(), LocalDate.of(2090, 3, 1), LocalDate.of(2090, 3, 2));
+    }
+
+    // When
+    MvcResult result =
+        stream(get("/report/occupancy").param("from", "2090-03-01").param("to", "2090-03-31"))
+            .andReturn();
+    List<OccupancyReportDto> response =
+        objectMapper.readValue(
+            result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+    // Then
+    Assertions.assertThat(response)
+        .filteredOn(row -> row.propertyId().equals(propertyDto.id()))
+        .containsExactly(
+            new OccupancyReportDto(
+                propertyDto.id(), "Report property", YearMonth.of(2090, 3), 31, 4, 0, 0.0645));
+  }
+
+  @Test
+  public void testOccupancyReportWithInvalidRange() throws Exception {
+    // When
+    // Then
+    mockMvc
+        .perform(get("/report/occupancy").param("from", "2090-02-01").param("to", "2090-01-01"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private ResultActions stream(
+      MockHttpServletRequestBuilder requestBuilder) throws Exception {
+    MvcResult asyncResult =
+        mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+    return mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk());
+  }
+
+  /** One reservation across the end of January 2090 and a block in February. */
+  private PropertyDto getPropertyDtoWithBookings() throws Exception {
+    PropertyDto propertyDto = getPropertyDto(1);
+    createReservation(propertyDto.id(), LocalDate.of(2090, 1, 30), LocalDate.of(2090, 2, 2));
+    mockMvc
+        .perform(
+            post("/block")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistBlockDto(
+                            propertyDto.id(),
+                            LocalDate.of(2090, 2, 10),
+                            LocalDate.of(2090, 2, 11)))))
+        .andExpect(status().isCreated());
+    return propertyDto;
+  }
+
+  private void createReservation(String propertyId, LocalDate start, LocalDate finish)
+      throws Exception {
+    mockMvc
+        .perform(
+            post("/reservation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new PersistReservationDto(propertyId, start, finish, "Guest name"))))
+        .andExpect(status().isCreated());
+  }
+
+  private PropertyDto getPropertyDto(int units) throws Exception {
+    MvcResult creationResult =
+        mockMvc
+            .perform(
+                post("/property")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PersistPropertyDto("Report property", units))))
+            .andReturn();
+    return objectMapper.readValue(
+        creationResult.getResponse().getContentAsString(), PropertyDto.class);
+  }
+}
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.ConflictDto;
 import com.hostfully.controller.dtos.ErrorResponseDto;
 import com.hostfully.controller.dtos.PersistBlockDto;
 import com.hostfully.controller.dtos.PersistPropertyDto;
@@ -114,6 +115,31 @@ public class ReservationControllerIntegrationTest {
             "finish is mandatory");
   }
 
+  @Test
+  public void testReservationCreationWithTooLongGuestName() throws Exception {
+    // Given
+    PropertyDto propertyDto = getPropertyDto();
+    PersistReservationDto createReservationDto =
+        new PersistReservationDto(
+            propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(1), "a".repeat(256));
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/reservation")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createReservationDto)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andReturn();
+    ErrorResponseDto response =
+        objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+    // Then
+    Assertions.assertThat(response.errors()).contains("guestName is at most 255 characters");
+  }
+
   @Test
   public void testReservationCreationDuringBlockPeriod() throws Exception {
     // Given
@@ -142,6 +168,9 @@ public class ReservationControllerIntegrationTest {
             String.format(
                 "Selected range is overlapping with previously defined block(s): (%s: %s until %s)",
                 blockDto.id(), blockDto.start(), blockDto.finish()));
+    Assertions.assertThat(response.conflicts())
+        .containsExactly(
+            new ConflictDto("block", blockDto.id(), blockDto.start(), blockDto.finish()));
   }
 
   @Test
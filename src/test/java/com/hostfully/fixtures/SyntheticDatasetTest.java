@@ -0,0 +1,106 @@
+package com.hostfully.fixtures;
+
+import com.hostfully.fixtures.SyntheticDataset.Spec;
+import com.hostfully.fixtures.SyntheticDataset.Summary;
+import java.time.LocalDate;
+import javax.sql.DataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:synthetic-dataset")
+public class SyntheticDatasetTest {
+
+  private static final Spec SPEC =
+      Spec.of(200, 40).withTimeline(LocalDate.of(2030, 1, 1), 2 * 365).withThreads(4);
+
+  @Autowired private DataSource dataSource;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private static Summary summary;
+
+  @BeforeEach
+  public void generate() {
+    if (summary == null) {
+      summary = SyntheticDataset.generate(dataSource, SPEC);
+    }
+  }
+
+  @Test
+  public void testWritesEveryGeneratedRow() {
+    // Then
+    Assertions.assertThat(count("property")).isEqualTo(summary.properties()).isEqualTo(200);
+    Assertions.assertThat(count("reservation")).isEqualTo(summary.reservations());
+    Assertions.assertThat(count("block")).isEqualTo(summary.blocks()).isPositive();
+    Assertions.assertThat(summary.reservations()).isBetween(200L * 20, 200L * 45);
+    Assertions.assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM reservation WHERE status = 1", Long.class))
+        .isPositive();
+    Assertions.assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM property WHERE id = ?",
+                Long.class,
+                SyntheticDataset.propertyId(SPEC, 7)))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testActiveBookingsNeverOverlap() {
+    // When
+    long overlaps =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM ("
+                + "SELECT property_id, start, finish FROM reservation WHERE status = 0 "
+                + "UNION ALL SELECT property_id, start, finish FROM block) a "
+                + "JOIN (SELECT id, property_id, start, finish FROM reservation WHERE status = 0 "
+                + "UNION ALL SELECT id, property_id, start, finish FROM block) b "
+                + "ON a.property_id = b.property_id AND a.start <= b.finish "
+                + "AND a.finish >= b.start",
+            Long.class);
+
+    // Then: every booking only overlaps itself
+    Assertions.assertThat(overlaps).isEqualTo(count("block") + countActive());
+  }
+
+  @Test
+  public void testDemandIsSkewedAndSeasonal() {
+    // When
+    long busiest =
+        jdbcTemplate.queryForObject(
+            "SELECT max(c) FROM (SELECT count(*) c FROM reservation GROUP BY property_id)",
+            Long.class);
+    long july =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM reservation WHERE MONTH(start) = 7", Long.class);
+    long march =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM reservation WHERE MONTH(start) = 3", Long.class);
+
+    // Then
+    Assertions.assertThat(busiest).isGreaterThan(2L * SPEC.reservationsPerProperty());
+    Assertions.assertThat(july).isGreaterThan(march);
+  }
+
+  @Test
+  public void testSameSpecProducesSameRows() {
+    // When
+    Spec other = SPEC.withThreads(1);
+
+    // Then
+    Assertions.assertThat(SyntheticDataset.propertyId(other, 42))
+        .isEqualTo(SyntheticDataset.propertyId(SPEC, 42));
+  }
+
+  private long count(String table) {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+  }
+
+  private long countActive() {
+    return jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM reservation WHERE status = 0", Long.class);
+  }
+}
@@ -0,0 +1,53 @@
+package com.hostfully.hold;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HoldStoreTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+
+  private final HoldStore holdStore = new HoldStore();
+
+  @AfterEach
+  public void tearDown() {
+    holdStore.destroy();
+  }
+
+  @Test
+  public void testHoldIsReleasedAsLiveOnlyOnce() {
+    // Given
+    Hold hold = hold("live", Instant.now().plus(1, ChronoUnit.HOURS));
+    holdStore.place(hold, 1);
+
+    // When
+    boolean first = holdStore.release(hold.id());
+    boolean second = holdStore.release(hold.id());
+
+    // Then
+    Assertions.assertThat(first).isTrue();
+    Assertions.assertThat(second).isFalse();
+    Assertions.assertThat(holdStore.overlapping("property", START, START)).isEmpty();
+  }
+
+  @Test
+  public void testExpiredHoldIsNotReleasedAsLive() {
+    // Given
+    Hold hold = hold("expired", Instant.now().minus(1, ChronoUnit.SECONDS));
+    holdStore.place(hold, 1);
+
+    // When
+    boolean released = holdStore.release(hold.id());
+
+    // Then
+    Assertions.assertThat(released).isFalse();
+  }
+
+  private static Hold hold(String id, Instant expiresAt) {
+    return new Hold(id, "property", START, START.plusDays(2), expiresAt);
+  }
+}
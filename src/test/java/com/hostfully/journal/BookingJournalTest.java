@@ -0,0 +1,144 @@
+package com.hostfully.journal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+import com.hostfully.exception.BookingRejectedException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.util.unit.DataSize;
+
+public class BookingJournalTest {
+
+  private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+  @TempDir private Path directory;
+
+  @Test
+  public void testUnstoredCommandsAreReplayedOnStart() throws Exception {
+    // Given
+    JournalApplier unavailable = Mockito.mock(JournalApplier.class);
+    Mockito.when(unavailable.propertyExists(any())).thenReturn(true);
+    Mockito.doThrow(new TransientDataAccessResourceException("Database is down"))
+        .when(unavailable)
+        .apply(anyList());
+    BookingJournal journal = new BookingJournal(properties(), unavailable, event -> {});
+    journal.append(reservation("first", JournalEntry.Command.CREATE_RESERVATION));
+    journal.append(reservation("first", JournalEntry.Command.CANCEL_RESERVATION));
+    journal.destroy();
+
+    // When
+    List<JournalEntry> stored = new CopyOnWriteArrayList<>();
+    BookingJournal restarted = new BookingJournal(properties(), applier(stored), event -> {});
+    restarted.awaitReplay();
+
+    // Then
+    Assertions.assertThat(stored)
+        .extracting(JournalEntry::sequence, JournalEntry::command)
+        .containsExactly(
+            Assertions.tuple(1L, JournalEntry.Command.CREATE_RESERVATION),
+            Assertions.tuple(2L, JournalEntry.Command.CANCEL_RESERVATION));
+    restarted.destroy();
+  }
+
+  @Test
+  public void testStoredCommandsAreNotReplayed() throws Exception {
+    // Given
+    List<JournalEntry> stored = new CopyOnWriteArrayList<>();
+    BookingJournal journal = new BookingJournal(properties(), applier(stored), event -> {});
+    journal.append(reservation("first", JournalEntry.Command.CREATE_RESERVATION));
+    journal.awaitPersisted("first");
+    journal.destroy();
+
+    // When
+    List<JournalEntry> replayed = new CopyOnWriteArrayList<>();
+    BookingJournal restarted = new BookingJournal(properties(), applier(replayed), event -> {});
+    restarted.append(reservation("second", JournalEntry.Command.CREATE_RESERVATION));
+    restarted.awaitPersisted();
+
+    // Then
+    Assertions.assertThat(replayed).extracting(JournalEntry::id).containsExactly("second");
+    Assertions.assertThat(replayed.get(0).sequence()).isEqualTo(2);
+    restarted.destroy();
+  }
+
+  @Test
+  public void testRejectedCommandIsReportedUntilTheBookingIsStored() throws Exception {
+    // Given
+    JournalApplier applier = Mockito.mock(JournalApplier.class);
+    Mockito.when(applier.propertyExists(any())).thenReturn(true);
+    Mockito.when(applier.apply(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<JournalEntry> entries = invocation.getArgument(0);
+              return List.of(RejectedCommand.of(entries.get(0), "Property was\ndeleted"));
+            })
+        .thenReturn(List.of());
+    BookingJournal journal = new BookingJournal(properties(), applier, event -> {});
+
+    // When
+    journal.append(reservation("first", JournalEntry.Command.CREATE_RESERVATION));
+    journal.awaitPersisted("first");
+
+    // Then
+    Assertions.assertThatThrownBy(() -> journal.checkNotRejected("first"))
+        .isInstanceOf(BookingRejectedException.class)
+        .hasMessageContaining("Property was deleted");
+    Assertions.assertThat(Files.readAllLines(directory.resolve("rejected.log")))
+        .singleElement()
+        .asString()
+        .contains("\tCREATE_RESERVATION\tfirst\tproperty\t");
+    journal.append(reservation("first", JournalEntry.Command.UPDATE_RESERVATION));
+    journal.awaitPersisted("first");
+    journal.checkNotRejected("first");
+    journal.destroy();
+  }
+
+  @Test
+  public void testTornEntryIsNotDecoded() {
+    // Given
+    byte[] encoded =
+        reservation("first", JournalEntry.Command.CREATE_RESERVATION).withSequence(1).encode();
+    encoded[encoded.length - 1] ^= 1;
+
+    // When
+    JournalEntry decoded = JournalEntry.decode(ByteBuffer.wrap(encoded));
+
+    // Then
+    Assertions.assertThat(decoded).isNull();
+  }
+
+  private JournalProperties properties() {
+    return new JournalProperties(
+        true, directory, DataSize.ofKilobytes(64), 16, 1000, Duration.ofSeconds(5));
+  }
+
+  private static JournalApplier applier(List<JournalEntry> stored) {
+    JournalApplier applier = Mockito.mock(JournalApplier.class);
+    Mockito.when(applier.propertyExists(any())).thenReturn(true);
+    Mockito.doAnswer(
+            invocation -> {
+              stored.addAll(invocation.getArgument(0));
+              return List.of();
+            })
+        .when(applier)
+        .apply(anyList());
+    return applier;
+  }
+
+  private static JournalEntry reservation(String id, JournalEntry.Command command) {
+    int status = command == JournalEntry.Command.CANCEL_RESERVATION ? 1 : 0;
+    return new JournalEntry(
+        0, command, id, "property", START, START.plusDays(2), "guestName", status);
+  }
+}
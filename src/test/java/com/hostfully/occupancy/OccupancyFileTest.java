@@ -0,0 +1,83 @@
+package com.hostfully.occupancy;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OccupancyFileTest {
+
+  private static final LocalDate EPOCH = LocalDate.of(2030, 1, 1);
+
+  @TempDir private Path directory;
+
+  @Test
+  public void testCountsSurviveCleanClose() throws Exception {
+    // Given
+    Path path = directory.resolve("occupancy.bin");
+    OccupancyFile file = OccupancyFile.open(path, EPOCH, 365, 10);
+    file.add("property", EPOCH.plusDays(10), EPOCH.plusDays(12), 1);
+    file.close(true);
+
+    // When
+    OccupancyFile reopened = OccupancyFile.open(path, EPOCH, 365, 10);
+
+    // Then
+    Assertions.assertThat(reopened.reused()).isTrue();
+    Assertions.assertThat(
+            reopened.maxCount("property", EPOCH.plusDays(12), EPOCH.plusDays(20), null, null))
+        .isEqualTo(1);
+    Assertions.assertThat(
+            reopened.maxCount("property", EPOCH.plusDays(13), EPOCH.plusDays(20), null, null))
+        .isZero();
+    reopened.close(true);
+  }
+
+  @Test
+  public void testCountsAreDroppedAfterUncleanClose() throws Exception {
+    // Given
+    Path path = directory.resolve("occupancy.bin");
+    OccupancyFile file = OccupancyFile.open(path, EPOCH, 365, 10);
+    file.add("property", EPOCH, EPOCH.plusDays(2), 1);
+    file.close(false);
+
+    // When
+    OccupancyFile reopened = OccupancyFile.open(path, EPOCH, 365, 10);
+
+    // Then
+    Assertions.assertThat(reopened.reused()).isFalse();
+    Assertions.assertThat(reopened.maxCount("property", EPOCH, EPOCH.plusDays(2), null, null))
+        .isZero();
+    reopened.close(true);
+  }
+
+  @Test
+  public void testIgnoredBookingIsLeftOut() throws Exception {
+    // Given
+    OccupancyFile file = OccupancyFile.open(directory.resolve("occupancy.bin"), EPOCH, 365, 10);
+    file.add("property", EPOCH.plusDays(5), EPOCH.plusDays(8), 1);
+
+    // When
+    int own =
+        file.maxCount(
+            "property",
+            EPOCH.plusDays(6),
+            EPOCH.plusDays(9),
+            EPOCH.plusDays(5),
+            EPOCH.plusDays(8));
+    file.add("property", EPOCH.plusDays(9), EPOCH.plusDays(9), 1);
+    int other =
+        file.maxCount(
+            "property",
+            EPOCH.plusDays(6),
+            EPOCH.plusDays(9),
+            EPOCH.plusDays(5),
+            EPOCH.plusDays(8));
+
+    // Then
+    Assertions.assertThat(own).isZero();
+    Assertions.assertThat(other).isEqualTo(1);
+    file.close(true);
+  }
+}
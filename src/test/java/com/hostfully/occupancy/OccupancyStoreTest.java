@@ -0,0 +1,66 @@
+package com.hostfully.occupancy;
+
+import com.hostfully.model.BookingInterval;
+import com.hostfully.occupancy.OccupancyStore.Availability;
+import com.hostfully.repository.BlockRepository;
+import com.hostfully.repository.ReservationRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+public class OccupancyStoreTest {
+
+  private static final LocalDate START = LocalDate.now().plusDays(10);
+
+  @TempDir private Path directory;
+
+  @Test
+  public void testPropertyWithoutSlotStaysUnknownAfterReuse() throws Exception {
+    // Given
+    OccupancyProperties properties =
+        new OccupancyProperties(true, directory.resolve("occupancy.bin"), 365, 1);
+    OccupancyStore store = store(properties);
+    store.load();
+    store.replace(null, new BookingInterval("first", "tracked", START, START.plusDays(2)));
+    store.replace(null, new BookingInterval("second", "untracked", START, START.plusDays(2)));
+    store.destroy();
+
+    // When
+    OccupancyStore reopened = store(properties);
+
+    // Then
+    Assertions.assertThat(reopened.check("tracked", START, START, null))
+        .isEqualTo(Availability.OCCUPIED);
+    Assertions.assertThat(reopened.check("untracked", START, START, null))
+        .isEqualTo(Availability.UNKNOWN);
+    Assertions.assertThat(reopened.check("never-booked", START, START, null))
+        .isEqualTo(Availability.UNKNOWN);
+    reopened.destroy();
+  }
+
+  @Test
+  public void testDisabledStoreDeletesLeftoverFile() throws Exception {
+    // Given
+    Path file = directory.resolve("occupancy.bin");
+    OccupancyStore store = store(new OccupancyProperties(true, file, 365, 10));
+    store.load();
+    store.destroy();
+
+    // When
+    store(new OccupancyProperties(false, file, 365, 10));
+
+    // Then
+    Assertions.assertThat(Files.exists(file)).isFalse();
+  }
+
+  private static OccupancyStore store(OccupancyProperties properties) {
+    return new OccupancyStore(
+        properties,
+        Mockito.mock(ReservationRepository.class),
+        Mockito.mock(BlockRepository.class));
+  }
+}
@@ -0,0 +1,71 @@
+package com.hostfully.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  @Test
+  public void testSlowRequestsInFlightTogetherCutTheLimitOnce() throws Exception {
+    // Given
+    AdaptiveConcurrencyLimiter limiter = limiter();
+    long start = startRequests(limiter, 10);
+
+    // When
+    for (int i = 0; i < 10; i++) {
+      limiter.release(start);
+    }
+
+    // Then
+    Assertions.assertThat(limiter.getLimit()).isCloseTo(90, Assertions.within(0.001));
+  }
+
+  @Test
+  public void testSlowRequestStartedAfterACutCutsAgain() throws Exception {
+    // Given
+    AdaptiveConcurrencyLimiter limiter = limiter();
+    limiter.release(startRequests(limiter, 1));
+
+    // When
+    limiter.release(startRequests(limiter, 1));
+
+    // Then
+    Assertions.assertThat(limiter.getLimit()).isCloseTo(81, Assertions.within(0.001));
+  }
+
+  @Test
+  public void testCancelledRequestLeavesTheLimitAlone() {
+    // Given
+    AdaptiveConcurrencyLimiter limiter = limiter();
+    limiter.tryAcquire();
+
+    // When
+    limiter.cancel();
+
+    // Then
+    Assertions.assertThat(limiter.getLimit()).isEqualTo(100);
+  }
+
+  /** Starts the requests at a moment strictly after anything before, and returns that moment. */
+  private static long startRequests(AdaptiveConcurrencyLimiter limiter, int count)
+      throws InterruptedException {
+    Thread.sleep(1);
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      limiter.tryAcquire();
+    }
+    Thread.sleep(1);
+    return start;
+  }
+
+  /** Every request counts as slow, so each release that may cut the limit does. */
+  private static AdaptiveConcurrencyLimiter limiter() {
+    RateLimitProperties properties =
+        new RateLimitProperties(
+            true, null, null, new RateLimitProperties.Concurrency(100, 10, 1000, Duration.ZERO));
+    return new AdaptiveConcurrencyLimiter(
+        properties, new RateLimitMetrics(new SimpleMeterRegistry()));
+  }
+}
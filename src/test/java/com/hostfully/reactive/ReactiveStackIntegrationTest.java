@@ -0,0 +1,282 @@
+package com.hostfully.reactive;
+
+import com.hostfully.controller.dtos.AvailableWindowDto;
+import com.hostfully.controller.dtos.BlockDto;
+import com.hostfully.controller.dtos.ErrorResponseDto;
+import com.hostfully.controller.dtos.PersistBlockDto;
+import com.hostfully.controller.dtos.PersistHoldDto;
+import com.hostfully.controller.dtos.PersistPropertyDto;
+import com.hostfully.controller.dtos.PersistReservationDto;
+import com.hostfully.controller.dtos.PropertyDeletionDto;
+import com.hostfully.controller.dtos.PropertyDto;
+import com.hostfully.controller.dtos.ReservationDto;
+import com.hostfully.model.Reservation;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@DisabledInNativeImage
+public class ReactiveStackIntegrationTest {
+
+  @Autowired private WebTestClient webTestClient;
+
+  @Test
+  public void testSuccessfulReservationCreationAndCancellation() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+    PersistReservationDto createReservationDto =
+        new PersistReservationDto(
+            propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(1), "Guest name");
+
+    // When
+    ReservationDto created =
+        webTestClient
+            .post()
+            .uri("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createReservationDto)
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(ReservationDto.class)
+            .returnResult()
+            .getResponseBody();
+    webTestClient
+        .put()
+        .uri("/reservation/{id}/cancel", created.id())
+        .exchange()
+        .expectStatus()
+        .isNoContent();
+    ReservationDto found =
+        webTestClient
+            .get()
+            .uri("/reservation/{id}", created.id())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(ReservationDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    // Then
+    Assertions.assertThat(created.guestName()).isEqualTo("Guest name");
+    Assertions.assertThat(created.status()).isEqualTo(Reservation.ReservationStatus.ACTIVE.name());
+    Assertions.assertThat(found.status())
+        .isEqualTo(Reservation.ReservationStatus.CANCELLED.name());
+  }
+
+  @Test
+  public void testReservationOverlappingBlockIsRejected() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+    BlockDto block =
+        webTestClient
+            .post()
+            .uri("/block")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(
+                new PersistBlockDto(
+                    propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(3)))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(BlockDto.class)
+            .returnResult()
+            .getResponseBody();
+    PersistReservationDto overlapping =
+        new PersistReservationDto(
+            propertyDto.id(), LocalDate.now().plusDays(1), LocalDate.now().plusDays(2), "Guest");
+
+    // When
+    ErrorResponseDto response =
+        webTestClient
+            .post()
+            .uri("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(overlapping)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody(ErrorResponseDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    // Then
+    Assertions.assertThat(response.conflicts()).hasSize(1);
+    Assertions.assertThat(response.conflicts().get(0).id()).isEqualTo(block.id());
+  }
+
+  @Test
+  public void testFindAllStreamsPropertiesWithTheirBookings() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+    webTestClient
+        .post()
+        .uri("/block")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            new PersistBlockDto(propertyDto.id(), LocalDate.now(), LocalDate.now().plusDays(1)))
+        .exchange()
+        .expectStatus()
+        .isCreated();
+
+    // When
+    PropertyDto streamed =
+        webTestClient
+            .get()
+            .uri("/property")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(PropertyDto.class)
+            .getResponseBody()
+            .filter(property -> property.id().equals(propertyDto.id()))
+            .blockFirst();
+
+    // Then
+    Assertions.assertThat(streamed.name()).isEqualTo("Reactive property");
+    Assertions.assertThat(streamed.blocks()).hasSize(1);
+    Assertions.assertThat(streamed.reservations()).isEmpty();
+  }
+
+  @Test
+  public void testMultiUnitPropertyTakesOverlappingReservationsUpToItsUnits() {
+    // Given
+    PropertyDto propertyDto =
+        webTestClient
+            .post()
+            .uri("/property")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new PersistPropertyDto("Reactive property", 2))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(PropertyDto.class)
+            .returnResult()
+            .getResponseBody();
+    LocalDate start = LocalDate.now().plusDays(10);
+    reserve(propertyDto.id(), start).expectStatus().isCreated();
+    reserve(propertyDto.id(), start).expectStatus().isCreated();
+
+    // When
+    WebTestClient.ResponseSpec third = reserve(propertyDto.id(), start);
+
+    // Then
+    third.expectStatus().isBadRequest();
+  }
+
+  @Test
+  public void testReservationOfUnknownPropertyIsRejected() {
+    // When
+    WebTestClient.ResponseSpec response = reserve("no-such-property", LocalDate.now());
+
+    // Then
+    response.expectStatus().isNotFound();
+  }
+
+  @Test
+  public void testDeletionIsAcceptedAndCanBeFollowed() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+
+    // When
+    PropertyDeletionDto deletion =
+        webTestClient
+            .delete()
+            .uri("/property/{id}", propertyDto.id())
+            .exchange()
+            .expectStatus()
+            .isAccepted()
+            .expectHeader()
+            .exists(HttpHeaders.LOCATION)
+            .expectBody(PropertyDeletionDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    // Then
+    Assertions.assertThat(deletion.propertyId()).isEqualTo(propertyDto.id());
+    webTestClient
+        .get()
+        .uri("/property/deletions/{id}", deletion.id())
+        .exchange()
+        .expectStatus()
+        .isOk();
+  }
+
+  @Test
+  public void testNextAvailableWindowIsServed() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+    LocalDate start = LocalDate.now().plusDays(1);
+    reserve(propertyDto.id(), start).expectStatus().isCreated();
+
+    // When
+    AvailableWindowDto window =
+        webTestClient
+            .get()
+            .uri("/property/{id}/next-available?nights=2&from={from}", propertyDto.id(), start)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(AvailableWindowDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    // Then
+    Assertions.assertThat(window.start()).isEqualTo(start.plusDays(2));
+  }
+
+  @Test
+  public void testServletOnlyEndpointsAreNotServed() {
+    // Given
+    PropertyDto propertyDto = createProperty();
+
+    // When
+    WebTestClient.ResponseSpec holds =
+        webTestClient
+            .post()
+            .uri("/property/{id}/holds", propertyDto.id())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new PersistHoldDto(LocalDate.now(), LocalDate.now().plusDays(1), null))
+            .exchange();
+    WebTestClient.ResponseSpec calendar =
+        webTestClient.get().uri("/property/{id}/calendar.ics", propertyDto.id()).exchange();
+
+    // Then
+    holds.expectStatus().isNotFound();
+    calendar.expectStatus().isNotFound();
+  }
+
+  /** Reservation of two nights from the start. */
+  private WebTestClient.ResponseSpec reserve(String propertyId, LocalDate start) {
+    return webTestClient
+        .post()
+        .uri("/reservation")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new PersistReservationDto(propertyId, start, start.plusDays(1), "Guest name"))
+        .exchange();
+  }
+
+  private PropertyDto createProperty() {
+    return webTestClient
+        .post()
+        .uri("/property")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new PersistPropertyDto("Reactive property"))
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody(PropertyDto.class)
+        .returnResult()
+        .getResponseBody();
+  }
+}
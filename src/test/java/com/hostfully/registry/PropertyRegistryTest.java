@@ -0,0 +1,66 @@
+package com.hostfully.registry;
+
+import com.hostfully.exception.PropertyNotFoundException;
+import com.hostfully.repository.PropertyRepository;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class PropertyRegistryTest {
+
+  @Test
+  public void testUnknownIdsAreRejectedWithoutQueryOnceLoaded() {
+    // Given
+    PropertyRepository repository = Mockito.mock(PropertyRepository.class);
+    Mockito.when(repository.findIds()).thenReturn(List.of("first"));
+    PropertyRegistry registry = new PropertyRegistry(repository);
+
+    // When
+    registry.load();
+    registry.add("second");
+
+    // Then
+    Assertions.assertThat(registry.exists("first")).isTrue();
+    Assertions.assertThat(registry.exists("second")).isTrue();
+    Assertions.assertThatThrownBy(() -> registry.check("unknown"))
+        .isInstanceOf(PropertyNotFoundException.class);
+    Mockito.verify(repository, Mockito.never()).existsById(Mockito.any());
+  }
+
+  @Test
+  public void testLookupsGoToTheDatabaseUntilLoaded() {
+    // Given
+    PropertyRepository repository = Mockito.mock(PropertyRepository.class);
+    Mockito.when(repository.existsById("first")).thenReturn(true);
+    PropertyRegistry registry = new PropertyRegistry(repository);
+
+    // When
+    boolean exists = registry.exists("first");
+
+    // Then
+    Assertions.assertThat(exists).isTrue();
+    Assertions.assertThat(registry.exists("unknown")).isFalse();
+  }
+
+  @Test
+  public void testPropertyDeletedWhileLoadingIsNotRegistered() {
+    // Given
+    PropertyRepository repository = Mockito.mock(PropertyRepository.class);
+    PropertyRegistry registry = new PropertyRegistry(repository);
+    Mockito.when(repository.findIds())
+        .thenAnswer(
+            invocation -> {
+              // Deleted after the query read it
+              registry.remove("first");
+              return List.of("first", "second");
+            });
+
+    // When
+    registry.load();
+
+    // Then
+    Assertions.assertThat(registry.exists("first")).isFalse();
+    Assertions.assertThat(registry.exists("second")).isTrue();
+  }
+}
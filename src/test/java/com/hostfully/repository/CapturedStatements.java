@@ -0,0 +1,39 @@
+package com.hostfully.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook, registered through {@value #PROPERTY}, that hands back the SQL Hibernate
+ * generates on the current thread while {@link #capture} runs, so tests can look at the exact
+ * statements the repositories send.
+ */
+public class CapturedStatements implements StatementInspector {
+
+  public static final String PROPERTY =
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "com.hostfully.repository.CapturedStatements";
+
+  private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+  public static List<String> capture(Runnable action) {
+    List<String> statements = new ArrayList<>();
+    captured.set(statements);
+    try {
+      action.run();
+    } finally {
+      captured.remove();
+    }
+    return statements;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    List<String> statements = captured.get();
+    if (statements != null) {
+      statements.add(sql);
+    }
+    return sql;
+  }
+}
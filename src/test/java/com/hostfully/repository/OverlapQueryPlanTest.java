@@ -0,0 +1,111 @@
+package com.hostfully.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs EXPLAIN on the SQL Hibernate generates for the repository overlap queries and fails when
+ * the plan scans a whole table instead of using the indexes from the migrations.
+ */
+@SpringBootTest(
+    properties = {"spring.datasource.url=jdbc:h2:mem:query-plans", CapturedStatements.PROPERTY})
+public class OverlapQueryPlanTest {
+
+  private static final LocalDate FROM = LocalDate.of(2024, 2, 20);
+  private static final LocalDate TO = LocalDate.of(2024, 3, 1);
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ReservationRepository reservationRepository;
+
+  @Autowired private BlockRepository blockRepository;
+
+  @Autowired private PropertyRepository propertyRepository;
+
+  @BeforeEach
+  public void populate() {
+    if (jdbcTemplate.queryForObject("SELECT count(*) FROM property", Long.class) > 0) {
+      return;
+    }
+    for (int p = 0; p < 20; p++) {
+      String propertyId = "property-" + p;
+      jdbcTemplate.update("INSERT INTO property (id, name) VALUES (?, ?)", propertyId, "name");
+      LocalDate day = LocalDate.of(2024, 1, 1);
+      for (int r = 0; r < 50; r++) {
+        jdbcTemplate.update(
+            "INSERT INTO reservation (id, property_id, start, finish, guest_name, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)",
+            propertyId + "-r" + r,
+            propertyId,
+            day,
+            day.plusDays(2),
+            "guest",
+            r % 10 == 0 ? 1 : 0);
+        jdbcTemplate.update(
+            "INSERT INTO block (id, property_id, start, finish) VALUES (?, ?, ?, ?)",
+            propertyId + "-b" + r,
+            propertyId,
+            day.plusDays(3),
+            day.plusDays(3));
+        day = day.plusDays(4);
+      }
+    }
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  public void testReservationOverlapQueryUsesIndex() {
+    // When
+    String plan =
+        explainGenerated(
+            () -> reservationRepository.findByPropertyIdAndDateRange("property-1", FROM, TO),
+            "property-1",
+            TO,
+            FROM);
+
+    // Then
+    Assertions.assertThat(plan).contains("IDX_RESERVATION_OVERLAP").doesNotContain("tableScan");
+  }
+
+  @Test
+  public void testBlockOverlapQueryUsesIndex() {
+    // When
+    String plan =
+        explainGenerated(
+            () -> blockRepository.findByPropertyIdAndDateRange("property-1", FROM, TO),
+            "property-1",
+            TO,
+            FROM);
+
+    // Then
+    Assertions.assertThat(plan).contains("IDX_BLOCK_OVERLAP").doesNotContain("tableScan");
+  }
+
+  @Test
+  public void testPropertyCollectionsUseIndex() {
+    // When
+    String reservationsPlan =
+        explainGenerated(
+            () -> propertyRepository.findWithReservations(List.of("property-1")), "property-1");
+    String blocksPlan =
+        explainGenerated(
+            () -> propertyRepository.findWithBlocks(List.of("property-1")), "property-1");
+
+    // Then
+    Assertions.assertThat(reservationsPlan).doesNotContain("tableScan");
+    Assertions.assertThat(blocksPlan).doesNotContain("tableScan");
+  }
+
+  /** Plan of the first statement the query sends, run with the arguments in SQL order. */
+  private String explainGenerated(Runnable query, Object... args) {
+    List<String> statements = CapturedStatements.capture(query);
+    Assertions.assertThat(statements).isNotEmpty();
+    return jdbcTemplate.queryForObject("EXPLAIN " + statements.get(0), String.class, args);
+  }
+}
@@ -0,0 +1,225 @@
+package com.hostfully.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = CapturedStatements.PROPERTY)
+@ActiveProfiles("postgres")
+@DisabledInNativeImage
+public class PostgresOverlapConstraintTest {
+
+  private static final EmbeddedPostgres postgres = startPostgres();
+  private static final LocalDate PLAN_FROM = LocalDate.of(2024, 2, 20);
+  private static final LocalDate PLAN_TO = LocalDate.of(2024, 3, 1);
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ReservationRepository reservationRepository;
+
+  @Autowired private BlockRepository blockRepository;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+    registry.add("spring.datasource.username", () -> "postgres");
+    registry.add("spring.datasource.password", () -> "");
+  }
+
+  @Test
+  public void testOverlappingActiveReservationsAreRejected() {
+    // Given
+    String propertyId = createProperty("overlap-property");
+    insertReservation("first", propertyId, LocalDate.now(), LocalDate.now().plusDays(3), 0);
+
+    // When
+    Throwable thrown =
+        Assertions.catchThrowable(
+            () ->
+                insertReservation(
+                    "second",
+                    propertyId,
+                    LocalDate.now().plusDays(3),
+                    LocalDate.now().plusDays(5),
+                    0));
+
+    // Then
+    Assertions.assertThat(thrown)
+        .isInstanceOfSatisfying(
+            DataIntegrityViolationException.class,
+            e -> Assertions.assertThat(ExclusionConstraints.isViolatedBy(e)).isTrue());
+  }
+
+  @Test
+  public void testCancelledReservationsDoNotTakePartInTheExclusion() {
+    // Given
+    String propertyId = createProperty("cancelled-property");
+    insertReservation("cancelled", propertyId, LocalDate.now(), LocalDate.now().plusDays(3), 1);
+
+    // When
+    insertReservation("active", propertyId, LocalDate.now(), LocalDate.now().plusDays(3), 0);
+
+    // Then
+    Assertions.assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM reservation WHERE property_id = ?", Long.class, propertyId))
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testMultiUnitPropertyTakesOverlappingReservationsUpToItsUnits() {
+    // Given
+    String propertyId = createProperty("multi-unit-property");
+    jdbcTemplate.update("UPDATE property SET units = 2 WHERE id = ?", propertyId);
+    insertReservation("first", propertyId, LocalDate.now(), LocalDate.now().plusDays(3), 0);
+    insertReservation(
+        "second", propertyId, LocalDate.now().plusDays(2), LocalDate.now().plusDays(5), 0);
+
+    // When
+    Throwable thrown =
+        Assertions.catchThrowable(
+            () ->
+                insertReservation(
+                    "third",
+                    propertyId,
+                    LocalDate.now().plusDays(3),
+                    LocalDate.now().plusDays(4),
+                    0));
+
+    // Then
+    Assertions.assertThat(thrown)
+        .isInstanceOfSatisfying(
+            DataIntegrityViolationException.class,
+            e -> Assertions.assertThat(ExclusionConstraints.isViolatedBy(e)).isTrue());
+    insertReservation(
+        "fourth", propertyId, LocalDate.now().plusDays(4), LocalDate.now().plusDays(6), 0);
+  }
+
+  @Test
+  public void testPropertyWithOverlappingReservationsCannotDropToOneUnit() {
+    // Given
+    String propertyId = createProperty("shrinking-property");
+    jdbcTemplate.update("UPDATE property SET units = 2 WHERE id = ?", propertyId);
+    insertReservation("first", propertyId, LocalDate.now(), LocalDate.now().plusDays(3), 0);
+    insertReservation(
+        "second", propertyId, LocalDate.now().plusDays(2), LocalDate.now().plusDays(5), 0);
+
+    // When
+    Throwable thrown =
+        Assertions.catchThrowable(
+            () -> jdbcTemplate.update("UPDATE property SET units = 1 WHERE id = ?", propertyId));
+
+    // Then
+    Assertions.assertThat(thrown)
+        .isInstanceOfSatisfying(
+            DataIntegrityViolationException.class,
+            e -> Assertions.assertThat(ExclusionConstraints.isViolatedBy(e)).isTrue());
+  }
+
+  @Test
+  public void testReservationOverlapQueryUsesIndex() {
+    // Given
+    populateForPlans();
+
+    // When
+    String plan =
+        explainGenerated(
+            () -> reservationRepository.findByPropertyIdAndDateRange("plan-1", PLAN_FROM, PLAN_TO),
+            "plan-1",
+            PLAN_TO,
+            PLAN_FROM);
+
+    // Then
+    Assertions.assertThat(plan).contains("idx_reservation_overlap");
+  }
+
+  @Test
+  public void testBlockOverlapQueryUsesIndex() {
+    // Given
+    populateForPlans();
+
+    // When
+    String plan =
+        explainGenerated(
+            () -> blockRepository.findByPropertyIdAndDateRange("plan-1", PLAN_FROM, PLAN_TO),
+            "plan-1",
+            PLAN_TO,
+            PLAN_FROM);
+
+    // Then
+    Assertions.assertThat(plan).contains("idx_block_overlap");
+  }
+
+  /**
+   * Enough properties and bookings, with fresh statistics, that the planner prices an index scan
+   * under a sequential one on its own.
+   */
+  private void populateForPlans() {
+    Boolean populated =
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM property WHERE id = 'plan-1')", Boolean.class);
+    if (Boolean.TRUE.equals(populated)) {
+      return;
+    }
+    jdbcTemplate.update(
+        "INSERT INTO property (id, name) "
+            + "SELECT 'plan-' || p, 'name' FROM generate_series(1, 100) p");
+    jdbcTemplate.update(
+        "INSERT INTO reservation (id, property_id, start, finish, guest_name, status) "
+            + "SELECT 'plan-' || p || '-r' || r, 'plan-' || p, DATE '2024-01-01' + r * 4, "
+            + "DATE '2024-01-01' + r * 4 + 2, 'guest', CASE WHEN r % 10 = 0 THEN 1 ELSE 0 END "
+            + "FROM generate_series(1, 100) p, generate_series(0, 99) r");
+    jdbcTemplate.update(
+        "INSERT INTO block (id, property_id, start, finish) "
+            + "SELECT 'plan-' || p || '-b' || r, 'plan-' || p, DATE '2024-01-01' + r * 4 + 3, "
+            + "DATE '2024-01-01' + r * 4 + 3 "
+            + "FROM generate_series(1, 100) p, generate_series(0, 99) r");
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  /** Plan of the first statement the query sends, run with the arguments in SQL order. */
+  private String explainGenerated(Runnable query, Object... args) {
+    List<String> statements = CapturedStatements.capture(query);
+    Assertions.assertThat(statements).isNotEmpty();
+    return String.join(
+        "\n", jdbcTemplate.queryForList("EXPLAIN " + statements.get(0), String.class, args));
+  }
+
+  private String createProperty(String id) {
+    jdbcTemplate.update("INSERT INTO property (id, name) VALUES (?, ?)", id, "Property name");
+    return id;
+  }
+
+  private void insertReservation(
+      String id, String propertyId, LocalDate start, LocalDate finish, int status) {
+    jdbcTemplate.update(
+        "INSERT INTO reservation (id, property_id, start, finish, guest_name, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?)",
+        id + "-" + propertyId,
+        propertyId,
+        start,
+        finish,
+        "Guest name",
+        status);
+  }
+
+  private static EmbeddedPostgres startPostgres() {
+    try {
+      return EmbeddedPostgres.start();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.hostfully.warmup;
+
+import com.hostfully.registry.PropertyRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:warmup",
+      "hostfully.warmup.months=1",
+      "hostfully.warmup.max-properties=2"
+    })
+public class BookingWarmupTest {
+
+  @Autowired private BookingWarmup bookingWarmup;
+
+  @Autowired private RecordingListener listener;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PropertyRegistry propertyRegistry;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  public void testBusiestPropertiesInTheWindowAreWarmed() {
+    // Given
+    LocalDate today = LocalDate.now();
+    createProperty("quiet");
+    reserve("quiet", today, 1);
+    createProperty("busy");
+    reserve("busy", today, 3);
+    block("busy", today.plusDays(20));
+    createProperty("busier");
+    reserve("busier", today, 5);
+    createProperty("busy-later");
+    reserve("busy-later", today.plusMonths(2), 10);
+
+    // When
+    bookingWarmup.warmUp();
+
+    // Then
+    Assertions.assertThat(listener.warmupSet.propertyIds()).containsExactly("busier", "busy");
+    Assertions.assertThat(meterRegistry.get("hostfully.response.cache.size").gauge().value())
+        .isPositive();
+  }
+
+  private void createProperty(String id) {
+    jdbcTemplate.update("INSERT INTO property (id, name) VALUES (?, ?)", id, "Property name");
+    propertyRegistry.add(id);
+  }
+
+  /** Reservations of two nights each, one after the other from the start on. */
+  private void reserve(String propertyId, LocalDate start, int count) {
+    for (int i = 0; i < count; i++) {
+      LocalDate day = start.plusDays(3L * i);
+      jdbcTemplate.update(
+          "INSERT INTO reservation (id, property_id, start, finish, guest_name, status) "
+              + "VALUES (?, ?, ?, ?, ?, 0)",
+          propertyId + "-" + day,
+          propertyId,
+          day,
+          day.plusDays(1),
+          "Guest name");
+    }
+  }
+
+  private void block(String propertyId, LocalDate day) {
+    jdbcTemplate.update(
+        "INSERT INTO block (id, property_id, start, finish) VALUES (?, ?, ?, ?)",
+        propertyId + "-block",
+        propertyId,
+        day,
+        day);
+  }
+
+  static class RecordingListener implements WarmupListener {
+
+    private volatile WarmupSet warmupSet;
+
+    @Override
+    public void onWarmup(WarmupSet warmupSet) {
+      this.warmupSet = warmupSet;
+    }
+  }
+
+  @TestConfiguration
+  static class Config {
+
+    @Bean
+    RecordingListener recordingListener() {
+      return new RecordingListener();
+    }
+  }
+}
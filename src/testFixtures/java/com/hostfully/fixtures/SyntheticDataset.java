@@ -0,0 +1,359 @@
+package com.hostfully.fixtures;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+/**
+ * Fills an already migrated schema with a synthetic portfolio: properties whose demand follows a
+ * log-normal popularity, stays that cluster in the summer, cancellations that free their nights
+ * for a later guest, and owner blocks between stays. Active reservations and blocks of one
+ * property never overlap, so the data passes the same checks as the API.
+ *
+ * <p>Rows go in through JDBC batches, one connection per worker thread, and every property draws
+ * from its own random stream seeded from {@link Spec#seed()} and its index, so the same spec
+ * always produces the same rows however many threads write them. On PostgreSQL, add {@code
+ * reWriteBatchedInserts=true} to the URL so that the driver sends each batch as one statement.
+ */
+public final class SyntheticDataset {
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int MAX_STAY = 28;
+  private static final int MAX_BLOCK = 7;
+  // Gaps are divided by the season, so on average they stretch by the mean of its inverse
+  private static final double SLOW_SEASON =
+      LocalDate.of(2001, 1, 1)
+          .datesUntil(LocalDate.of(2002, 1, 1))
+          .mapToDouble(day -> 1 / season(day))
+          .average()
+          .orElse(1);
+  private static final String[] FIRST_NAMES = {
+    "Ana", "Bruno", "Carla", "Diego", "Elena", "Felipe", "Grace", "Hugo", "Iris", "Joao", "Kim",
+    "Lucas", "Maria", "Nina", "Oscar", "Paula", "Rafael", "Sofia", "Tomas", "Yara"
+  };
+  private static final String[] LAST_NAMES = {
+    "Almeida", "Brown", "Costa", "Dubois", "Evans", "Ferreira", "Garcia", "Hansen", "Ito", "Jones",
+    "Kowalski", "Lima", "Martin", "Novak", "Oliveira", "Peters", "Rossi", "Silva", "Tanaka", "Weber"
+  };
+
+  /**
+   * What to generate.
+   *
+   * @param properties number of properties
+   * @param reservationsPerProperty mean reservations per property, cancelled ones included
+   * @param popularitySkew sigma of the log-normal popularity; 0 gives every property the same
+   *     demand
+   * @param cancellationRate share of reservations that are cancelled
+   * @param blockRate share of timeline entries that are owner blocks instead of stays
+   * @param meanStay mean length of a stay in nights
+   * @param from first day of the generated timeline
+   * @param days length of the timeline in days
+   * @param seed seed of the random streams
+   * @param threads number of writer threads, each with its own connection
+   */
+  public record Spec(
+      int properties,
+      int reservationsPerProperty,
+      double popularitySkew,
+      double cancellationRate,
+      double blockRate,
+      double meanStay,
+      LocalDate from,
+      int days,
+      long seed,
+      int threads) {
+
+    /** Three years from the start of the current year with the default shape. */
+    public static Spec of(int properties, int reservationsPerProperty) {
+      return new Spec(
+          properties,
+          reservationsPerProperty,
+          0.8,
+          0.08,
+          0.1,
+          4,
+          LocalDate.now().withDayOfYear(1),
+          3 * 365,
+          42,
+          Runtime.getRuntime().availableProcessors());
+    }
+
+    public Spec withSeed(long seed) {
+      return new Spec(
+          properties,
+          reservationsPerProperty,
+          popularitySkew,
+          cancellationRate,
+          blockRate,
+          meanStay,
+          from,
+          days,
+          seed,
+          threads);
+    }
+
+    public Spec withThreads(int threads) {
+      return new Spec(
+          properties,
+          reservationsPerProperty,
+          popularitySkew,
+          cancellationRate,
+          blockRate,
+          meanStay,
+          from,
+          days,
+          seed,
+          threads);
+    }
+
+    public Spec withTimeline(LocalDate from, int days) {
+      return new Spec(
+          properties,
+          reservationsPerProperty,
+          popularitySkew,
+          cancellationRate,
+          blockRate,
+          meanStay,
+          from,
+          days,
+          seed,
+          threads);
+    }
+  }
+
+  /** Rows written and the time it took. */
+  public record Summary(long properties, long reservations, long blocks, Duration took) {
+
+    public double rowsPerSecond() {
+      return (properties + reservations + blocks) / Math.max(took.toNanos() / 1e9, 1e-9);
+    }
+  }
+
+  private SyntheticDataset() {}
+
+  /** Id of the property at {@code index}, as {@link #generate} writes it for {@code spec}. */
+  public static String propertyId(Spec spec, int index) {
+    SplittableRandom random = random(spec, index);
+    return new UUID(random.nextLong(), random.nextLong()).toString();
+  }
+
+  public static Summary generate(DataSource dataSource, Spec spec) {
+    long startedAt = System.nanoTime();
+    AtomicLong reservations = new AtomicLong();
+    AtomicLong blocks = new AtomicLong();
+    int threads = Math.max(1, Math.min(spec.threads(), spec.properties()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int worker = 0; worker < threads; worker++) {
+        int first = worker;
+        workers.add(
+            executor.submit(
+                () -> {
+                  try (Writer writer = new Writer(dataSource.getConnection())) {
+                    for (int index = first; index < spec.properties(); index += threads) {
+                      writeProperty(writer, spec, index);
+                    }
+                    writer.flush();
+                    reservations.addAndGet(writer.reservations);
+                    blocks.addAndGet(writer.blocks);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : workers) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating the dataset", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not generate the dataset", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return new Summary(
+        spec.properties(),
+        reservations.get(),
+        blocks.get(),
+        Duration.ofNanos(System.nanoTime() - startedAt));
+  }
+
+  private static void writeProperty(Writer writer, Spec spec, int index) throws SQLException {
+    SplittableRandom random = random(spec, index);
+    String propertyId = new UUID(random.nextLong(), random.nextLong()).toString();
+    writer.property(propertyId, String.format("Property %07d", index));
+
+    // Log-normal with a mean of one, capped at what the timeline can hold
+    double sigma = spec.popularitySkew();
+    double popularity = Math.exp(sigma * gaussian(random) - sigma * sigma / 2);
+    // Days each reservation takes from the timeline, counting its share of blocks; cancelled
+    // stays take none
+    double perReservation =
+        (1 - spec.cancellationRate()) * (spec.meanStay() + 1)
+            + spec.blockRate() / (1 - spec.blockRate()) * (MAX_BLOCK + 1) / 2.0;
+    int capacity = (int) (spec.days() / perReservation);
+    int target = (int) Math.min(capacity, Math.round(spec.reservationsPerProperty() * popularity));
+    if (target == 0) {
+      return;
+    }
+    double entries = target / (1 - spec.blockRate());
+    double meanGap = Math.max(0, spec.days() - target * perReservation) / entries / SLOW_SEASON;
+
+    LocalDate end = spec.from().plusDays(spec.days());
+    LocalDate day = spec.from();
+    int written = 0;
+    while (written < target) {
+      day = day.plusDays(Math.round(exponential(random, meanGap) / season(day)));
+      if (random.nextDouble() < spec.blockRate()) {
+        LocalDate finish = day.plusDays(random.nextInt(MAX_BLOCK));
+        if (finish.isAfter(end)) {
+          break;
+        }
+        writer.block(
+            new UUID(random.nextLong(), random.nextLong()).toString(), propertyId, day, finish);
+        day = finish.plusDays(1);
+        continue;
+      }
+      int nights = Math.min(MAX_STAY, 1 + (int) exponential(random, spec.meanStay() - 1));
+      LocalDate finish = day.plusDays(nights);
+      if (finish.isAfter(end)) {
+        break;
+      }
+      boolean cancelled = random.nextDouble() < spec.cancellationRate();
+      writer.reservation(
+          new UUID(random.nextLong(), random.nextLong()).toString(),
+          propertyId,
+          day,
+          finish,
+          FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+              + " "
+              + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+          cancelled);
+      written++;
+      // A cancelled stay leaves its nights to the next guest
+      if (!cancelled) {
+        day = finish.plusDays(1);
+      }
+    }
+  }
+
+  /** Demand relative to the yearly mean: peaks in mid July and is lowest in mid January. */
+  static double season(LocalDate day) {
+    return 1 + 0.45 * Math.cos(2 * Math.PI * (day.getDayOfYear() - 196) / 365.25);
+  }
+
+  private static SplittableRandom random(Spec spec, int index) {
+    return new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + index);
+  }
+
+  private static double exponential(SplittableRandom random, double mean) {
+    return mean <= 0 ? 0 : -mean * Math.log(1 - random.nextDouble());
+  }
+
+  private static double gaussian(SplittableRandom random) {
+    return Math.sqrt(-2 * Math.log(1 - random.nextDouble()))
+        * Math.cos(2 * Math.PI * random.nextDouble());
+  }
+
+  /** Batches the inserts of one worker and commits every time a batch is sent. */
+  private static final class Writer implements AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement properties;
+    private final PreparedStatement reservationRows;
+    private final PreparedStatement blockRows;
+    private int pending;
+    private long reservations;
+    private long blocks;
+
+    Writer(Connection connection) throws SQLException {
+      this.connection = connection;
+      connection.setAutoCommit(false);
+      properties = connection.prepareStatement("INSERT INTO property (id, name) VALUES (?, ?)");
+      reservationRows =
+          connection.prepareStatement(
+              "INSERT INTO reservation (id, property_id, start, finish, guest_name, status) "
+                  + "VALUES (?, ?, ?, ?, ?, ?)");
+      blockRows =
+          connection.prepareStatement(
+              "INSERT INTO block (id, property_id, start, finish) VALUES (?, ?, ?, ?)");
+    }
+
+    void property(String id, String name) throws SQLException {
+      properties.setString(1, id);
+      properties.setString(2, name);
+      properties.addBatch();
+      added();
+    }
+
+    void reservation(
+        String id,
+        String propertyId,
+        LocalDate start,
+        LocalDate finish,
+        String guestName,
+        boolean cancelled)
+        throws SQLException {
+      reservationRows.setString(1, id);
+      reservationRows.setString(2, propertyId);
+      reservationRows.setDate(3, Date.valueOf(start));
+      reservationRows.setDate(4, Date.valueOf(finish));
+      reservationRows.setString(5, guestName);
+      reservationRows.setInt(6, cancelled ? 1 : 0);
+      reservationRows.addBatch();
+      reservations++;
+      added();
+    }
+
+    void block(String id, String propertyId, LocalDate start, LocalDate finish)
+        throws SQLException {
+      blockRows.setString(1, id);
+      blockRows.setString(2, propertyId);
+      blockRows.setDate(3, Date.valueOf(start));
+      blockRows.setDate(4, Date.valueOf(finish));
+      blockRows.addBatch();
+      blocks++;
+      added();
+    }
+
+    private void added() throws SQLException {
+      if (++pending >= BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    // Properties first, so that the foreign keys of the bookings in the same batch resolve
+    void flush() throws SQLException {
+      properties.executeBatch();
+      reservationRows.executeBatch();
+      blockRows.executeBatch();
+      connection.commit();
+      pending = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        if (pending > 0) {
+          connection.rollback();
+        }
+      } finally {
+        connection.close();
+      }
+    }
+  }
+}